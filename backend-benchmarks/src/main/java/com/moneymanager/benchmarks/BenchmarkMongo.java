@@ -0,0 +1,240 @@
+package com.moneymanager.benchmarks;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.moneymanager.backend.config.MongoConfig;
+import com.moneymanager.backend.model.Account;
+import com.moneymanager.backend.model.ArchivedTransaction;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.TransactionBucket;
+import com.moneymanager.backend.model.UserRollup;
+import com.moneymanager.backend.repository.AccountBalanceOperations;
+import com.moneymanager.backend.repository.AccountRepository;
+import com.moneymanager.backend.repository.MongoUnitOfWork;
+import com.moneymanager.backend.repository.TransactionRepository;
+import com.moneymanager.backend.repository.TransactionRepositoryImpl;
+import com.moneymanager.backend.service.AccountService;
+import com.moneymanager.backend.service.CategoryDictionaryService;
+import com.moneymanager.backend.service.FlatTransactionStore;
+import com.moneymanager.backend.service.RollupService;
+import com.moneymanager.backend.service.TransactionArchiveService;
+import com.moneymanager.backend.service.TransactionService;
+import com.moneymanager.backend.service.TransactionStore;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import java.util.List;
+
+// Mongo for the benchmarks that measure queries rather than service CPU.
+//
+// With MONGO_URI set they run against that server (database
+// moneymanager_bench, dropped on close), which is what the numbers are
+// for; MONGO_TRANSACTIONS=true turns on the unit of work's transactions
+// (replica set only). Without it an in-process mongo-java-server is
+// started: enough to see a benchmark run, but it scans every query, so
+// its timings say nothing about indexes.
+//
+// The template is wired like the backend's (custom conversions, indexes
+// from the annotations), the services are built by hand as in
+// TransactionServiceBenchmark.
+final class BenchmarkMongo implements AutoCloseable {
+
+    static final String DATABASE = "moneymanager_bench";
+
+    // every account starts with this much, transfers never run dry
+    static final long OPENING_BALANCE = 1_000_000_000_00L;
+
+    private static final int INSERT_BATCH = 10_000;
+
+    private static final List<Class<?>> INDEXED = List.of(
+            Account.class,
+            Transaction.class,
+            UserRollup.class,
+            TransactionBucket.class,
+            ArchivedTransaction.class
+    );
+
+    final MongoTemplate template;
+    final MongoUnitOfWork unitOfWork;
+    final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private final MongoServer server;
+    private final MongoClient client;
+
+    private BenchmarkMongo(MongoServer server, MongoClient client, boolean transactions) {
+        this.server = server;
+        this.client = client;
+
+        MongoDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(client, DATABASE);
+        this.template = new MongoTemplate(factory, converter(factory));
+
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        if (transactions) {
+            beans.addBean("transactionManager", new MongoTransactionManager(factory));
+        }
+        this.unitOfWork = new MongoUnitOfWork(
+                beans.getBeanProvider(MongoTransactionManager.class), 5, 10, registry);
+    }
+
+    static BenchmarkMongo start() {
+
+        String uri = System.getenv("MONGO_URI");
+
+        if (uri != null && !uri.isBlank()) {
+            return new BenchmarkMongo(null, MongoClients.create(uri),
+                    "true".equals(System.getenv("MONGO_TRANSACTIONS")));
+        }
+
+        MongoServer server = new MongoServer(new MemoryBackend());
+        server.bind("localhost", 0);
+
+        return new BenchmarkMongo(server,
+                MongoClients.create("mongodb://localhost:" + server.getLocalAddress().getPort()),
+                false);
+    }
+
+    // =========================
+    // DATA
+    // =========================
+
+    // empty database with the backend's indexes, one dictionary per user
+    void reset(String... userIds) {
+
+        template.getDb().drop();
+
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(
+                (MongoMappingContext) template.getConverter().getMappingContext());
+
+        for (Class<?> type : INDEXED) {
+            IndexOperations ops = template.indexOps(type);
+            resolver.resolveIndexFor(type).forEach(ops::ensureIndex);
+        }
+
+        CategoryDictionaryService categories = new CategoryDictionaryService(template);
+        for (String userId : userIds) {
+            Dataset.CATEGORIES.forEach(c -> categories.idOf(userId, c));
+        }
+    }
+
+    void insertAccount(String userId, String accountId) {
+
+        Account account = new Account();
+        account.setId(accountId);
+        account.setUserId(userId);
+        account.setName(accountId);
+        account.setBalance(OPENING_BALANCE);
+        template.insert(account);
+    }
+
+    void insertTransactions(List<Transaction> transactions) {
+
+        for (int i = 0; i < transactions.size(); i += INSERT_BATCH) {
+            template.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class)
+                    .insert(transactions.subList(i, Math.min(i + INSERT_BATCH, transactions.size())))
+                    .execute();
+        }
+    }
+
+    // =========================
+    // SERVICES
+    // =========================
+    TransactionRepository transactionRepository() {
+        return new MongoRepositoryFactory(template).getRepository(
+                TransactionRepository.class,
+                RepositoryFragments.just(new TransactionRepositoryImpl(template, registry)));
+    }
+
+    AccountRepository accountRepository() {
+        return new MongoRepositoryFactory(template).getRepository(AccountRepository.class);
+    }
+
+    // archiving off, as in a default deployment
+    TransactionArchiveService archive() {
+        return new TransactionArchiveService(template, unitOfWork, 0, 1000, registry);
+    }
+
+    TransactionStore flatStore(TransactionRepository repo, TransactionArchiveService archive) {
+        return new FlatTransactionStore(repo, archive);
+    }
+
+    RollupService rollups(TransactionStore store, TransactionArchiveService archive) {
+        return new RollupService(template, event -> { }, new CategoryDictionaryService(template),
+                store, archive, unitOfWork, "inline", registry);
+    }
+
+    TransactionService transactionService(TransactionRepository repo,
+                                          TransactionStore store,
+                                          TransactionArchiveService archive) {
+        return new TransactionService(
+                repo,
+                new AccountBalanceOperations(template),
+                rollups(store, archive),
+                event -> { },
+                unitOfWork,
+                new CategoryDictionaryService(template),
+                store,
+                archive
+        );
+    }
+
+    AccountService accountService() {
+
+        TransactionRepository repo = transactionRepository();
+        TransactionArchiveService archive = archive();
+
+        return new AccountService(
+                accountRepository(),
+                repo,
+                new AccountBalanceOperations(template),
+                rollups(flatStore(repo, archive), archive),
+                event -> { },
+                unitOfWork
+        );
+    }
+
+    @Override
+    public void close() {
+
+        if (server == null) {
+            template.getDb().drop();
+        }
+
+        client.close();
+
+        if (server != null) {
+            server.shutdownNow();
+        }
+    }
+
+    // as Boot configures it, with the backend's conversions
+    private static MappingMongoConverter converter(MongoDatabaseFactory factory) {
+
+        MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+
+        MappingMongoConverter converter =
+                new MappingMongoConverter(new DefaultDbRefResolver(factory), context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
@@ -0,0 +1,116 @@
+package com.moneymanager.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Diffs two JMH JSON result files (-rf json):
+//
+//   CompareResults before.json after.json [threshold-percent, default 10]
+//
+// Prints every benchmark/params pair with its change and exits with 1
+// when any got slower by more than the threshold. "Slower" follows the
+// mode: lower is better for avgt / sample / ss, higher for thrpt.
+public final class CompareResults {
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        if (args.length < 2) {
+            System.err.println("usage: CompareResults before.json after.json [threshold-percent]");
+            System.exit(2);
+        }
+
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+
+        Map<String, Result> before = read(new File(args[0]));
+        Map<String, Result> after = read(new File(args[1]));
+
+        int regressions = 0;
+
+        for (Map.Entry<String, Result> e : after.entrySet()) {
+
+            Result old = before.get(e.getKey());
+            Result now = e.getValue();
+
+            if (old == null) {
+                System.out.printf("%-80s %14s %14.3f %s  (new)%n",
+                        e.getKey(), "-", now.score, now.unit);
+                continue;
+            }
+
+            // positive = worse, whatever the mode
+            double change = (now.score - old.score) / old.score * 100;
+            if (now.higherIsBetter) change = -change;
+
+            boolean regressed = change > threshold;
+            if (regressed) regressions++;
+
+            System.out.printf("%-80s %14.3f %14.3f %s %+8.1f%%%s%n",
+                    e.getKey(), old.score, now.score, now.unit, change,
+                    regressed ? "  REGRESSION" : "");
+        }
+
+        for (String gone : before.keySet()) {
+            if (!after.containsKey(gone)) {
+                System.out.printf("%-80s (removed)%n", gone);
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d regression(s) over %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    // "benchmark size=1000" -> result
+    private static Map<String, Result> read(File file) throws IOException {
+
+        Map<String, Result> results = new LinkedHashMap<>();
+
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+
+            // sorted, so the key does not depend on JMH's param order
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> it = run.path("params").fields();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> p = it.next();
+                params.put(p.getKey(), p.getValue().asText());
+            }
+            params.forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+
+            JsonNode metric = run.path("primaryMetric");
+
+            results.put(key.toString(), new Result(
+                    metric.path("score").asDouble(),
+                    metric.path("scoreUnit").asText(),
+                    "thrpt".equals(run.path("mode").asText())
+            ));
+        }
+
+        return results;
+    }
+
+    private static class Result {
+
+        private final double score;
+        private final String unit;
+        private final boolean higherIsBetter;
+
+        Result(double score, String unit, boolean higherIsBetter) {
+            this.score = score;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+    }
+}
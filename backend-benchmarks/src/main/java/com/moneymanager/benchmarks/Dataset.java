@@ -0,0 +1,79 @@
+package com.moneymanager.benchmarks;
+
+import com.moneymanager.backend.model.Direction;
+import com.moneymanager.backend.model.Division;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.TransactionType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Synthetic history of one user: `size` live transactions spread evenly
+// over the last two years, oldest first. Fixed seed, so two runs (and
+// two versions being compared) see the same data.
+final class Dataset {
+
+    static final String USER = "bench-user";
+
+    static final List<String> CATEGORIES = List.of(
+            "Food", "Rent", "Transport", "Utilities", "Health", "Travel",
+            "Shopping", "Salary", "Gifts", "Education", "Insurance", "Other"
+    );
+
+    static final List<String> ACCOUNTS = List.of("acc-cash", "acc-bank", "acc-card");
+
+    private static final long SPAN_SECONDS = 730L * 24 * 3600;
+
+    private Dataset() {
+    }
+
+    static List<Transaction> generate(int size, LocalDateTime now) {
+        return between(size, now.minusSeconds(SPAN_SECONDS), now, 0);
+    }
+
+    // size transactions spread evenly over [from, to), ids from firstId
+    // on, so several sets can go into one collection
+    static List<Transaction> between(int size, LocalDateTime from, LocalDateTime to, int firstId) {
+
+        Random random = new Random(42 + firstId);
+        long span = Duration.between(from, to).toSeconds();
+        long step = Math.max(1, span / size);
+
+        List<Transaction> transactions = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+
+            int roll = random.nextInt(100);
+
+            // 70% expenses, 25% income, 5% transfer legs
+            TransactionType type = roll < 70
+                    ? TransactionType.EXPENSE
+                    : roll < 95 ? TransactionType.INCOME : TransactionType.TRANSFER;
+
+            int category = random.nextInt(CATEGORIES.size());
+
+            Transaction tx = new Transaction(
+                    USER,
+                    type,
+                    type == TransactionType.TRANSFER && (i & 1) == 0
+                            ? Direction.OUT
+                            : Direction.IN,
+                    100 + random.nextInt(100_000),
+                    CATEGORIES.get(category),
+                    null,
+                    ACCOUNTS.get(random.nextInt(ACCOUNTS.size()))
+            );
+            tx.setId(String.format("%024x", firstId + i));
+            tx.setCategoryId(category);
+            tx.setDivision((i & 3) == 0 ? Division.OFFICE : Division.PERSONAL);
+            tx.setCreatedAt(from.plusSeconds(i * step));
+
+            transactions.add(tx);
+        }
+
+        return transactions;
+    }
+}
@@ -0,0 +1,388 @@
+package com.moneymanager.benchmarks;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.moneymanager.backend.model.ArchiveState;
+import com.moneymanager.backend.model.ArchivedTransaction;
+import com.moneymanager.backend.model.CategoryDictionary;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.UserRollup;
+import org.bson.Document;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+// MongoTemplate stand-in holding just what the benchmarked read paths
+// touch: rollups, category dictionaries and the transactions a rollup
+// rebuild streams, plus the lease / fence writes of that rebuild. Only
+// the query shapes those paths send are understood; anything else
+// throws, and so does every call that would reach the (absent)
+// database, so a benchmark can never quietly measure a different code
+// path.
+class InMemoryMongoTemplate extends MongoTemplate {
+
+    private final Map<String, UserRollup> rollups = new HashMap<>();
+    private final Map<String, CategoryDictionary> dictionaries = new HashMap<>();
+    private final Map<String, List<Transaction>> transactions = new HashMap<>();
+
+    InMemoryMongoTemplate() {
+        super(new NoDatabase());
+    }
+
+    void putDictionary(String userId, List<String> categories) {
+
+        CategoryDictionary dictionary = new CategoryDictionary();
+        dictionary.setUserId(userId);
+        dictionary.setCategories(new ArrayList<>(categories));
+        dictionaries.put(userId, dictionary);
+    }
+
+    void putTransactions(String userId, List<Transaction> list) {
+        transactions.put(userId, list);
+    }
+
+    // =========================
+    // READS
+    // =========================
+    @Override
+    public <T> T findById(Object id, Class<T> entityClass) {
+
+        if (entityClass == UserRollup.class) {
+            return entityClass.cast(rollups.get(id));
+        }
+        if (entityClass == CategoryDictionary.class) {
+            return entityClass.cast(dictionaries.get(id));
+        }
+        if (entityClass == ArchiveState.class) {
+            return null;   // nothing archived
+        }
+
+        throw unsupported("findById", entityClass, null);
+    }
+
+    @Override
+    public <T> List<T> find(Query query, Class<T> entityClass) {
+
+        if (entityClass != UserRollup.class) {
+            throw unsupported("find", entityClass, query);
+        }
+
+        Document filter = query.getQueryObject();
+        List<T> result = new ArrayList<>();
+
+        // by key, as Mongo would on _id; other filters scan
+        if (filter.size() == 1 && filter.get("_id") instanceof Document id
+                && id.get("$in") instanceof Collection<?> ids) {
+            for (Object key : ids) {
+                UserRollup r = rollups.get(key);
+                if (r != null) result.add(entityClass.cast(r));
+            }
+            return result;
+        }
+
+        for (UserRollup r : rollups.values()) {
+            if (matches(r, filter)) result.add(entityClass.cast(r));
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean exists(Query query, Class<?> entityClass) {
+
+        if (entityClass != UserRollup.class) {
+            throw unsupported("exists", entityClass, query);
+        }
+
+        Document filter = query.getQueryObject();
+
+        if (filter.get("_id") instanceof String id) {
+            UserRollup r = rollups.get(id);
+            return r != null && matches(r, filter);
+        }
+
+        for (UserRollup r : rollups.values()) {
+            if (matches(r, filter)) return true;
+        }
+
+        return false;
+    }
+
+    // rollup rebuild: live transactions of one user, nothing archived
+    @Override
+    public <T> Stream<T> stream(Query query, Class<T> entityType) {
+
+        Document filter = query.getQueryObject();
+
+        if (entityType == ArchivedTransaction.class) {
+            return Stream.empty();
+        }
+
+        if (entityType == Transaction.class
+                && Boolean.FALSE.equals(filter.get("deleted"))) {
+
+            return transactions.getOrDefault(filter.getString("userId"), List.of())
+                    .stream()
+                    .filter(tx -> !tx.isDeleted())
+                    .map(entityType::cast);
+        }
+
+        throw unsupported("stream", entityType, query);
+    }
+
+    // =========================
+    // WRITES (rollup rebuild)
+    // =========================
+    @Override
+    public DeleteResult remove(Query query, Class<?> entityClass) {
+
+        if (entityClass != UserRollup.class) {
+            throw unsupported("remove", entityClass, query);
+        }
+
+        Document filter = query.getQueryObject();
+        int before = rollups.size();
+        rollups.values().removeIf(r -> matches(r, filter));
+
+        return DeleteResult.acknowledged(before - rollups.size());
+    }
+
+    @Override
+    public <T> Collection<T> insertAll(Collection<? extends T> objectsToSave) {
+
+        List<T> saved = new ArrayList<>(objectsToSave.size());
+
+        for (T o : objectsToSave) {
+            if (!(o instanceof UserRollup r)) {
+                throw unsupported("insertAll", o.getClass(), null);
+            }
+            rollups.put(r.getId(), r);
+            saved.add(o);
+        }
+
+        return saved;
+    }
+
+    // rebuild lease and fence on the TOTAL rollup
+    @Override
+    public <T> T findAndModify(Query query,
+                               UpdateDefinition update,
+                               FindAndModifyOptions options,
+                               Class<T> entityClass) {
+
+        if (entityClass != UserRollup.class || !options.isReturnNew()) {
+            throw unsupported("findAndModify", entityClass, query);
+        }
+
+        Document filter = query.getQueryObject();
+        String id = filter.getString("_id");
+        UserRollup r = rollups.get(id);
+
+        if (r != null && !matches(r, filter)) {
+            if (options.isUpsert()) throw new DuplicateKeyException(id);
+            return null;
+        }
+
+        if (r == null) {
+            if (!options.isUpsert()) return null;
+            r = new UserRollup();
+            r.setId(id);
+            apply(r, update.getUpdateObject().get("$setOnInsert", Document.class));
+            rollups.put(id, r);
+        }
+
+        apply(r, update.getUpdateObject());
+        return entityClass.cast(r);
+    }
+
+    @Override
+    public UpdateResult updateFirst(Query query, UpdateDefinition update, Class<?> entityClass) {
+
+        if (entityClass != UserRollup.class) {
+            throw unsupported("updateFirst", entityClass, query);
+        }
+
+        Document filter = query.getQueryObject();
+        UserRollup r = rollups.get(filter.getString("_id"));
+
+        if (r == null || !matches(r, filter)) {
+            return UpdateResult.acknowledged(0, 0L, null);
+        }
+
+        apply(r, update.getUpdateObject());
+        return UpdateResult.acknowledged(1, 1L, null);
+    }
+
+    // =========================
+    // HELPERS
+    // =========================
+
+    // the rollup filters RollupService sends: _id (value or $in),
+    // userId, scope, and the rebuild lease / fence fields
+    private static boolean matches(UserRollup r, Document filter) {
+
+        for (Map.Entry<String, Object> e : filter.entrySet()) {
+
+            if (e.getKey().equals("$or")) {
+                boolean any = false;
+                for (Object branch : (List<?>) e.getValue()) {
+                    any |= matches(r, (Document) branch);
+                }
+                if (!any) return false;
+                continue;
+            }
+
+            if (!matches(field(r, e.getKey()), e.getValue())) return false;
+        }
+
+        return true;
+    }
+
+    private static boolean matches(Object actual, Object expected) {
+
+        if (expected instanceof Document operator) {
+
+            if (operator.size() != 1) {
+                throw new UnsupportedOperationException("Rollup filter " + operator.toJson());
+            }
+
+            Map.Entry<String, Object> op = operator.entrySet().iterator().next();
+
+            return switch (op.getKey()) {
+                case "$in" -> ((Collection<?>) op.getValue()).contains(actual);
+                case "$ne" -> !Objects.equals(actual, op.getValue());
+                case "$exists" -> (actual != null) == (Boolean) op.getValue();
+                case "$lt" -> actual != null && ((Instant) actual).isBefore(instant(op.getValue()));
+                default -> throw new UnsupportedOperationException(
+                        "Rollup filter " + operator.toJson());
+            };
+        }
+
+        if (actual instanceof Long l && expected instanceof Number n) {
+            return l == n.longValue();
+        }
+
+        return Objects.equals(actual, expected);
+    }
+
+    private static Object field(UserRollup r, String name) {
+        return switch (name) {
+            case "_id" -> r.getId();
+            case "userId" -> r.getUserId();
+            case "scope" -> r.getScope();
+            case "built" -> r.isBuilt();
+            case "writes" -> r.getWrites();
+            case "rebuildOwner" -> r.getRebuildOwner();
+            case "rebuildUntil" -> r.getRebuildUntil();
+            default -> throw new UnsupportedOperationException("Rollup filter on " + name);
+        };
+    }
+
+    // $set / $inc / $unset of an update, or the fields of $setOnInsert
+    private static void apply(UserRollup r, Document update) {
+
+        if (update == null) return;
+
+        if (!update.keySet().iterator().next().startsWith("$")) {
+            update.forEach((name, value) -> set(r, name, value));
+            return;
+        }
+
+        Document set = update.get("$set", Document.class);
+        if (set != null) set.forEach((name, value) -> set(r, name, value));
+
+        Document inc = update.get("$inc", Document.class);
+        if (inc != null) inc.forEach((name, value) -> set(r, name,
+                ((Number) value).longValue() + ((Number) field(r, name, true)).longValue()));
+
+        Document unset = update.get("$unset", Document.class);
+        if (unset != null) unset.keySet().forEach(name -> set(r, name, null));
+    }
+
+    private static Object field(UserRollup r, String name, boolean numeric) {
+        return switch (name) {
+            case "income" -> r.getIncome();
+            case "expense" -> r.getExpense();
+            case "transferIn" -> r.getTransferIn();
+            case "transferOut" -> r.getTransferOut();
+            case "count" -> r.getCount();
+            default -> field(r, name);
+        };
+    }
+
+    private static void set(UserRollup r, String name, Object value) {
+        switch (name) {
+            case "userId" -> r.setUserId((String) value);
+            case "scope" -> r.setScope((String) value);
+            case "key" -> r.setKey((String) value);
+            case "income" -> r.setIncome(((Number) value).longValue());
+            case "expense" -> r.setExpense(((Number) value).longValue());
+            case "transferIn" -> r.setTransferIn(((Number) value).longValue());
+            case "transferOut" -> r.setTransferOut(((Number) value).longValue());
+            case "count" -> r.setCount(((Number) value).longValue());
+            case "writes" -> r.setWrites(((Number) value).longValue());
+            case "built" -> r.setBuilt((Boolean) value);
+            case "rebuildOwner" -> r.setRebuildOwner((String) value);
+            case "rebuildUntil" -> r.setRebuildUntil(instant(value));
+            default -> throw new UnsupportedOperationException("Rollup field " + name);
+        }
+    }
+
+    private static Instant instant(Object value) {
+        return value instanceof Date date ? date.toInstant() : (Instant) value;
+    }
+
+    private static UnsupportedOperationException unsupported(String operation,
+                                                             Class<?> type,
+                                                             Query query) {
+        return new UnsupportedOperationException(operation + " " + type.getSimpleName()
+                + (query == null ? "" : " " + query.getQueryObject().toJson()));
+    }
+
+    // every call that would need a real database fails
+    private static class NoDatabase implements MongoDatabaseFactory {
+
+        @Override
+        public MongoDatabase getMongoDatabase() {
+            throw new UnsupportedOperationException("No database in benchmarks");
+        }
+
+        @Override
+        public MongoDatabase getMongoDatabase(String dbName) {
+            throw new UnsupportedOperationException("No database in benchmarks");
+        }
+
+        @Override
+        public PersistenceExceptionTranslator getExceptionTranslator() {
+            return new MongoExceptionTranslator();
+        }
+
+        @Override
+        public ClientSession getSession(ClientSessionOptions options) {
+            throw new UnsupportedOperationException("No database in benchmarks");
+        }
+
+        @Override
+        public MongoDatabaseFactory withSession(ClientSession session) {
+            throw new UnsupportedOperationException("No database in benchmarks");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.moneymanager.benchmarks;
+
+import com.moneymanager.backend.model.BucketEntry;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.TransactionType;
+import com.moneymanager.backend.service.TransactionStore;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// TransactionStore over one createdAt-sorted list per user: a range is
+// two binary searches and a scan, like a walk of user_created_id_live.
+// Read-only, the benchmarks never write.
+class InMemoryTransactionStore implements TransactionStore {
+
+    private final Map<String, List<Transaction>> byUser = new HashMap<>();
+
+    // transactions must be sorted by createdAt
+    InMemoryTransactionStore(String userId, List<Transaction> transactions) {
+        byUser.put(userId, transactions);
+    }
+
+    @Override
+    public Map<String, Long> sumAmountByType(String userId, LocalDateTime from, LocalDateTime to) {
+
+        Map<String, Long> totals = new HashMap<>();
+
+        for (Transaction tx : range(userId, from, to)) {
+            totals.merge(tx.getType().value(), tx.getAmount(), Long::sum);
+        }
+
+        return totals;
+    }
+
+    @Override
+    public Map<String, Long> sumExpenseByCategory(String userId, LocalDateTime from, LocalDateTime to) {
+
+        Map<String, Long> totals = new HashMap<>();
+
+        for (Transaction tx : range(userId, from, to)) {
+            if (tx.getType() == TransactionType.EXPENSE) {
+                totals.merge(tx.getCategory(), tx.getAmount(), Long::sum);
+            }
+        }
+
+        return totals;
+    }
+
+    @Override
+    public List<Transaction> findBetween(String userId, LocalDateTime from, LocalDateTime to) {
+        return new ArrayList<>(range(userId, from, to));
+    }
+
+    @Override
+    public boolean tracksWrites() {
+        return false;
+    }
+
+    @Override
+    public void apply(List<BucketEntry> removed, List<BucketEntry> added) {
+        throw new UnsupportedOperationException();
+    }
+
+    // live rows in [from, to)
+    private List<Transaction> range(String userId, LocalDateTime from, LocalDateTime to) {
+
+        List<Transaction> all = byUser.getOrDefault(userId, List.of());
+        List<Transaction> slice = all.subList(firstAtOrAfter(all, from), firstAtOrAfter(all, to));
+
+        List<Transaction> live = new ArrayList<>(slice.size());
+        for (Transaction tx : slice) {
+            if (!tx.isDeleted()) live.add(tx);
+        }
+        return live;
+    }
+
+    private static int firstAtOrAfter(List<Transaction> all, LocalDateTime at) {
+
+        int low = 0;
+        int high = all.size();
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (all.get(mid).getCreatedAt().isBefore(at)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+}
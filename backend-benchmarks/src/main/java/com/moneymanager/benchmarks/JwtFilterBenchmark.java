@@ -0,0 +1,99 @@
+package com.moneymanager.benchmarks;
+
+import com.moneymanager.backend.security.JwtAuthenticationFilter;
+import com.moneymanager.backend.security.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+// One request through JwtAuthenticationFilter: header parsing, a single
+// token verification (or claims-cache hit) and setting the principal.
+// Same split as JwtServiceBenchmark: one session's token again, and a
+// ring of more distinct tokens than the cache holds. anonymous is the
+// floor, a request without a token. Each call ends like a request
+// does, with the SecurityContext cleared.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark";
+
+    // more than JwtService keeps verified
+    private static final int RING = 50_000;
+
+    private static final FilterChain CHAIN = (request, response) -> { };
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private String header;
+    private String[] ring;
+    private int next;
+
+    @Setup
+    public void setUp() {
+
+        JwtService jwt = new JwtService(SECRET, 86_400_000L, new SimpleMeterRegistry());
+        filter = new JwtAuthenticationFilter(jwt);
+
+        request = new MockHttpServletRequest("GET", "/api/v1/transactions/summary");
+        response = new MockHttpServletResponse();
+
+        header = "Bearer " + jwt.generateToken(Dataset.USER);
+
+        ring = new String[RING];
+        for (int i = 0; i < RING; i++) {
+            ring[i] = "Bearer " + jwt.generateToken("user-" + i);
+        }
+    }
+
+    @Benchmark
+    public Object cachedToken() throws Exception {
+        return filter(header);
+    }
+
+    @Benchmark
+    public Object distinctTokens() throws Exception {
+        String h = ring[next];
+        next = next + 1 == RING ? 0 : next + 1;
+        return filter(h);
+    }
+
+    @Benchmark
+    public Object anonymous() throws Exception {
+        return filter(null);
+    }
+
+    private Object filter(String authorization) throws Exception {
+
+        request.removeHeader("Authorization");
+        if (authorization != null) request.addHeader("Authorization", authorization);
+
+        try {
+            filter.doFilter(request, response, CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            // OncePerRequestFilter marks the request as filtered
+            request.clearAttributes();
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.moneymanager.benchmarks;
+
+import com.moneymanager.backend.security.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Token issue and verification. extractUserId is measured twice: the
+// same token again (verified-claims cache hit, the common case per
+// session) and a ring of five times the tokens the cache holds, so
+// nearly every call verifies the HS256 signature.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark";
+
+    // JwtService keeps at most 10k verified tokens
+    private static final int RING = 50_000;
+
+    private JwtService jwt;
+    private String token;
+    private String[] ring;
+    private int next;
+
+    @Setup
+    public void setUp() {
+
+        jwt = new JwtService(SECRET, 86_400_000L, new SimpleMeterRegistry());
+        token = jwt.generateToken(Dataset.USER);
+
+        ring = new String[RING];
+        for (int i = 0; i < RING; i++) {
+            ring[i] = jwt.generateToken("user-" + i);
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwt.generateToken(Dataset.USER);
+    }
+
+    @Benchmark
+    public String extractUserIdCached() {
+        return jwt.extractUserId(token);
+    }
+
+    @Benchmark
+    public String extractUserIdUncached() {
+        String t = ring[next];
+        next = next + 1 == RING ? 0 : next + 1;
+        return jwt.extractUserId(t);
+    }
+}
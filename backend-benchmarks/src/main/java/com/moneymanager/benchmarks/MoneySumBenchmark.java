@@ -0,0 +1,70 @@
+package com.moneymanager.benchmarks;
+
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Expense totals per category over 100k rows, summed the way amounts
+// were summed as doubles (Map<String, Double>, a Double boxed per row)
+// and the way they are now in minor units (long[] cells, nothing boxed
+// once every category has its cell). Run with -prof gc to see the
+// difference in gc.alloc.rate.norm.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneySumBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private Transaction[] rows;
+
+    @Setup
+    public void setUp() {
+        rows = Dataset.generate(ROWS, LocalDateTime.now()).toArray(new Transaction[0]);
+    }
+
+    @Benchmark
+    public Map<String, Double> boxedDoubles() {
+
+        Map<String, Double> totals = new HashMap<>();
+
+        for (Transaction tx : rows) {
+            if (tx.getType() == TransactionType.EXPENSE) {
+                totals.merge(tx.getCategory(), tx.getAmount() / 100.0, Double::sum);
+            }
+        }
+
+        return totals;
+    }
+
+    @Benchmark
+    public Map<String, long[]> longCells() {
+
+        Map<String, long[]> totals = new HashMap<>();
+
+        for (Transaction tx : rows) {
+            if (tx.getType() == TransactionType.EXPENSE) {
+                totals.computeIfAbsent(tx.getCategory(), c -> new long[1])[0] += tx.getAmount();
+            }
+        }
+
+        return totals;
+    }
+}
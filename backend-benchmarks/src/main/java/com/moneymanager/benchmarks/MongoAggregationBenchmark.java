@@ -0,0 +1,72 @@
+package com.moneymanager.benchmarks;
+
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Per-type totals of a user's whole history: the $match/$group pipeline
+// the summaries run now, against loading every live transaction and
+// summing in the JVM as they did before. See BenchmarkMongo for what
+// runs without MONGO_URI.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class MongoAggregationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private BenchmarkMongo mongo;
+    private TransactionRepository repo;
+
+    @Setup
+    public void setUp() {
+
+        mongo = BenchmarkMongo.start();
+        mongo.reset(Dataset.USER);
+        mongo.insertTransactions(Dataset.generate(size, LocalDateTime.now()));
+
+        repo = mongo.transactionRepository();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongo.close();
+    }
+
+    @Benchmark
+    public Map<String, Long> aggregate() {
+        return repo.sumAmountByType(Dataset.USER, null, null);
+    }
+
+    @Benchmark
+    public Map<String, Long> fullScan() {
+
+        Map<String, Long> totals = new HashMap<>();
+
+        for (Transaction tx : repo.findByUserIdAndDeletedFalse(Dataset.USER)) {
+            totals.merge(tx.getType().value(), tx.getAmount(), Long::sum);
+        }
+
+        return totals;
+    }
+}
@@ -0,0 +1,96 @@
+package com.moneymanager.benchmarks;
+
+import com.moneymanager.backend.dto.TransactionSlice;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.repository.TransactionRepository;
+import com.moneymanager.backend.service.TransactionArchiveService;
+import com.moneymanager.backend.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+// The same page of a 100k-row history through /page (skip + count) and
+// /scroll (keyset). Offset cost grows with the page number, a keyset
+// slice should cost the same on page 1000 as on page 1.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class PaginationBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int SIZE = 20;
+
+    // 1-based
+    @Param({"1", "1000"})
+    public int page;
+
+    private BenchmarkMongo mongo;
+    private TransactionService service;
+    private String cursor;
+
+    @Setup
+    public void setUp() {
+
+        mongo = BenchmarkMongo.start();
+        mongo.reset(Dataset.USER);
+        mongo.insertTransactions(Dataset.generate(ROWS, LocalDateTime.now()));
+
+        TransactionRepository repo = mongo.transactionRepository();
+        TransactionArchiveService archive = mongo.archive();
+        service = mongo.transactionService(repo, mongo.flatStore(repo, archive), archive);
+
+        cursor = page == 1 ? null : cursorAfter((page - 1) * SIZE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongo.close();
+    }
+
+    @Benchmark
+    public Page<Transaction> offset() {
+        return service.getPaged(Dataset.USER, page - 1, SIZE);
+    }
+
+    @Benchmark
+    public TransactionSlice keyset() {
+        return service.scroll(Dataset.USER, cursor, SIZE);
+    }
+
+    // what /scroll hands out after `rows` rows: base64url("createdAt|id")
+    // of the last one, as stored (Mongo keeps milliseconds)
+    private String cursorAfter(int rows) {
+
+        Transaction last = mongo.template.findOne(
+                Query.query(Criteria.where("userId").is(Dataset.USER)
+                                .and("deleted").is(false))
+                        .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                        .skip(rows - 1),
+                Transaction.class);
+
+        String raw = last.getCreatedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,84 @@
+package com.moneymanager.benchmarks;
+
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.repository.TransactionRepository;
+import com.moneymanager.backend.service.TransactionArchiveService;
+import com.moneymanager.backend.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// betweenDates over the last 30 days, which always hold WINDOW rows,
+// while the older history grows. With the range pushed down to
+// user_created_id_live the latency distribution should stay flat across
+// history sizes; it only does on a real mongod (MONGO_URI), the
+// in-process server scans.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RangeLatencyBenchmark {
+
+    private static final int WINDOW = 300;
+
+    @Param({"1000", "100000", "1000000"})
+    public int history;
+
+    private BenchmarkMongo mongo;
+    private TransactionService service;
+    private String from;
+    private String to;
+
+    @Setup
+    public void setUp() {
+
+        LocalDate today = LocalDate.now();
+        LocalDateTime windowStart = today.minusDays(29).atStartOfDay();
+
+        mongo = BenchmarkMongo.start();
+        mongo.reset(Dataset.USER);
+        mongo.insertTransactions(Dataset.between(
+                history, windowStart.minusYears(2), windowStart.minusDays(1), 0));
+        mongo.insertTransactions(Dataset.between(
+                WINDOW, windowStart, LocalDateTime.now(), history));
+
+        TransactionRepository repo = mongo.transactionRepository();
+        TransactionArchiveService archive = mongo.archive();
+        service = mongo.transactionService(repo, mongo.flatStore(repo, archive), archive);
+
+        from = windowStart.toLocalDate().toString();
+        to = today.toString();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongo.close();
+    }
+
+    @Benchmark
+    public List<Transaction> betweenDates() {
+        return service.betweenDates(Dataset.USER, from, to);
+    }
+
+    @Benchmark
+    public Page<Transaction> betweenDatesPaged() {
+        return service.betweenDatesPaged(Dataset.USER, from, to, 0, 50);
+    }
+}
@@ -0,0 +1,89 @@
+package com.moneymanager.benchmarks;
+
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.repository.MongoUnitOfWork;
+import com.moneymanager.backend.service.CategoryDictionaryService;
+import com.moneymanager.backend.service.RollupDelta;
+import com.moneymanager.backend.service.RollupService;
+import com.moneymanager.backend.service.TransactionArchiveService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Rolling up a whole history two ways: every row through the per-write
+// delta path (string keys, one UserRollup per key) and a rebuild, which
+// runs RollupAccumulator's flat long[] tables (plus the in-memory
+// stand-in's writes). Meant for -prof gc: gc.alloc.rate.norm per
+// operation is the figure to compare.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class RollupAccumulationBenchmark {
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private RollupService rollups;
+    private List<Transaction> transactions;
+
+    @Setup
+    public void setUp() {
+
+        transactions = Dataset.generate(size, LocalDateTime.now());
+
+        InMemoryMongoTemplate mongo = new InMemoryMongoTemplate();
+        mongo.putDictionary(Dataset.USER, Dataset.CATEGORIES);
+        mongo.putTransactions(Dataset.USER, transactions);
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+
+        MongoUnitOfWork unitOfWork = new MongoUnitOfWork(
+                new StaticListableBeanFactory().getBeanProvider(MongoTransactionManager.class),
+                1, 0, registry);
+
+        rollups = new RollupService(
+                mongo,
+                event -> { },
+                new CategoryDictionaryService(mongo),
+                new InMemoryTransactionStore(Dataset.USER, transactions),
+                new TransactionArchiveService(mongo, unitOfWork, 0, 1000, registry),
+                unitOfWork,
+                "inline",
+                registry);
+    }
+
+    // never flushed, only the accumulation is measured
+    @Benchmark
+    public RollupDelta deltaPath() {
+
+        RollupDelta delta = rollups.delta();
+        for (Transaction tx : transactions) {
+            delta.add(tx);
+        }
+        return delta;
+    }
+
+    @Benchmark
+    public void accumulator() {
+        rollups.rebuild(Dataset.USER);
+    }
+}
@@ -0,0 +1,60 @@
+package com.moneymanager.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.moneymanager.backend.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Transaction to JSON as the controllers write it (Boot's ObjectMapper
+// defaults: ISO dates, amounts through Money.Serializer): one
+// transaction and a 100-row page.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionJsonBenchmark {
+
+    private ObjectMapper mapper;
+    private Transaction one;
+    private List<Transaction> page;
+
+    @Setup
+    public void setUp() {
+
+        // what JacksonAutoConfiguration adds on top of the builder
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        page = Dataset.generate(100, LocalDateTime.now());
+        one = page.get(0);
+        one.setDescription("Weekly groceries");
+    }
+
+    @Benchmark
+    public byte[] writeTransaction() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(one);
+    }
+
+    @Benchmark
+    public byte[] writePage() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,123 @@
+package com.moneymanager.benchmarks;
+
+import com.moneymanager.backend.dto.TransactionRequest;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.TransactionType;
+import com.moneymanager.backend.repository.TransactionRepository;
+import com.moneymanager.backend.service.BucketedTransactionStore;
+import com.moneymanager.backend.service.CategoryDictionaryService;
+import com.moneymanager.backend.service.TransactionArchiveService;
+import com.moneymanager.backend.service.TransactionBucketMigrationService;
+import com.moneymanager.backend.service.TransactionService;
+import com.moneymanager.backend.service.TransactionStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// transactions.layout=flat against bucketed on the same history: the
+// store's report sums and ranges over the last 30 days and the last
+// year, and a create, which in the bucketed layout also writes the
+// month bucket. The creates pile up over the run, a few thousand rows
+// on top of the history.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TransactionLayoutBenchmark {
+
+    @Param({"flat", "bucketed"})
+    public String layout;
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private BenchmarkMongo mongo;
+    private TransactionStore store;
+    private TransactionService service;
+    private TransactionRequest income;
+
+    private LocalDateTime monthAgo;
+    private LocalDateTime yearAgo;
+    private LocalDateTime tomorrow;
+
+    @Setup
+    public void setUp() {
+
+        mongo = BenchmarkMongo.start();
+        mongo.reset(Dataset.USER);
+        Dataset.ACCOUNTS.forEach(a -> mongo.insertAccount(Dataset.USER, a));
+        mongo.insertTransactions(Dataset.generate(size, LocalDateTime.now()));
+
+        TransactionRepository repo = mongo.transactionRepository();
+        TransactionArchiveService archive = mongo.archive();
+        CategoryDictionaryService categories = new CategoryDictionaryService(mongo.template);
+
+        if ("bucketed".equals(layout)) {
+            store = new BucketedTransactionStore(mongo.template, categories);
+            new TransactionBucketMigrationService(mongo.template, store, categories, archive)
+                    .backfill();
+        } else {
+            store = mongo.flatStore(repo, archive);
+        }
+
+        service = mongo.transactionService(repo, store, archive);
+
+        income = new TransactionRequest();
+        income.setType(TransactionType.INCOME);
+        income.setAmount(100);
+        income.setCategory(Dataset.CATEGORIES.get(7));
+        income.setAccountId(Dataset.ACCOUNTS.get(1));
+
+        LocalDate today = LocalDate.now();
+        monthAgo = today.minusDays(29).atStartOfDay();
+        yearAgo = today.minusYears(1).atStartOfDay();
+        tomorrow = today.plusDays(1).atStartOfDay();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongo.close();
+    }
+
+    @Benchmark
+    public Map<String, Long> reportMonth() {
+        return store.sumAmountByType(Dataset.USER, monthAgo, tomorrow);
+    }
+
+    @Benchmark
+    public Map<String, Long> reportYear() {
+        return store.sumAmountByType(Dataset.USER, yearAgo, tomorrow);
+    }
+
+    @Benchmark
+    public Map<String, Long> categoriesYear() {
+        return store.sumExpenseByCategory(Dataset.USER, yearAgo, tomorrow);
+    }
+
+    @Benchmark
+    public List<Transaction> rangeMonth() {
+        return store.findBetween(Dataset.USER, monthAgo, tomorrow);
+    }
+
+    @Benchmark
+    public Transaction create() {
+        return service.create(Dataset.USER, income);
+    }
+}
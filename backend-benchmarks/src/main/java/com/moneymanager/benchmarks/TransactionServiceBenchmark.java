@@ -0,0 +1,149 @@
+package com.moneymanager.benchmarks;
+
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.repository.AccountBalanceOperations;
+import com.moneymanager.backend.repository.MongoUnitOfWork;
+import com.moneymanager.backend.repository.TransactionRepository;
+import com.moneymanager.backend.service.CategoryDictionaryService;
+import com.moneymanager.backend.service.RollupService;
+import com.moneymanager.backend.service.TransactionArchiveService;
+import com.moneymanager.backend.service.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// TransactionService read paths over 1k..1M synthetic transactions.
+// The service is built by hand, without Spring, so @Cacheable does not
+// apply: every call measures the uncached path. Mongo is replaced by
+// InMemoryMongoTemplate (rollups) and InMemoryTransactionStore (ranges),
+// so the numbers are the service's own CPU and allocation cost, not
+// database time. Reports and ranges cover the last 30 days.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TransactionServiceBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private TransactionService service;
+    private RollupService rollups;
+    private String from;
+    private String to;
+
+    @Setup
+    public void setUp() {
+
+        List<Transaction> transactions =
+                Dataset.generate(size, LocalDateTime.now());
+
+        InMemoryMongoTemplate mongo = new InMemoryMongoTemplate();
+        mongo.putDictionary(Dataset.USER, Dataset.CATEGORIES);
+        mongo.putTransactions(Dataset.USER, transactions);
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+
+        MongoUnitOfWork unitOfWork = new MongoUnitOfWork(
+                new StaticListableBeanFactory().getBeanProvider(MongoTransactionManager.class),
+                1, 0, registry);
+
+        CategoryDictionaryService categories = new CategoryDictionaryService(mongo);
+        InMemoryTransactionStore store =
+                new InMemoryTransactionStore(Dataset.USER, transactions);
+        TransactionArchiveService archive =
+                new TransactionArchiveService(mongo, unitOfWork, 0, 1000, registry);
+
+        rollups = new RollupService(
+                mongo, event -> { }, categories, store, archive, unitOfWork, "inline", registry);
+
+        service = new TransactionService(
+                notUsed(TransactionRepository.class),
+                new AccountBalanceOperations(mongo),
+                rollups,
+                event -> { },
+                unitOfWork,
+                categories,
+                store,
+                archive
+        );
+
+        // reads below hit built rollups, as in steady state
+        rollups.rebuild(Dataset.USER);
+
+        LocalDate today = LocalDate.now();
+        from = today.minusDays(29).toString();
+        to = today.toString();
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> getSummary() {
+        return service.getSummary(Dataset.USER);
+    }
+
+    @Benchmark
+    public Map<String, Object> getReport() {
+        return service.getReport(Dataset.USER, from, to);
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> categorySummary() {
+        return service.categorySummary(Dataset.USER);
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> getSummaryByPeriodWeek() {
+        return service.getSummaryByPeriod(Dataset.USER, "week");
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> getSummaryByPeriodMonth() {
+        return service.getSummaryByPeriod(Dataset.USER, "month");
+    }
+
+    @Benchmark
+    public List<Transaction> betweenDates() {
+        return service.betweenDates(Dataset.USER, from, to);
+    }
+
+    // full recompute over every transaction (RollupAccumulator), what
+    // a first summary or a verify pays
+    @Benchmark
+    public void rebuildRollups() {
+        rollups.rebuild(Dataset.USER);
+    }
+
+    // repository paths are not benchmarked; fail loudly if one is hit
+    private static <T> T notUsed(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(
+                            type.getSimpleName() + "." + method.getName());
+                }
+        ));
+    }
+}
@@ -0,0 +1,115 @@
+package com.moneymanager.benchmarks;
+
+import com.moneymanager.backend.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Transfer throughput with every thread on the same two accounts of one
+// user (shared: same balance documents, same TOTAL rollup) against one
+// user and account pair per thread (spread). Each transfer goes back
+// the other way next time, so balances stay put.
+//
+// With MONGO_URI on a replica set and MONGO_TRANSACTIONS=true this is
+// the unit of work's retry path; the retry and give-up counts are
+// printed at the end of each trial. Otherwise the guarded $inc alone.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(4)
+@Fork(1)
+public class TransferContentionBenchmark {
+
+    // more than any sensible -t
+    private static final int LANES = 64;
+
+    @Param({"shared", "spread"})
+    public String accounts;
+
+    private BenchmarkMongo mongo;
+    private AccountService service;
+    private final AtomicInteger lanes = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+
+        mongo = BenchmarkMongo.start();
+        mongo.reset();
+
+        for (int i = 0; i < LANES; i++) {
+            mongo.insertAccount(user(i), from(i));
+            mongo.insertAccount(user(i), to(i));
+        }
+
+        service = mongo.accountService();
+    }
+
+    @TearDown
+    public void tearDown() {
+
+        System.out.printf("%ntx retries %.0f, exhausted %.0f%n",
+                mongo.registry.counter("moneymanager.mongo.tx.retries").count(),
+                mongo.registry.counter("moneymanager.mongo.tx.exhausted").count());
+
+        mongo.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Lane {
+
+        String userId;
+        String from;
+        String to;
+
+        @Setup
+        public void setUp(TransferContentionBenchmark shared) {
+
+            int i = "shared".equals(shared.accounts)
+                    ? 0
+                    : shared.lanes.getAndIncrement() % LANES;
+
+            userId = user(i);
+            from = TransferContentionBenchmark.from(i);
+            to = TransferContentionBenchmark.to(i);
+        }
+
+        void turn() {
+            String t = from;
+            from = to;
+            to = t;
+        }
+    }
+
+    @Benchmark
+    public void transfer(Lane lane) {
+        service.transfer(lane.userId, lane.from, lane.to, 100);
+        lane.turn();
+    }
+
+    private static String user(int lane) {
+        return "bench-user-" + lane;
+    }
+
+    private static String from(int lane) {
+        return "acc-" + lane + "-a";
+    }
+
+    private static String to(int lane) {
+        return "acc-" + lane + "-b";
+    }
+}
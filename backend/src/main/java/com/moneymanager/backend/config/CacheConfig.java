@@ -0,0 +1,132 @@
+package com.moneymanager.backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Caffeine caches, named and sized in application.properties
+// (spring.cache.*). They are per instance: CacheInvalidationListener
+// only evicts on the node that made the write, so with several nodes
+// another one serves what it cached for up to the spec's
+// expireAfterWrite. Lower it, or put a shared cache behind the
+// CacheManager, when that is too stale.
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    public static final String ACCOUNTS = "accounts";
+    public static final String SUMMARY = "summary";
+    public static final String PERIOD_SUMMARY = "periodSummary";
+    public static final String CATEGORY_SUMMARY = "categorySummary";
+
+    // only these period keys are cached, so they can all be evicted
+    public static final List<String> PERIODS =
+            List.of("week", "month", "year");
+
+    // what Boot would build from spring.cache.*, with RefillGuardedCache
+    @Bean
+    public CaffeineCacheManager cacheManager(CacheProperties properties) {
+
+        CaffeineCacheManager manager = new CaffeineCacheManager() {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(
+                    String name, Cache<Object, Object> cache) {
+                return new RefillGuardedCache(name, cache, isAllowNullValues());
+            }
+        };
+
+        String spec = properties.getCaffeine().getSpec();
+        if (StringUtils.hasText(spec)) manager.setCacheSpecification(spec);
+
+        if (!properties.getCacheNames().isEmpty()) {
+            manager.setCacheNames(properties.getCacheNames());
+        }
+
+        return manager;
+    }
+
+    // @Cacheable misses with get(), runs the method and put()s what it
+    // returned, on the same thread. A write evicting the key in between
+    // would be undone by that put: the value read before the write
+    // stays cached until it expires. Every evict stamps its key, and a
+    // put is dropped when the key was stamped since this thread missed.
+    static final class RefillGuardedCache extends CaffeineCache {
+
+        private static final AtomicLong STAMPS = new AtomicLong();
+
+        // key -> last eviction; kept well past any method run
+        private final Cache<Object, Long> evicted = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofHours(1))
+                .build();
+
+        // key -> stamp seen at this thread's miss
+        private final ThreadLocal<Map<Object, Long>> misses =
+                ThreadLocal.withInitial(HashMap::new);
+
+        private volatile long cleared;
+
+        RefillGuardedCache(String name, Cache<Object, Object> cache, boolean allowNullValues) {
+            super(name, cache, allowNullValues);
+        }
+
+        @Override
+        protected Object lookup(Object key) {
+
+            Object value = super.lookup(key);
+            if (value == null) misses.get().put(key, stamp(key));
+            return value;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+
+            Long seen = misses.get().remove(key);
+            if (seen != null && seen != stamp(key)) return;
+
+            super.put(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            evicted.put(key, STAMPS.incrementAndGet());
+            super.evict(key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            evicted.put(key, STAMPS.incrementAndGet());
+            return super.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            cleared = STAMPS.incrementAndGet();
+            super.clear();
+        }
+
+        @Override
+        public boolean invalidate() {
+            cleared = STAMPS.incrementAndGet();
+            return super.invalidate();
+        }
+
+        private long stamp(Object key) {
+            Long stamp = evicted.getIfPresent(key);
+            return Math.max(cleared, stamp == null ? 0 : stamp);
+        }
+    }
+}
@@ -1,22 +1,31 @@
 package com.moneymanager.backend.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Configuration
 public class CorsConfig implements WebMvcConfigurer {
 
+    // shared with ReactiveSecurityConfig
+    public static final String[] ALLOWED_ORIGIN_PATTERNS = {
+            "http://localhost:*",
+            "https://*.vercel.app",
+            "https://money-manager-vkjw.onrender.com"
+    };
+
+    public static final String[] ALLOWED_METHODS = {
+            "GET", "POST", "PUT", "DELETE", "OPTIONS"
+    };
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
 
         registry.addMapping("/**")
-                .allowedOriginPatterns(
-                        "http://localhost:*",
-                        "https://*.vercel.app",
-                        "https://money-manager-vkjw.onrender.com"
-                )
-                .allowedMethods("GET","POST","PUT","DELETE","OPTIONS")
+                .allowedOriginPatterns(ALLOWED_ORIGIN_PATTERNS)
+                .allowedMethods(ALLOWED_METHODS)
                 .allowedHeaders("*")
                 .allowCredentials(true);
     }
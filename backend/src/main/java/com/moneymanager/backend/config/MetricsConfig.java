@@ -0,0 +1,25 @@
+package com.moneymanager.backend.config;
+
+import com.moneymanager.backend.metrics.MongoRoundTripCounter;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // enables @Timed on services
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer roundTripCounting(
+            MongoRoundTripCounter counter
+    ) {
+        return settings -> settings.addCommandListener(counter);
+    }
+}
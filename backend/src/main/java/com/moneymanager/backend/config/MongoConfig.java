@@ -0,0 +1,87 @@
+package com.moneymanager.backend.config;
+
+import com.moneymanager.backend.model.Division;
+import com.moneymanager.backend.model.TransactionType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class MongoConfig {
+
+    @Value("${mongo.pool.max-size}")
+    private int poolMaxSize;
+
+    @Value("${mongo.pool.max-wait-ms}")
+    private long poolMaxWaitMs;
+
+    // with virtual threads every waiting request holds no platform
+    // thread, so the pool size is what bounds concurrent Mongo calls
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPool() {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(poolMaxSize)
+                .maxWaitTime(poolMaxWaitMs, TimeUnit.MILLISECONDS)
+        );
+    }
+
+    // multi-document transactions need a replica set (or sharded
+    // cluster), so this stays off for standalone dev instances
+    @Bean
+    @ConditionalOnProperty(name = "mongo.transactions.enabled", havingValue = "true")
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory factory) {
+        return new MongoTransactionManager(factory);
+    }
+
+    // keeps the stored "income" / "expense" / "transfer" values, and
+    // reads divisions stored back when they were free strings
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(
+                new TransactionTypeWriter(),
+                new TransactionTypeReader(),
+                new DivisionReader()
+        ));
+    }
+
+    @WritingConverter
+    static class TransactionTypeWriter implements Converter<TransactionType, String> {
+        @Override
+        public String convert(TransactionType type) {
+            return type.value();
+        }
+    }
+
+    @ReadingConverter
+    static class TransactionTypeReader implements Converter<String, TransactionType> {
+        @Override
+        public TransactionType convert(String value) {
+            return TransactionType.from(value);
+        }
+    }
+
+    // "office", "Personal" or "" from before the enum; anything else
+    // old is read as no division rather than failing the whole row
+    @ReadingConverter
+    static class DivisionReader implements Converter<String, Division> {
+        @Override
+        public Division convert(String value) {
+            try {
+                return Division.from(value);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
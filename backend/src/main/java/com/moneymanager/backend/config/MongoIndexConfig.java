@@ -0,0 +1,106 @@
+package com.moneymanager.backend.config;
+
+import com.moneymanager.backend.model.Account;
+import com.moneymanager.backend.model.ArchivedTransaction;
+import com.moneymanager.backend.model.IdempotencyRecord;
+import com.moneymanager.backend.model.ReconciliationReport;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.TransactionBucket;
+import com.moneymanager.backend.model.User;
+import com.moneymanager.backend.model.UserRollup;
+import com.moneymanager.backend.service.QueryPlanService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class MongoIndexConfig {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(MongoIndexConfig.class);
+
+    // every @Document whose @Indexed / @CompoundIndex must exist
+    private static final List<Class<?>> INDEXED_DOCUMENTS = List.of(
+            User.class,
+            Account.class,
+            Transaction.class,
+            UserRollup.class,
+            ReconciliationReport.class,
+            TransactionBucket.class,
+            IdempotencyRecord.class,
+            ArchivedTransaction.class
+    );
+
+    // replaced by the partial live / trash indexes on transactions,
+    // and by the (user, createdAt, _id) keyset indexes
+    private static final Map<Class<?>, List<String>> RETIRED_INDEXES = Map.of(
+            Transaction.class, List.of(
+                    "user_deleted_created",
+                    "user_division_deleted",
+                    "account_deleted",
+                    "user_created_live"
+            ),
+            ArchivedTransaction.class, List.of(
+                    "user_created"
+            )
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final QueryPlanService queryPlanService;
+
+    public MongoIndexConfig(MongoTemplate mongoTemplate,
+                            MongoMappingContext mappingContext,
+                            QueryPlanService queryPlanService) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+        this.queryPlanService = queryPlanService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+
+        IndexResolver resolver =
+                new MongoPersistentEntityIndexResolver(mappingContext);
+
+        for (Class<?> type : INDEXED_DOCUMENTS) {
+            IndexOperations ops = mongoTemplate.indexOps(type);
+            resolver.resolveIndexFor(type).forEach(ops::ensureIndex);
+        }
+
+        // only after their replacements exist
+        RETIRED_INDEXES.forEach((type, names) -> {
+            IndexOperations ops = mongoTemplate.indexOps(type);
+            ops.getIndexInfo().stream()
+                    .map(IndexInfo::getName)
+                    .filter(names::contains)
+                    .forEach(name -> {
+                        ops.dropIndex(name);
+                        log.info("Dropped retired index {}", name);
+                    });
+        });
+
+        // surface un-indexed access paths at startup, not in production
+        queryPlanService.explainAll("index-check").stream()
+                .filter(plan -> !Boolean.TRUE.equals(plan.get("usesIndex")))
+                .forEach(plan -> log.warn(
+                        "Query {} does not use an index ({}): {}",
+                        plan.get("query"),
+                        Boolean.TRUE.equals(plan.get("collectionScan"))
+                                ? "collection scan"
+                                : "blocking sort",
+                        plan.get("stages")
+                ));
+    }
+}
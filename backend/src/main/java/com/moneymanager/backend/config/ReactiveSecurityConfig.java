@@ -0,0 +1,84 @@
+package com.moneymanager.backend.config;
+
+import com.moneymanager.backend.security.ActuatorAccess;
+import com.moneymanager.backend.security.JwtAuthenticationWebFilter;
+import com.moneymanager.backend.security.JwtService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+// Active with the "reactive" profile (spring.main.web-application-type=reactive)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Configuration
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain reactiveFilterChain(ServerHttpSecurity http,
+                                                      JwtService jwtService,
+                                                      ActuatorAccess actuatorAccess) {
+
+        return http
+                .cors(cors -> {})
+                .csrf(csrf -> csrf.disable())
+                .httpBasic(basic -> basic.disable())
+                .formLogin(form -> form.disable())
+                .authorizeExchange(auth -> auth
+                        .pathMatchers("/api/v1/auth/**").permitAll()
+                        .pathMatchers("/actuator/health").permitAll()
+                        .pathMatchers("/actuator/**").access((authentication, context) ->
+                                actuator(actuatorAccess, authentication, context))
+                        .anyExchange().authenticated()
+                )
+                .addFilterAt(
+                        new JwtAuthenticationWebFilter(jwtService),
+                        SecurityWebFiltersOrder.AUTHENTICATION
+                )
+                .build();
+    }
+
+    private static Mono<AuthorizationDecision> actuator(ActuatorAccess actuatorAccess,
+                                                       Mono<Authentication> authentication,
+                                                       AuthorizationContext context) {
+
+        InetSocketAddress remote = context.getExchange().getRequest().getRemoteAddress();
+        String address = remote == null || remote.getAddress() == null
+                ? null
+                : remote.getAddress().getHostAddress();
+
+        return authentication
+                .filter(Authentication::isAuthenticated)
+                .map(auth -> actuatorAccess.allows(address, auth.getName()))
+                .defaultIfEmpty(actuatorAccess.allows(address, null))
+                .map(AuthorizationDecision::new);
+    }
+
+    @Bean
+    public CorsConfigurationSource corsConfigurationSource() {
+
+        CorsConfiguration cors = new CorsConfiguration();
+        cors.setAllowedOriginPatterns(List.of(CorsConfig.ALLOWED_ORIGIN_PATTERNS));
+        cors.setAllowedMethods(List.of(CorsConfig.ALLOWED_METHODS));
+        cors.addAllowedHeader("*");
+        cors.setAllowCredentials(true);
+
+        UrlBasedCorsConfigurationSource source =
+                new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", cors);
+        return source;
+    }
+}
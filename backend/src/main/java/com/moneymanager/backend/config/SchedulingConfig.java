@@ -0,0 +1,11 @@
+package com.moneymanager.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// background jobs; each cron is a property, "-" disables it
+// (see application.properties for which run by default)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,19 +1,31 @@
 package com.moneymanager.backend.config;
 
+import com.moneymanager.backend.security.ActuatorAccess;
 import com.moneymanager.backend.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.function.Supplier;
+
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Configuration
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtFilter;
+    private final ActuatorAccess actuatorAccess;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtFilter) {
+    public SecurityConfig(JwtAuthenticationFilter jwtFilter,
+                          ActuatorAccess actuatorAccess) {
         this.jwtFilter = jwtFilter;
+        this.actuatorAccess = actuatorAccess;
     }
 
     @Bean
@@ -23,7 +35,12 @@ public class SecurityConfig {
                 .cors(cors -> {})
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // streamed responses finish on an async dispatch
+                        // of a request that was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/v1/auth/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").access(this::actuator)
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(
@@ -33,4 +50,14 @@ public class SecurityConfig {
 
         return http.build();
     }
+
+    private AuthorizationDecision actuator(Supplier<Authentication> authentication,
+                                           RequestAuthorizationContext context) {
+
+        Authentication auth = authentication.get();
+        String userId = auth != null && auth.isAuthenticated() ? auth.getName() : null;
+
+        return new AuthorizationDecision(actuatorAccess.allows(
+                context.getRequest().getRemoteAddr(), userId));
+    }
 }
@@ -1,46 +1,36 @@
 package com.moneymanager.backend.controller;
 
 import com.moneymanager.backend.model.Account;
-import com.moneymanager.backend.security.JwtService;
+import com.moneymanager.backend.model.Money;
 import com.moneymanager.backend.service.AccountService;
-import jakarta.servlet.http.HttpServletRequest;
+import com.moneymanager.backend.service.IdempotencyService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RestController
 @RequestMapping("/api/v1/accounts")
 public class AccountController {
 
     private final AccountService service;
-    private final JwtService jwtService;
+    private final IdempotencyService idempotency;
 
     public AccountController(AccountService service,
-                             JwtService jwtService) {
+                             IdempotencyService idempotency) {
         this.service = service;
-        this.jwtService = jwtService;
+        this.idempotency = idempotency;
     }
 
-    private String extractUserId(HttpServletRequest request) {
-
-        String auth = request.getHeader("Authorization");
-
-        if (auth == null || !auth.startsWith("Bearer ")) {
-            throw new RuntimeException("Missing token");
-        }
-
-        String token = auth.substring(7);
-        return jwtService.extractUserId(token);
-    }
-
-
     @PostMapping
     public ResponseEntity<Account> create(
             @RequestParam String name,
-            HttpServletRequest request
+            @AuthenticationPrincipal String userId
     ) {
-        String userId = extractUserId(request);
         return ResponseEntity.ok(
                 service.create(userId, name)
         );
@@ -48,9 +38,8 @@ public class AccountController {
 
     @GetMapping
     public ResponseEntity<List<Account>> list(
-            HttpServletRequest request
+            @AuthenticationPrincipal String userId
     ) {
-        String userId = extractUserId(request);
         return ResponseEntity.ok(
                 service.getUserAccounts(userId)
         );
@@ -60,11 +49,24 @@ public class AccountController {
     public ResponseEntity<?> transfer(
             @RequestParam String fromId,
             @RequestParam String toId,
-            @RequestParam double amount,
-            HttpServletRequest request
+            @RequestParam BigDecimal amount,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @AuthenticationPrincipal String userId
     ) {
-        String userId = extractUserId(request);
-        service.transfer(userId, fromId, toId, amount);
+        long minor = Money.toMinor(amount);
+
+        idempotency.run(
+                userId,
+                idempotencyKey,
+                "accounts.transfer",
+                List.of(fromId, toId, minor),
+                Void.class,
+                completion -> {
+                    service.transfer(userId, fromId, toId, minor,
+                            () -> completion.accept(null));
+                    return null;
+                }
+        );
         return ResponseEntity.ok().build();
     }
 
@@ -0,0 +1,140 @@
+package com.moneymanager.backend.controller;
+
+import com.moneymanager.backend.model.ReconciliationReport;
+import com.moneymanager.backend.service.MoneyMigrationService;
+import com.moneymanager.backend.service.ProjectionService;
+import com.moneymanager.backend.service.ReconciliationService;
+import com.moneymanager.backend.service.TransactionArchiveService;
+import com.moneymanager.backend.service.TransactionBucketMigrationService;
+import com.moneymanager.backend.service.TrashPurgeService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.Set;
+
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RestController
+@RequestMapping("/api/v1/admin")
+public class AdminController {
+
+    private final ReconciliationService reconciliation;
+    private final MoneyMigrationService moneyMigration;
+    private final TransactionBucketMigrationService bucketMigration;
+    private final ObjectProvider<ProjectionService> projection;
+    private final TrashPurgeService trashPurge;
+    private final TransactionArchiveService archive;
+    private final Set<String> adminUserIds;
+
+    public AdminController(ReconciliationService reconciliation,
+                           MoneyMigrationService moneyMigration,
+                           TransactionBucketMigrationService bucketMigration,
+                           ObjectProvider<ProjectionService> projection,
+                           TrashPurgeService trashPurge,
+                           TransactionArchiveService archive,
+                           @Value("${admin.user-ids}") Set<String> adminUserIds) {
+        this.reconciliation = reconciliation;
+        this.moneyMigration = moneyMigration;
+        this.bucketMigration = bucketMigration;
+        this.projection = projection;
+        this.trashPurge = trashPurge;
+        this.archive = archive;
+        this.adminUserIds = adminUserIds;
+    }
+
+    // RUN BALANCE RECONCILIATION (all accounts)
+    @PostMapping("/reconciliation")
+    public ReconciliationReport reconcile(
+            @RequestParam(defaultValue = "false") boolean correct,
+            @AuthenticationPrincipal String userId
+    ) {
+        requireAdmin(userId);
+        return reconciliation.run(correct);
+    }
+
+    // LAST REPORT
+    @GetMapping("/reconciliation/latest")
+    public ResponseEntity<ReconciliationReport> latest(
+            @AuthenticationPrincipal String userId
+    ) {
+        requireAdmin(userId);
+
+        ReconciliationReport report = reconciliation.latest();
+        return report == null
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.ok(report);
+    }
+
+    // CONVERT LEFTOVER DOUBLE AMOUNTS TO MINOR UNITS
+    @PostMapping("/migrations/money")
+    public Map<String, Long> migrateMoney(
+            @AuthenticationPrincipal String userId
+    ) {
+        requireAdmin(userId);
+        return moneyMigration.migrate();
+    }
+
+    // BACKFILL transaction_buckets (bucketed layout only)
+    @PostMapping("/migrations/buckets")
+    public Map<String, Long> migrateBuckets(
+            @AuthenticationPrincipal String userId
+    ) {
+        requireAdmin(userId);
+        return bucketMigration.backfill();
+    }
+
+    // PURGE EXPIRED TRASH NOW (normally trash.purge.cron)
+    @PostMapping("/trash/purge")
+    public Map<String, Object> purgeTrash(
+            @AuthenticationPrincipal String userId
+    ) {
+        requireAdmin(userId);
+        return trashPurge.purge();
+    }
+
+    // MOVE OLD TRANSACTIONS TO THE ARCHIVE NOW (normally archive.cron)
+    @PostMapping("/archive")
+    public Map<String, Long> archive(
+            @AuthenticationPrincipal String userId
+    ) {
+        requireAdmin(userId);
+        return archive.run();
+    }
+
+    // PROJECTION LEASE / LAG (changestream mode only)
+    @GetMapping("/projections")
+    public Map<String, Object> projectionStatus(
+            @AuthenticationPrincipal String userId
+    ) {
+        requireAdmin(userId);
+        return projection().status();
+    }
+
+    // REBUILD READ MODELS FROM A SNAPSHOT, THEN RESUME THE STREAM
+    @PostMapping("/projections/rebuild")
+    public Map<String, Long> rebuildProjection(
+            @AuthenticationPrincipal String userId
+    ) {
+        requireAdmin(userId);
+        return projection().rebuild();
+    }
+
+    private ProjectionService projection() {
+
+        ProjectionService service = projection.getIfAvailable();
+        if (service == null) {
+            throw new RuntimeException("Projection is not enabled");
+        }
+        return service;
+    }
+
+    private void requireAdmin(String userId) {
+        if (!adminUserIds.contains(userId)) {
+            throw new RuntimeException("Forbidden");
+        }
+    }
+}
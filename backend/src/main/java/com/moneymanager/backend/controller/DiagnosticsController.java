@@ -0,0 +1,77 @@
+package com.moneymanager.backend.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.moneymanager.backend.service.QueryPlanService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RestController
+@RequestMapping("/api/v1/diagnostics")
+public class DiagnosticsController {
+
+    private final QueryPlanService queryPlanService;
+    private final CacheManager cacheManager;
+    private final Set<String> adminUserIds;
+
+    public DiagnosticsController(QueryPlanService queryPlanService,
+                                 CacheManager cacheManager,
+                                 @Value("${admin.user-ids}") Set<String> adminUserIds) {
+        this.queryPlanService = queryPlanService;
+        this.cacheManager = cacheManager;
+        this.adminUserIds = adminUserIds;
+    }
+
+    // QUERY PLANS
+    @GetMapping("/query-plans")
+    public List<Map<String, Object>> queryPlans(
+            @AuthenticationPrincipal String userId
+    ) {
+        requireAdmin(userId);
+        return queryPlanService.explainAll(userId);
+    }
+
+    // CACHE HIT / MISS / EVICTION
+    // across all users, so admins only; also scraped as cache.* metrics
+    @GetMapping("/caches")
+    public Map<String, Map<String, Object>> caches(
+            @AuthenticationPrincipal String userId
+    ) {
+        requireAdmin(userId);
+
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+
+        for (String name : cacheManager.getCacheNames()) {
+
+            if (!(cacheManager.getCache(name) instanceof CaffeineCache cache))
+                continue;
+
+            CacheStats stats = cache.getNativeCache().stats();
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("size", cache.getNativeCache().estimatedSize());
+            entry.put("hits", stats.hitCount());
+            entry.put("misses", stats.missCount());
+            entry.put("hitRate", stats.hitRate());
+            entry.put("evictions", stats.evictionCount());
+            result.put(name, entry);
+        }
+
+        return result;
+    }
+
+    private void requireAdmin(String userId) {
+        if (!adminUserIds.contains(userId)) {
+            throw new RuntimeException("Forbidden");
+        }
+    }
+}
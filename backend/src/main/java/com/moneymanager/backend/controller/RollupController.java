@@ -0,0 +1,53 @@
+package com.moneymanager.backend.controller;
+
+import com.moneymanager.backend.service.RollupService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RestController
+@RequestMapping("/api/v1/rollups")
+public class RollupController {
+
+    private final RollupService service;
+    private final Set<String> adminUserIds;
+
+    public RollupController(RollupService service,
+                            @Value("${admin.user-ids}") Set<String> adminUserIds) {
+        this.service = service;
+        this.adminUserIds = adminUserIds;
+    }
+
+    // DRIFT REPORT
+    // recomputes from every transaction, so admins only like rebuild
+    @GetMapping("/verify")
+    public List<Map<String, Object>> verify(
+            @AuthenticationPrincipal String userId
+    ) {
+        requireAdmin(userId);
+        return service.verify(userId);
+    }
+
+    // REBUILD FROM TRANSACTIONS
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild(
+            @AuthenticationPrincipal String userId
+    ) {
+        requireAdmin(userId);
+        service.rebuild(userId);
+        return ResponseEntity.ok().build();
+    }
+
+    private void requireAdmin(String userId) {
+        if (!adminUserIds.contains(userId)) {
+            throw new RuntimeException("Forbidden");
+        }
+    }
+}
@@ -1,56 +1,124 @@
 package com.moneymanager.backend.controller;
 
+import com.moneymanager.backend.dto.BulkImportResult;
 import com.moneymanager.backend.dto.TransactionRequest;
+import com.moneymanager.backend.dto.TransactionSlice;
+import com.moneymanager.backend.model.RecentTransactions;
 import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.service.IdempotencyService;
+import com.moneymanager.backend.service.RecentTransactionsService;
+import com.moneymanager.backend.service.TransactionExportService;
+import com.moneymanager.backend.service.TransactionImportService;
 import com.moneymanager.backend.service.TransactionService;
-import com.moneymanager.backend.security.JwtService;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RestController
 @RequestMapping("/api/v1/transactions")
 public class TransactionController {
 
     private final TransactionService service;
-    private final JwtService jwtService;
+    private final TransactionImportService importService;
+    private final TransactionExportService exportService;
+    private final RecentTransactionsService recentService;
+    private final IdempotencyService idempotency;
 
     public TransactionController(TransactionService service,
-                                 JwtService jwtService) {
+                                 TransactionImportService importService,
+                                 TransactionExportService exportService,
+                                 RecentTransactionsService recentService,
+                                 IdempotencyService idempotency) {
         this.service = service;
-        this.jwtService = jwtService;
+        this.importService = importService;
+        this.exportService = exportService;
+        this.recentService = recentService;
+        this.idempotency = idempotency;
     }
 
-    private String extractUserId(HttpServletRequest request) {
-        String auth = request.getHeader("Authorization");
-        if (auth == null || !auth.startsWith("Bearer "))
-            throw new RuntimeException("Missing token");
-
-        return jwtService.extractUserId(auth.substring(7));
-    }
-
-    // CREATE
+    // CREATE (retries with the same Idempotency-Key replay the response)
     @PostMapping
     public Transaction create(
             @RequestBody TransactionRequest request,
-            HttpServletRequest httpRequest
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @AuthenticationPrincipal String userId
     ) {
-        return service.create(
-                extractUserId(httpRequest),
-                request
+        return idempotency.run(
+                userId,
+                idempotencyKey,
+                "transactions.create",
+                request,
+                Transaction.class,
+                completion -> service.create(userId, request, completion)
+        );
+    }
+
+    // BULK IMPORT (csv with header row, or ndjson)
+    @PostMapping("/bulk")
+    public BulkImportResult bulk(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @AuthenticationPrincipal String userId,
+            HttpServletRequest request
+    ) throws IOException {
+        return importService.importRows(
+                userId,
+                request.getInputStream(),
+                format
         );
     }
 
+    // STREAMING EXPORT (csv or ndjson, optional date range)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @AuthenticationPrincipal String userId
+    ) {
+        String contentType = exportService.contentType(format);
+        exportService.checkRange(from, to);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions."
+                                + format.toLowerCase() + "\"");
+
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return response.body(out -> exportService.export(
+                userId, format, from, to, gzip, out
+        ));
+    }
+
     // LIST
     @GetMapping
-    public List<Transaction> list(HttpServletRequest request) {
-        return service.getUserTransactions(
-                extractUserId(request)
-        );
+    public List<Transaction> list(
+            @AuthenticationPrincipal String userId
+    ) {
+        return service.getUserTransactions(userId);
+    }
+
+    // LATEST N (dashboard)
+    @GetMapping("/recent")
+    public List<RecentTransactions.Entry> recent(
+            @AuthenticationPrincipal String userId
+    ) {
+        return recentService.recent(userId);
     }
 
     // UPDATE
@@ -58,10 +126,10 @@ public class TransactionController {
     public Transaction update(
             @PathVariable String id,
             @RequestBody TransactionRequest request,
-            HttpServletRequest httpRequest
+            @AuthenticationPrincipal String userId
     ) {
         return service.update(
-                extractUserId(httpRequest),
+                userId,
                 id,
                 request
         );
@@ -71,9 +139,9 @@ public class TransactionController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> delete(
             @PathVariable String id,
-            HttpServletRequest request
+            @AuthenticationPrincipal String userId
     ) {
-        service.delete(extractUserId(request), id);
+        service.delete(userId, id);
         return ResponseEntity.ok().build();
     }
 
@@ -81,36 +149,36 @@ public class TransactionController {
     @PostMapping("/{id}/restore")
     public ResponseEntity<?> restore(
             @PathVariable String id,
-            HttpServletRequest request
+            @AuthenticationPrincipal String userId
     ) {
-        service.restore(extractUserId(request), id);
+        service.restore(userId, id);
         return ResponseEntity.ok().build();
     }
 
     // TRASH
     @GetMapping("/trash")
-    public List<Transaction> trash(HttpServletRequest request) {
-        return service.getDeleted(
-                extractUserId(request)
-        );
+    public List<Transaction> trash(
+            @AuthenticationPrincipal String userId
+    ) {
+        return service.getDeleted(userId);
     }
 
     // TOTAL SUMMARY
     @GetMapping("/summary")
-    public Map<String, Double> summary(HttpServletRequest request) {
-        return service.getSummary(
-                extractUserId(request)
-        );
+    public Map<String, BigDecimal> summary(
+            @AuthenticationPrincipal String userId
+    ) {
+        return service.getSummary(userId);
     }
 
     // WEEK / MONTH / YEAR
     @GetMapping("/summary/{period}")
-    public Map<String, Double> summaryByPeriod(
+    public Map<String, BigDecimal> summaryByPeriod(
             @PathVariable String period,
-            HttpServletRequest request
+            @AuthenticationPrincipal String userId
     ) {
         return service.getSummaryByPeriod(
-                extractUserId(request),
+                userId,
                 period
         );
     }
@@ -119,10 +187,10 @@ public class TransactionController {
     @GetMapping("/division/{division}")
     public List<Transaction> byDivision(
             @PathVariable String division,
-            HttpServletRequest request
+            @AuthenticationPrincipal String userId
     ) {
         return service.getByDivision(
-                extractUserId(request),
+                userId,
                 division
         );
     }
@@ -132,23 +200,39 @@ public class TransactionController {
     public List<Transaction> range(
             @RequestParam String from,
             @RequestParam String to,
-            HttpServletRequest request
+            @AuthenticationPrincipal String userId
     ) {
         return service.betweenDates(
-                extractUserId(request),
+                userId,
                 from,
                 to
         );
     }
 
+    // DATE RANGE, PAGED
+    @GetMapping("/range/page")
+    public Page<Transaction> rangePaged(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam int page,
+            @RequestParam int size,
+            @AuthenticationPrincipal String userId
+    ) {
+        return service.betweenDatesPaged(
+                userId,
+                from,
+                to,
+                page,
+                size
+        );
+    }
+
     // CATEGORY SUMMARY
     @GetMapping("/categories")
-    public Map<String, Double> categories(
-            HttpServletRequest request
+    public Map<String, BigDecimal> categories(
+            @AuthenticationPrincipal String userId
     ) {
-        return service.categorySummary(
-                extractUserId(request)
-        );
+        return service.categorySummary(userId);
     }
 
     // PAGINATION
@@ -156,12 +240,22 @@ public class TransactionController {
     public Page<Transaction> paged(
             @RequestParam int page,
             @RequestParam int size,
-            HttpServletRequest request
+            @AuthenticationPrincipal String userId
     ) {
         return service.getPaged(
-                extractUserId(request),
+                userId,
                 page,
                 size
         );
     }
+
+    // KEYSET PAGINATION (infinite scroll)
+    @GetMapping("/scroll")
+    public TransactionSlice scroll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal String userId
+    ) {
+        return service.scroll(userId, cursor, size);
+    }
 }
@@ -0,0 +1,27 @@
+package com.moneymanager.backend.controller.reactive;
+
+import com.moneymanager.backend.model.Account;
+import com.moneymanager.backend.service.ReactiveTransactionService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RestController
+@RequestMapping("/api/v1/accounts")
+public class ReactiveAccountController {
+
+    private final ReactiveTransactionService service;
+
+    public ReactiveAccountController(ReactiveTransactionService service) {
+        this.service = service;
+    }
+
+    @GetMapping
+    public Flux<Account> list(
+            @AuthenticationPrincipal String userId
+    ) {
+        return service.getUserAccounts(userId);
+    }
+}
@@ -0,0 +1,41 @@
+package com.moneymanager.backend.controller.reactive;
+
+import com.moneymanager.backend.dto.*;
+import com.moneymanager.backend.service.AuthService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// AuthService is blocking (repository + BCrypt), so it is moved off
+// the event loop onto the bounded elastic scheduler.
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RestController
+@RequestMapping("/api/v1/auth")
+@RequiredArgsConstructor
+public class ReactiveAuthController {
+
+    private final AuthService authService;
+
+    @PostMapping("/register")
+    public Mono<ResponseEntity<String>> register(
+            @Valid @RequestBody RegisterRequest req) {
+
+        return Mono.fromCallable(() -> {
+                    authService.register(req);
+                    return ResponseEntity.status(201).body("User registered");
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<AuthResponse>> login(
+            @Valid @RequestBody LoginRequest req) {
+
+        return Mono.fromCallable(() -> ResponseEntity.ok(authService.login(req)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
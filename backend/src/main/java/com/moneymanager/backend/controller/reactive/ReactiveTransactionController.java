@@ -0,0 +1,42 @@
+package com.moneymanager.backend.controller.reactive;
+
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.service.ReactiveTransactionService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RestController
+@RequestMapping("/api/v1/transactions")
+public class ReactiveTransactionController {
+
+    private final ReactiveTransactionService service;
+
+    public ReactiveTransactionController(ReactiveTransactionService service) {
+        this.service = service;
+    }
+
+    // LIST (json array, or one document per line with Accept: application/x-ndjson)
+    @GetMapping(produces = {
+            MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE
+    })
+    public Flux<Transaction> list(
+            @AuthenticationPrincipal String userId
+    ) {
+        return service.getUserTransactions(userId);
+    }
+
+    // STREAMING EXPORT, demand-driven by the client
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Transaction> export(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @AuthenticationPrincipal String userId
+    ) {
+        return service.betweenDates(userId, from, to);
+    }
+}
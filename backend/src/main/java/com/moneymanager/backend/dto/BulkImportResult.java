@@ -0,0 +1,15 @@
+package com.moneymanager.backend.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class BulkImportResult {
+    private long imported;
+    private long failed;
+    private List<ImportRowError> errors = new ArrayList<>();
+}
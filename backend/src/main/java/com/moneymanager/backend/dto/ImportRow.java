@@ -0,0 +1,14 @@
+package com.moneymanager.backend.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+public class ImportRow extends TransactionRequest {
+
+    // optional, defaults to import time
+    private LocalDateTime createdAt;
+}
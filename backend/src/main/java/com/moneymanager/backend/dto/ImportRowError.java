@@ -0,0 +1,11 @@
+package com.moneymanager.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ImportRowError {
+    private long row;
+    private String message;
+}
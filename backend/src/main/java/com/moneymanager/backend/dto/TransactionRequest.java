@@ -1,17 +1,21 @@
 package com.moneymanager.backend.dto;
 
+import com.moneymanager.backend.model.Division;
+import com.moneymanager.backend.model.MoneyAmount;
+import com.moneymanager.backend.model.TransactionType;
 import lombok.Getter;
 import lombok.Setter;
 
 @Getter
 @Setter
 public class TransactionRequest {
-    private String type;
-    private double amount;
+    private TransactionType type;
+    @MoneyAmount
+    private long amount;   // minor units, a decimal in JSON
     private String category;
     private String description;
     private String accountId;
-    private String division;
+    private Division division;
 
 }
 
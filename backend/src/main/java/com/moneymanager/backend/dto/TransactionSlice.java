@@ -0,0 +1,15 @@
+package com.moneymanager.backend.dto;
+
+import com.moneymanager.backend.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class TransactionSlice {
+    private List<Transaction> items;
+    private String nextCursor;   // null on the last slice
+    private boolean hasNext;
+}
@@ -0,0 +1,11 @@
+package com.moneymanager.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// balances or account list of the user changed
+@Getter
+@AllArgsConstructor
+public class AccountsChangedEvent {
+    private final String userId;
+}
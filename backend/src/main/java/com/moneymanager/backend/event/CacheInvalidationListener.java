@@ -0,0 +1,41 @@
+package com.moneymanager.backend.event;
+
+import com.moneymanager.backend.config.CacheConfig;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CacheInvalidationListener {
+
+    private final CacheManager cacheManager;
+
+    public CacheInvalidationListener(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @EventListener
+    public void onAccountsChanged(AccountsChangedEvent event) {
+        evict(CacheConfig.ACCOUNTS, event.getUserId());
+    }
+
+    @EventListener
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+
+        String userId = event.getUserId();
+
+        evict(CacheConfig.ACCOUNTS, userId);
+        evict(CacheConfig.SUMMARY, userId);
+        evict(CacheConfig.CATEGORY_SUMMARY, userId);
+
+        for (String period : CacheConfig.PERIODS) {
+            evict(CacheConfig.PERIOD_SUMMARY, userId + ":" + period);
+        }
+    }
+
+    private void evict(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) cache.evict(key);
+    }
+}
@@ -0,0 +1,11 @@
+package com.moneymanager.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// income / expense totals of the user changed (implies balances too)
+@Getter
+@AllArgsConstructor
+public class TransactionsChangedEvent {
+    private final String userId;
+}
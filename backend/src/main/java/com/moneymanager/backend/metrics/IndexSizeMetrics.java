@@ -0,0 +1,90 @@
+package com.moneymanager.backend.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// moneymanager.mongo.index.size{collection, index} in bytes, from
+// $collStats. Refreshed on a timer and around trash purges.
+@Component
+public class IndexSizeMetrics {
+
+    private static final List<String> COLLECTIONS = List.of(
+            "transactions",
+            "transactions_archive",
+            "transaction_buckets",
+            "user_rollups"
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final MultiGauge sizes;
+
+    public IndexSizeMetrics(MongoTemplate mongoTemplate, MeterRegistry registry) {
+        this.mongoTemplate = mongoTemplate;
+        this.sizes = MultiGauge.builder("moneymanager.mongo.index.size")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${metrics.index-size.refresh-ms}",
+            fixedDelayString = "${metrics.index-size.refresh-ms}"
+    )
+    public void scheduled() {
+        refresh();
+    }
+
+    // total index bytes per collection
+    public Map<String, Long> refresh() {
+
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        Map<String, Long> totals = new LinkedHashMap<>();
+
+        for (String collection : COLLECTIONS) {
+
+            Map<String, Long> indexes = indexSizes(collection);
+            indexes.forEach((index, bytes) -> rows.add(MultiGauge.Row.of(
+                    Tags.of("collection", collection, "index", index), bytes)));
+
+            totals.put(collection, indexes.values().stream()
+                    .mapToLong(Long::longValue).sum());
+        }
+
+        // dropped indexes disappear from the gauge
+        sizes.register(rows, true);
+        return totals;
+    }
+
+    // one storageStats document per shard, summed
+    private Map<String, Long> indexSizes(String collection) {
+
+        Map<String, Long> sizes = new LinkedHashMap<>();
+
+        if (!mongoTemplate.collectionExists(collection)) return sizes;
+
+        List<Document> pipeline = List.of(new Document("$collStats",
+                new Document("storageStats", new Document())));
+
+        for (Document stats : mongoTemplate.getCollection(collection).aggregate(pipeline)) {
+
+            Document indexSizes = stats.get("storageStats", Document.class)
+                    .get("indexSizes", Document.class);
+
+            if (indexSizes == null) continue;
+
+            indexSizes.forEach((index, bytes) ->
+                    sizes.merge(index, ((Number) bytes).longValue(), Long::sum));
+        }
+
+        return sizes;
+    }
+}
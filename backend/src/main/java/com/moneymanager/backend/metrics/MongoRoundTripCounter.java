@@ -0,0 +1,27 @@
+package com.moneymanager.backend.metrics;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.springframework.stereotype.Component;
+
+// Counts Mongo commands issued by the current thread. The sync driver
+// fires commandStarted on the calling thread, so this is per request.
+@Component
+public class MongoRoundTripCounter implements CommandListener {
+
+    private static final ThreadLocal<int[]> COUNT =
+            ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        COUNT.get()[0]++;
+    }
+
+    public void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public int get() {
+        return COUNT.get()[0];
+    }
+}
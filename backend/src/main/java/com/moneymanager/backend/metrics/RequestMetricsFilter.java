@@ -0,0 +1,55 @@
+package com.moneymanager.backend.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Records how many Mongo round trips each endpoint costs.
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MongoRoundTripCounter roundTrips;
+    private final MeterRegistry registry;
+
+    public RequestMetricsFilter(MongoRoundTripCounter roundTrips,
+                                MeterRegistry registry) {
+        this.roundTrips = roundTrips;
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        roundTrips.reset();
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+
+            Object uri = request.getAttribute(
+                    HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE
+            );
+
+            DistributionSummary.builder("moneymanager.mongo.roundtrips")
+                    .baseUnit("commands")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                    .register(registry)
+                    .record(roundTrips.get());
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.moneymanager.backend.model;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Getter
@@ -13,7 +14,9 @@ public class Account {
     @Id
     private String id;
 
+    @Indexed
     private String userId;
     private String name;
-    private double balance;
+    @MoneyAmount
+    private long balance;   // minor units
 }
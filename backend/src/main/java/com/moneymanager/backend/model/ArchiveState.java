@@ -0,0 +1,26 @@
+package com.moneymanager.backend.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Single document: everything created before archivedBefore may be in
+// transactions_archive. Raised before rows are moved, so a reader that
+// checks it never misses a moved row.
+@Getter
+@Setter
+@Document(collection = "archive_state")
+public class ArchiveState {
+
+    public static final String ID = "transactions";
+
+    @Id
+    private String id;
+
+    private LocalDateTime archivedBefore;
+    private LocalDateTime lastRunAt;
+    private long lastMoved;
+}
@@ -0,0 +1,99 @@
+package com.moneymanager.backend.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+// Cold copy of a live transaction older than archive.horizon-days.
+// Same _id as in transactions, one or two letter field names, and the
+// collection is created with zstd block compression. Archived rows are
+// outside the edit window, so they are never updated.
+@Getter
+@Setter
+@Document(collection = "transactions_archive")
+@CompoundIndexes({
+        @CompoundIndex(name = "user_created_id", def = "{'u': 1, 'at': -1, '_id': -1}"),
+        @CompoundIndex(name = "account", def = "{'ac': 1}"),
+        @CompoundIndex(name = "group", def = "{'g': 1}", sparse = true)
+})
+public class ArchivedTransaction {
+
+    @Id
+    private String id;
+
+    @Field("u")
+    private String userId;
+
+    @Field("ac")
+    private String accountId;
+
+    @Field("t")
+    private TransactionType type;
+
+    @Field("d")
+    private Direction direction;
+
+    @Field("a")
+    private long amount;       // minor units
+
+    @Field("c")
+    private String category;
+
+    @Field("ci")
+    private Integer categoryId;
+
+    @Field("n")
+    private String description;
+
+    @Field("at")
+    private LocalDateTime createdAt;
+
+    @Field("g")
+    private String groupId;
+
+    @Field("v")
+    private Division division;
+
+    public static ArchivedTransaction of(Transaction tx) {
+
+        ArchivedTransaction a = new ArchivedTransaction();
+        a.id = tx.getId();
+        a.userId = tx.getUserId();
+        a.accountId = tx.getAccountId();
+        a.type = tx.getType();
+        a.direction = tx.getDirection();
+        a.amount = tx.getAmount();
+        a.category = tx.getCategory();
+        a.categoryId = tx.getCategoryId();
+        a.description = tx.getDescription();
+        a.createdAt = tx.getCreatedAt();
+        a.groupId = tx.getGroupId();
+        a.division = tx.getDivision();
+        return a;
+    }
+
+    // live by definition, only live rows are archived
+    public Transaction toTransaction() {
+
+        Transaction tx = new Transaction();
+        tx.setId(id);
+        tx.setUserId(userId);
+        tx.setAccountId(accountId);
+        tx.setType(type);
+        tx.setDirection(direction);
+        tx.setAmount(amount);
+        tx.setCategory(category);
+        tx.setCategoryId(categoryId);
+        tx.setDescription(description);
+        tx.setCreatedAt(createdAt);
+        tx.setGroupId(groupId);
+        tx.setDivision(division);
+        return tx;
+    }
+}
@@ -0,0 +1,70 @@
+package com.moneymanager.backend.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+// Compact copy of a live transaction inside a TransactionBucket. userId
+// and accountId live on the bucket, the category as a dictionary id,
+// and field names are one or two letters to keep buckets small.
+@Getter
+@Setter
+public class BucketEntry {
+
+    @Field("i")
+    private String id;
+
+    @Field("t")
+    private TransactionType type;
+
+    @Field("d")
+    private Direction direction;
+
+    @Field("a")
+    private long amount;       // minor units
+
+    @Field("c")
+    private Integer categoryId;
+
+    @Field("n")
+    private String description;
+
+    @Field("at")
+    private LocalDateTime createdAt;
+
+    @Field("g")
+    private String groupId;
+
+    @Field("v")
+    private Division division;
+
+    // routing only, never stored in the entry
+    @Transient
+    private String userId;
+    @Transient
+    private String accountId;
+    @Transient
+    private String category;
+
+    // snapshot, later changes to tx do not show up here
+    public static BucketEntry of(Transaction tx) {
+
+        BucketEntry e = new BucketEntry();
+        e.id = tx.getId();
+        e.type = tx.getType();
+        e.direction = tx.getDirection();
+        e.amount = tx.getAmount();
+        e.categoryId = tx.getCategoryId();
+        e.description = tx.getDescription();
+        e.createdAt = tx.getCreatedAt();
+        e.groupId = tx.getGroupId();
+        e.division = tx.getDivision();
+        e.userId = tx.getUserId();
+        e.accountId = tx.getAccountId();
+        e.category = tx.getCategory();
+        return e;
+    }
+}
@@ -0,0 +1,22 @@
+package com.moneymanager.backend.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One document per user. A category's id is its position in the list;
+// names are only ever appended, so ids never change.
+@Getter
+@Setter
+@Document(collection = "category_dictionaries")
+public class CategoryDictionary {
+
+    @Id
+    private String userId;
+
+    private List<String> categories = new ArrayList<>();
+}
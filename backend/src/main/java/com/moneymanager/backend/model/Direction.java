@@ -0,0 +1,8 @@
+package com.moneymanager.backend.model;
+
+// IN for income / expense rows and the receiving transfer leg,
+// OUT for the sending transfer leg
+public enum Direction {
+    IN,
+    OUT
+}
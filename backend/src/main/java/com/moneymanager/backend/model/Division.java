@@ -0,0 +1,22 @@
+package com.moneymanager.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+public enum Division {
+
+    OFFICE,
+    PERSONAL;
+
+    // division is optional, blank (e.g. an empty CSV cell) means none
+    @JsonCreator
+    public static Division from(String value) {
+
+        if (value == null || value.isBlank()) return null;
+
+        for (Division division : values()) {
+            if (division.name().equalsIgnoreCase(value)) return division;
+        }
+
+        throw new IllegalArgumentException("Invalid division: " + value);
+    }
+}
@@ -0,0 +1,35 @@
+package com.moneymanager.backend.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// One document per (user, Idempotency-Key). Holds the serialized
+// response once the first request has completed; removed by the TTL
+// index at expiresAt.
+@Getter
+@Setter
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    @Id
+    private String id;   // userId|key
+
+    private String userId;
+    private String fingerprint;   // hash of operation + request
+    private boolean completed;
+    private String response;      // JSON, set once completed
+
+    private String owner;         // token of the request running it
+    private Instant lockedUntil;  // renewed while running; expired = owner died
+    @Indexed(name = "expires", expireAfterSeconds = 0)
+    private Instant expiresAt;
+
+    public static String idOf(String userId, String key) {
+        return userId + "|" + key;
+    }
+}
@@ -0,0 +1,74 @@
+package com.moneymanager.backend.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Amounts are held as long minor units (cents): 12.34 is stored as 1234.
+// The API still speaks decimals; @MoneyAmount fields go through the
+// Serializer / Deserializer below.
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    // more than two decimals is rejected, never silently rounded
+    public static long toMinor(BigDecimal amount) {
+        try {
+            return amount.setScale(SCALE, RoundingMode.UNNECESSARY)
+                    .unscaledValue()
+                    .longValueExact();
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("Invalid amount: " + amount.toPlainString());
+        }
+    }
+
+    public static BigDecimal toMajor(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    // only for legacy double values, 0.1 + 0.2 becomes 30
+    public static long fromDouble(double value) {
+        return BigDecimal.valueOf(value)
+                .setScale(SCALE, RoundingMode.HALF_UP)
+                .unscaledValue()
+                .longValueExact();
+    }
+
+    public static class Serializer extends JsonSerializer<Long> {
+
+        @Override
+        public void serialize(Long minor,
+                              JsonGenerator gen,
+                              SerializerProvider provider) throws IOException {
+            gen.writeNumber(toMajor(minor));
+        }
+    }
+
+    // accepts 12.34, 12 or "12.34" (CSV cells are always text)
+    public static class Deserializer extends JsonDeserializer<Long> {
+
+        @Override
+        public Long deserialize(JsonParser p,
+                                DeserializationContext ctxt) throws IOException {
+            try {
+                BigDecimal value = p.currentToken().isNumeric()
+                        ? p.getDecimalValue()
+                        : new BigDecimal(p.getText().trim());
+                return toMinor(value);
+            } catch (RuntimeException e) {
+                throw JsonMappingException.from(p, "Invalid amount", e);
+            }
+        }
+    }
+}
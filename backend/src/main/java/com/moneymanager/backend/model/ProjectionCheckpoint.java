@@ -0,0 +1,27 @@
+package com.moneymanager.backend.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Position of a change stream consumer plus the lease that makes sure
+// only one instance applies events. Written in the same Mongo
+// transaction as the read model changes it covers.
+@Getter
+@Setter
+@Document(collection = "projection_checkpoints")
+public class ProjectionCheckpoint {
+
+    @Id
+    private String id;
+
+    private String resumeToken;     // change stream _id, as JSON
+    private long clusterTime;       // BsonTimestamp value of the last event
+    private Instant lastEventAt;
+
+    private String owner;
+    private Instant leaseUntil;
+}
@@ -0,0 +1,57 @@
+package com.moneymanager.backend.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Read model: the user's latest live transactions, newest first, with
+// the account name copied in so the dashboard list needs no joins.
+// Maintained by ProjectionService.
+@Getter
+@Setter
+@Document(collection = "recent_transactions")
+public class RecentTransactions {
+
+    @Id
+    private String userId;
+
+    private List<Entry> items = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Entry {
+
+        private String id;
+        private String accountId;
+        private String accountName;
+        private TransactionType type;
+        private Direction direction;
+        @MoneyAmount
+        private long amount;   // minor units
+        private String category;
+        private String description;
+        private Division division;
+        private LocalDateTime createdAt;
+
+        public static Entry of(Transaction tx, String accountName) {
+
+            Entry e = new Entry();
+            e.id = tx.getId();
+            e.accountId = tx.getAccountId();
+            e.accountName = accountName;
+            e.type = tx.getType();
+            e.direction = tx.getDirection();
+            e.amount = tx.getAmount();
+            e.category = tx.getCategory();
+            e.description = tx.getDescription();
+            e.division = tx.getDivision();
+            e.createdAt = tx.getCreatedAt();
+            return e;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.moneymanager.backend.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Document(collection = "reconciliation_reports")
+public class ReconciliationReport {
+
+    @Id
+    private String id;
+
+    @Indexed
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    private boolean autoCorrect;
+    private long accountsChecked;
+    private long driftCount;
+    private long corrected;
+
+    // capped at reconciliation.max-report-entries, driftCount is exact
+    private List<AccountDrift> drifts = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class AccountDrift {
+
+        private String accountId;
+        private String userId;
+        @MoneyAmount
+        private long stored;        // Account.balance
+        @MoneyAmount
+        private long expected;      // from live transactions
+        @MoneyAmount
+        private long difference;    // stored - expected
+        private boolean corrected;
+    }
+}
@@ -1,8 +1,12 @@
 package com.moneymanager.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -10,6 +14,38 @@ import java.time.LocalDateTime;
 @Setter
 @Getter
 @Document(collection = "transactions")
+// Partial indexes: live queries (deleted: false) only ever walk live
+// entries, trash has its own small indexes. A query must filter on
+// deleted to be able to use them.
+@CompoundIndexes({
+        // _id breaks createdAt ties for the keyset pages, which then
+        // walk the index without an in-memory SORT
+        @CompoundIndex(
+                name = "user_created_id_live",
+                def = "{'userId': 1, 'createdAt': -1, '_id': -1}",
+                partialFilter = "{'deleted': false}"
+        ),
+        @CompoundIndex(
+                name = "user_division_live",
+                def = "{'userId': 1, 'division': 1}",
+                partialFilter = "{'deleted': false}"
+        ),
+        @CompoundIndex(
+                name = "account_live",
+                def = "{'accountId': 1}",
+                partialFilter = "{'deleted': false}"
+        ),
+        @CompoundIndex(
+                name = "user_trash",
+                def = "{'userId': 1, 'deletedAt': -1}",
+                partialFilter = "{'deleted': true}"
+        ),
+        @CompoundIndex(
+                name = "trash_expiry",
+                def = "{'deletedAt': 1}",
+                partialFilter = "{'deleted': true}"
+        )
+})
 public class Transaction {
 
     @Id
@@ -17,15 +53,23 @@ public class Transaction {
 
     private String userId;
     private String accountId;
-    private String type;     // income / expense
-    private String direction;  //IN / OUT
-    private double amount;
+    private TransactionType type;
+    private Direction direction;
+    @MoneyAmount
+    private long amount;   // minor units
     private String category;
+    private Integer categoryId;   // position in the user's CategoryDictionary
     private String description;
     private LocalDateTime createdAt;
+    @Indexed
     private String groupId;
     private boolean deleted = false;
-    private String division;   // OFFICE or PERSONAL
+    private LocalDateTime deletedAt;   // set while in the trash
+    private Division division;
+    // set when moved back from transactions_archive, whose rows already
+    // count in the rollups; the projector must not add the insert again
+    @JsonIgnore
+    private Boolean unarchived;
 
 
 
@@ -33,9 +77,9 @@ public class Transaction {
     }
 
     public Transaction(String userId,
-                       String type,
-                       String direction,
-                       double amount,
+                       TransactionType type,
+                       Direction direction,
+                       long amount,
                        String category,
                        String description,
                        String accountId) {
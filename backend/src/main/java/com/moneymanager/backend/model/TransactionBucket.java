@@ -0,0 +1,70 @@
+package com.moneymanager.backend.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Bucket pattern: all live transactions of one account in one month,
+// plus their totals, so a month can be summed without reading items.
+@Getter
+@Setter
+@Document(collection = "transaction_buckets")
+@CompoundIndex(name = "user_start", def = "{'userId': 1, 'start': 1}")
+public class TransactionBucket {
+
+    @Id
+    private String id;   // userId|accountId|2024-01
+
+    private String userId;
+    private String accountId;
+    private LocalDateTime start;   // first instant of the month
+
+    // minor units, live items only
+    private long income;
+    private long expense;
+    private long transferIn;
+    private long transferOut;
+    private long count;
+
+    // expense total per category id (as a string key)
+    private Map<String, Long> categories = new HashMap<>();
+
+    private List<BucketEntry> items = new ArrayList<>();
+
+    // in-memory build (backfill); live writes use $inc / $push
+    public void add(BucketEntry e) {
+
+        switch (e.getType()) {
+            case INCOME -> income += e.getAmount();
+            case EXPENSE -> expense += e.getAmount();
+            case TRANSFER -> {
+                if (e.getDirection() == Direction.OUT) transferOut += e.getAmount();
+                else transferIn += e.getAmount();
+            }
+        }
+
+        if (e.getType() == TransactionType.EXPENSE && e.getCategoryId() != null) {
+            categories.merge(String.valueOf(e.getCategoryId()), e.getAmount(), Long::sum);
+        }
+
+        count++;
+        items.add(e);
+    }
+
+    public static String idOf(String userId, String accountId, YearMonth month) {
+        return userId + "|" + accountId + "|" + month;
+    }
+
+    public static LocalDateTime startOf(LocalDateTime at) {
+        return YearMonth.from(at).atDay(1).atStartOfDay();
+    }
+}
@@ -0,0 +1,34 @@
+package com.moneymanager.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+// Stored and sent as the lowercase value ("income"), as before the enum
+// existed; see MongoConfig for the Mongo side.
+public enum TransactionType {
+
+    INCOME("income"),
+    EXPENSE("expense"),
+    TRANSFER("transfer");
+
+    private final String value;
+
+    TransactionType(String value) {
+        this.value = value;
+    }
+
+    @JsonValue
+    public String value() {
+        return value;
+    }
+
+    @JsonCreator
+    public static TransactionType from(String value) {
+
+        for (TransactionType type : values()) {
+            if (type.value.equalsIgnoreCase(value)) return type;
+        }
+
+        throw new IllegalArgumentException("Invalid type: " + value);
+    }
+}
@@ -0,0 +1,66 @@
+package com.moneymanager.backend.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Document(collection = "user_rollups")
+@CompoundIndex(name = "user_scope", def = "{'userId': 1, 'scope': 1}")
+public class UserRollup {
+
+    // scopes, one document per (userId, scope, key)
+    public static final String TOTAL = "total";       // key: "all"
+    public static final String ACCOUNT = "account";   // key: accountId
+    public static final String DAY = "day";           // key: 2024-01-31
+    public static final String MONTH = "month";       // key: 2024-01
+    public static final String YEAR = "year";         // key: 2024
+    public static final String CATEGORY = "category"; // key: category, expenses only
+    public static final String DIVISION = "division"; // key: OFFICE / PERSONAL
+
+    @Id
+    private String id;   // userId|scope|key
+
+    private String userId;
+    private String scope;
+    private String key;
+
+    // minor units
+    private long income;
+    private long expense;
+    private long transferIn;
+    private long transferOut;
+    private long count;
+
+    // TOTAL only: the user's rollups are complete and may be read.
+    // writes is bumped by every delta, a rebuild only publishes if it
+    // did not move; rebuildOwner / rebuildUntil are its lease. Without
+    // Mongo transactions a write also counts itself in pending (since
+    // pendingSince) before its transaction documents and out again
+    // with its delta.
+    private boolean built;
+    private long writes;
+    private long pending;
+    private Instant pendingSince;
+    private String rebuildOwner;
+    private Instant rebuildUntil;
+
+    public UserRollup() {
+    }
+
+    public UserRollup(String userId, String scope, String key) {
+        this.id = idOf(userId, scope, key);
+        this.userId = userId;
+        this.scope = scope;
+        this.key = key;
+    }
+
+    public static String idOf(String userId, String scope, String key) {
+        return userId + "|" + scope + "|" + key;
+    }
+}
@@ -0,0 +1,193 @@
+package com.moneymanager.backend.repository;
+
+import com.moneymanager.backend.model.Account;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Balance changes as single findAndModify + $inc calls instead of
+// findById -> setBalance -> save, so concurrent writes are not lost.
+// All amounts are minor units (see Money).
+@Repository
+public class AccountBalanceOperations {
+
+    private static final FindAndModifyOptions RETURN_NEW =
+            FindAndModifyOptions.options().returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+
+    public AccountBalanceOperations(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // =========================
+    // UNGUARDED ADJUST
+    // =========================
+    public Account adjust(String accountId, long delta) {
+
+        Account account = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(accountId)),
+                new Update().inc("balance", delta),
+                RETURN_NEW,
+                Account.class
+        );
+
+        if (account == null) {
+            throw new RuntimeException("Account not found");
+        }
+
+        return account;
+    }
+
+    // =========================
+    // BATCHED ADJUST
+    // one $inc per account, one round trip;
+    // returns how many accounts matched
+    // =========================
+    public int adjustAll(Map<String, Long> deltas) {
+
+        if (deltas.isEmpty()) return 0;
+
+        BulkOperations bulk = mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.UNORDERED,
+                Account.class
+        );
+
+        deltas.forEach((accountId, delta) -> bulk.updateOne(
+                Query.query(Criteria.where("_id").is(accountId)),
+                new Update().inc("balance", delta)
+        ));
+
+        return bulk.execute().getMatchedCount();
+    }
+
+    // =========================
+    // GUARDED BATCH ADJUST
+    // owner-checked, negative deltas only apply while balance >= -delta;
+    // all or nothing: on the first miss the applied ones are undone
+    // (a no-op write inside a transaction, which rolls back anyway)
+    // =========================
+    public boolean adjustAllGuarded(String userId, Map<String, Long> deltas) {
+        return applyGuarded(userId, deltas) == null;
+    }
+
+    // the same, but a miss throws why (not found, not the owner's,
+    // insufficient balance)
+    public void adjustAllGuardedOrFail(String userId, Map<String, Long> deltas) {
+
+        String missed = applyGuarded(userId, deltas);
+
+        if (missed != null) {
+            throw failure(userId, missed);
+        }
+    }
+
+    // the account that missed, null once all applied
+    private String applyGuarded(String userId, Map<String, Long> deltas) {
+
+        Map<String, Long> applied = new HashMap<>();
+
+        for (Map.Entry<String, Long> e : deltas.entrySet()) {
+
+            long delta = e.getValue();
+            Criteria guard = Criteria.where("_id").is(e.getKey())
+                    .and("userId").is(userId);
+            if (delta < 0) guard = guard.and("balance").gte(-delta);
+
+            boolean matched = mongoTemplate.updateFirst(
+                    Query.query(guard),
+                    new Update().inc("balance", delta),
+                    Account.class
+            ).getMatchedCount() == 1;
+
+            if (!matched) {
+                applied.replaceAll((accountId, d) -> -d);
+                adjustAll(applied);
+                return e.getKey();
+            }
+
+            applied.put(e.getKey(), delta);
+        }
+
+        return null;
+    }
+
+    // =========================
+    // OWNER-CHECKED CREDIT
+    // =========================
+    public Account credit(String userId, String accountId, long amount) {
+
+        Account account = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(accountId)
+                        .and("userId").is(userId)),
+                new Update().inc("balance", amount),
+                RETURN_NEW,
+                Account.class
+        );
+
+        if (account == null) {
+            throw failure(userId, accountId);
+        }
+
+        return account;
+    }
+
+    // =========================
+    // OWNER-CHECKED DEBIT
+    // only applies while balance >= amount
+    // =========================
+    public Account debit(String userId, String accountId, long amount) {
+
+        Account account = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(accountId)
+                        .and("userId").is(userId)
+                        .and("balance").gte(amount)),
+                new Update().inc("balance", -amount),
+                RETURN_NEW,
+                Account.class
+        );
+
+        if (account == null) {
+            throw failure(userId, accountId);
+        }
+
+        return account;
+    }
+
+    // =========================
+    // COMPARE-AND-SET BALANCE
+    // only applies if nothing changed the balance since it was read
+    // =========================
+    public boolean reconcile(String accountId, long stored, long expected) {
+
+        return mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(accountId)
+                        .and("balance").is(stored)),
+                new Update().set("balance", expected),
+                Account.class
+        ).getModifiedCount() == 1;
+    }
+
+    // only runs on the failure path, to explain why nothing matched
+    private RuntimeException failure(String userId, String accountId) {
+
+        Account account = mongoTemplate.findById(accountId, Account.class);
+
+        if (account == null) {
+            return new RuntimeException("Account not found");
+        }
+
+        if (!account.getUserId().equals(userId)) {
+            return new RuntimeException("Unauthorized account");
+        }
+
+        return new RuntimeException("Insufficient balance");
+    }
+}
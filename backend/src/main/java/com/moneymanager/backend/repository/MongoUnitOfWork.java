@@ -0,0 +1,108 @@
+package com.moneymanager.backend.repository;
+
+import com.mongodb.MongoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Runs a group of writes as one Mongo multi-document transaction when
+// mongo.transactions.enabled=true (needs a replica set), otherwise just
+// runs them. The work may be executed more than once on transient
+// errors, so it must re-read whatever it modifies and publish events
+// only after run() returns.
+@Component
+public class MongoUnitOfWork {
+
+    // WriteConflict, raised when two sessions touch the same document
+    private static final int WRITE_CONFLICT = 112;
+
+    private final TransactionTemplate template;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final Counter retries;
+    private final Counter exhausted;
+
+    public MongoUnitOfWork(ObjectProvider<MongoTransactionManager> transactionManager,
+                           @Value("${mongo.transactions.max-attempts}") int maxAttempts,
+                           @Value("${mongo.transactions.backoff-ms}") long backoffMs,
+                           MeterRegistry registry) {
+
+        MongoTransactionManager manager = transactionManager.getIfAvailable();
+        this.template = manager == null ? null : new TransactionTemplate(manager);
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+
+        this.retries = Counter.builder("moneymanager.mongo.tx.retries")
+                .register(registry);
+        this.exhausted = Counter.builder("moneymanager.mongo.tx.exhausted")
+                .register(registry);
+    }
+
+    public boolean isTransactional() {
+        return template != null;
+    }
+
+    public void run(Runnable work) {
+        run(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> T run(Supplier<T> work) {
+
+        if (template == null) {
+            return work.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return template.execute(status -> work.get());
+            } catch (RuntimeException ex) {
+
+                if (!isRetryable(ex)) throw ex;
+
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    throw new RuntimeException("Too much contention, try again");
+                }
+
+                retries.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    // business errors (Insufficient balance, ...) abort immediately,
+    // only conflicts and transient transaction errors are retried
+    private static boolean isRetryable(Throwable ex) {
+
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof MongoException mongo) {
+                return mongo.getCode() == WRITE_CONFLICT
+                        || mongo.hasErrorLabel(
+                                MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+            }
+        }
+
+        return false;
+    }
+
+    // linear backoff with jitter so colliding writers spread out
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(backoffMs * attempt
+                    + ThreadLocalRandom.current().nextLong(backoffMs + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted");
+        }
+    }
+}
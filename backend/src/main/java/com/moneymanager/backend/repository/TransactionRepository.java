@@ -1,14 +1,20 @@
 package com.moneymanager.backend.repository;
 
+import com.moneymanager.backend.model.Division;
 import com.moneymanager.backend.model.Transaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface TransactionRepository
-        extends MongoRepository<Transaction, String> {
+        extends MongoRepository<Transaction, String>,
+        TransactionRepositoryCustom {
 
     List<Transaction> findByGroupId(String groupId);
 
@@ -16,15 +22,40 @@ public interface TransactionRepository
 
     List<Transaction> findByGroupIdAndDeletedFalse(String groupId);
 
-    List<Transaction> findByUserIdAndDeletedTrue(String userId);
+    // newest deleted first, on the user_trash index
+    List<Transaction> findByUserIdAndDeletedTrueOrderByDeletedAtDesc(String userId);
 
     List<Transaction> findByUserIdAndDivisionAndDeletedFalse(
             String userId,
-            String division
+            Division division
     );
 
     Page<Transaction> findByUserIdAndDeletedFalse(
             String userId,
             Pageable pageable
     );
+
+    List<Transaction> findByUserIdAndDeletedFalseAndCreatedAtBetween(
+            String userId,
+            Range<LocalDateTime> createdAt,
+            Sort sort
+    );
+
+    Page<Transaction> findByUserIdAndDeletedFalseAndCreatedAtBetween(
+            String userId,
+            Range<LocalDateTime> createdAt,
+            Pageable pageable
+    );
+
+    // cursor-backed, caller must close the stream
+    Stream<Transaction> streamByUserIdAndDeletedFalse(
+            String userId,
+            Sort sort
+    );
+
+    Stream<Transaction> streamByUserIdAndDeletedFalseAndCreatedAtBetween(
+            String userId,
+            Range<LocalDateTime> createdAt,
+            Sort sort
+    );
 }
@@ -0,0 +1,47 @@
+package com.moneymanager.backend.repository;
+
+import com.moneymanager.backend.model.Transaction;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+public interface TransactionRepositoryCustom {
+
+    // Sums are in minor units (see Money).
+
+    // Sum of amounts grouped by type ("income", "expense", "transfer").
+    // from / to may be null for an open range; to is exclusive.
+    Map<String, Long> sumAmountByType(
+            String userId,
+            LocalDateTime from,
+            LocalDateTime to
+    );
+
+    // Sum of expense amounts grouped by category.
+    Map<String, Long> sumExpenseByCategory(
+            String userId,
+            LocalDateTime from,
+            LocalDateTime to
+    );
+
+    // Live transactions, newest first, strictly after the
+    // (createdAt, id) seek position; both null for the first slice.
+    // Fetches size + 1 rows to know if there is more, never counts.
+    Slice<Transaction> findLiveSlice(
+            String userId,
+            LocalDateTime createdAt,
+            String id,
+            int size
+    );
+
+    // Net effect of an account's live transactions on its balance,
+    // with the same signs as TransactionBatch.signedAmount:
+    // income and transfer IN add, expense and transfer OUT subtract.
+    long sumSignedAmount(String accountId);
+
+    // Writes the editable fields (amount, category, description,
+    // deleted / deletedAt) of stored transactions in one unordered bulk.
+    void updateAll(Collection<Transaction> transactions);
+}
@@ -0,0 +1,229 @@
+package com.moneymanager.backend.repository;
+
+import com.moneymanager.backend.model.Direction;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.TransactionType;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.BooleanOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry registry;
+
+    public TransactionRepositoryImpl(MongoTemplate mongoTemplate,
+                                     MeterRegistry registry) {
+        this.mongoTemplate = mongoTemplate;
+        this.registry = registry;
+    }
+
+    @Override
+    public Map<String, Long> sumAmountByType(
+            String userId,
+            LocalDateTime from,
+            LocalDateTime to
+    ) {
+        return sumBy(
+                "type",
+                liveCriteria(userId, from, to)
+        );
+    }
+
+    @Override
+    public Map<String, Long> sumExpenseByCategory(
+            String userId,
+            LocalDateTime from,
+            LocalDateTime to
+    ) {
+        return sumBy(
+                "category",
+                liveCriteria(userId, from, to)
+                        .and("type").is(TransactionType.EXPENSE.value())
+        );
+    }
+
+    // =========================
+    // KEYSET SLICE
+    // =========================
+    @Override
+    public Slice<Transaction> findLiveSlice(
+            String userId,
+            LocalDateTime createdAt,
+            String id,
+            int size
+    ) {
+
+        List<Transaction> rows = mongoTemplate.find(
+                liveSliceQuery(userId, createdAt, id, size),
+                Transaction.class);
+
+        boolean hasNext = rows.size() > size;
+        if (hasNext) rows = rows.subList(0, size);
+
+        return new SliceImpl<>(rows, PageRequest.of(0, size), hasNext);
+    }
+
+    // one row more than the slice, to tell whether there is a next one;
+    // also explained by QueryPlanService
+    public static Query liveSliceQuery(
+            String userId,
+            LocalDateTime createdAt,
+            String id,
+            int size
+    ) {
+
+        Criteria criteria = liveCriteria(userId, null, null);
+
+        if (createdAt != null) {
+            criteria.orOperator(
+                    Criteria.where("createdAt").lt(createdAt),
+                    Criteria.where("createdAt").is(createdAt)
+                            .and("id").lt(id)
+            );
+        }
+
+        return Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(size + 1);
+    }
+
+    // =========================
+    // SIGNED ACCOUNT TOTAL
+    // =========================
+    @Override
+    public long sumSignedAmount(String accountId) {
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("accountId").is(accountId)
+                        .and("deleted").is(false)),
+                Aggregation.group()
+                        .sum(ConditionalOperators
+                                .when(BooleanOperators.Or.or(
+                                        ComparisonOperators.valueOf("type")
+                                                .equalToValue(TransactionType.INCOME.value()),
+                                        // income rows also carry "IN"
+                                        BooleanOperators.And.and(
+                                                ComparisonOperators.valueOf("type")
+                                                        .equalToValue(TransactionType.TRANSFER.value()),
+                                                ComparisonOperators.valueOf("direction")
+                                                        .equalToValue(Direction.IN.name())
+                                        )
+                                ))
+                                .thenValueOf("amount")
+                                .otherwiseValueOf(ArithmeticOperators
+                                        .valueOf("amount").multiplyBy(-1)))
+                        .as("total")
+        );
+
+        Document result = mongoTemplate
+                .aggregate(aggregation, Transaction.class, Document.class)
+                .getUniqueMappedResult();
+
+        return result == null
+                ? 0
+                : ((Number) result.get("total")).longValue();
+    }
+
+    @Override
+    public void updateAll(Collection<Transaction> transactions) {
+
+        if (transactions.isEmpty()) return;
+
+        BulkOperations bulk = mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.UNORDERED,
+                Transaction.class
+        );
+
+        for (Transaction tx : transactions) {
+            bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(tx.getId())),
+                    new Update()
+                            .set("amount", tx.getAmount())
+                            .set("category", tx.getCategory())
+                            .set("categoryId", tx.getCategoryId())
+                            .set("description", tx.getDescription())
+                            .set("deleted", tx.isDeleted())
+                            .set("deletedAt", tx.getDeletedAt())
+            );
+        }
+
+        bulk.execute();
+    }
+
+    // =========================
+    // $match + $group ON SERVER
+    // =========================
+    private Map<String, Long> sumBy(String field, Criteria criteria) {
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.group(field)
+                        .sum("amount").as("total")
+                        .count().as("count")
+        );
+
+        Map<String, Long> result = new HashMap<>();
+        long matched = 0;
+
+        for (Document doc : mongoTemplate
+                .aggregate(aggregation, Transaction.class, Document.class)) {
+
+            result.put(
+                    doc.getString("_id"),
+                    ((Number) doc.get("total")).longValue()
+            );
+            matched += ((Number) doc.get("count")).longValue();
+        }
+
+        // documents aggregated on the server vs shipped to the JVM
+        documents("matched", field).record(matched);
+        documents("returned", field).record(result.size());
+
+        return result;
+    }
+
+    private DistributionSummary documents(String kind, String groupBy) {
+        return DistributionSummary.builder("moneymanager.report.documents")
+                .tag("kind", kind)
+                .tag("groupBy", groupBy)
+                .register(registry);
+    }
+
+    private static Criteria liveCriteria(
+            String userId,
+            LocalDateTime from,
+            LocalDateTime to
+    ) {
+        Criteria criteria = Criteria.where("userId").is(userId)
+                .and("deleted").is(false);
+
+        if (from != null || to != null) {
+            Criteria createdAt = criteria.and("createdAt");
+            if (from != null) createdAt.gte(from);
+            if (to != null) createdAt.lt(to);
+        }
+
+        return criteria;
+    }
+}
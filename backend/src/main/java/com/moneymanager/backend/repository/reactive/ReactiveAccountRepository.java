@@ -0,0 +1,11 @@
+package com.moneymanager.backend.repository.reactive;
+
+import com.moneymanager.backend.model.Account;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+public interface ReactiveAccountRepository
+        extends ReactiveMongoRepository<Account, String> {
+
+    Flux<Account> findByUserId(String userId);
+}
@@ -0,0 +1,24 @@
+package com.moneymanager.backend.repository.reactive;
+
+import com.moneymanager.backend.model.Transaction;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+public interface ReactiveTransactionRepository
+        extends ReactiveMongoRepository<Transaction, String> {
+
+    Flux<Transaction> findByUserIdAndDeletedFalse(
+            String userId,
+            Sort sort
+    );
+
+    Flux<Transaction> findByUserIdAndDeletedFalseAndCreatedAtBetween(
+            String userId,
+            Range<LocalDateTime> createdAt,
+            Sort sort
+    );
+}
@@ -0,0 +1,43 @@
+package com.moneymanager.backend.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+// Who may read the actuator endpoints besides /actuator/health: the
+// metrics scraper by address (actuator.allowed-addresses) or an
+// authenticated admin (admin.user-ids).
+@Component
+public class ActuatorAccess {
+
+    private final List<IpAddressMatcher> allowedAddresses;
+    private final Set<String> adminUserIds;
+
+    public ActuatorAccess(@Value("${actuator.allowed-addresses}") List<String> allowedAddresses,
+                          @Value("${admin.user-ids}") Set<String> adminUserIds) {
+
+        this.allowedAddresses = allowedAddresses.stream()
+                .map(String::trim)
+                .filter(a -> !a.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toList();
+        this.adminUserIds = adminUserIds;
+    }
+
+    // address: the peer's, userId: null when not authenticated
+    public boolean allows(String address, String userId) {
+
+        if (userId != null && adminUserIds.contains(userId)) return true;
+
+        if (address == null) return false;
+
+        for (IpAddressMatcher matcher : allowedAddresses) {
+            if (matcher.matches(address)) return true;
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,52 @@
+package com.moneymanager.backend.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+
+// Reactive counterpart of JwtAuthenticationFilter. Not a @Component:
+// WebFlux would otherwise also run it outside the security chain.
+public class JwtAuthenticationWebFilter implements WebFilter {
+
+    private final JwtService jwtService;
+
+    public JwtAuthenticationWebFilter(JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+
+        String authHeader = exchange.getRequest()
+                .getHeaders()
+                .getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        // HMAC check is CPU-only and cached, fine on the event loop
+        String userId = jwtService.resolveUserId(authHeader.substring(7));
+
+        if (userId == null) {
+            return chain.filter(exchange);
+        }
+
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(
+                        userId,
+                        null,
+                        Collections.emptyList()
+                );
+
+        return chain.filter(exchange).contextWrite(
+                ReactiveSecurityContextHolder.withAuthentication(authentication)
+        );
+    }
+}
@@ -1,6 +1,14 @@
 package com.moneymanager.backend.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -10,21 +18,44 @@ import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private static final int MAX_CACHED_TOKENS = 10_000;
 
-    @Value("${jwt.expiry}")
-    private long expiry;
+    private final long expiry;
 
-    // =========================
-    // SIGNING KEY
-    // =========================
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    // built once, both are immutable and thread-safe
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    // token -> claims that already passed signature verification,
+    // each dropped when its token expires
+    private final Cache<String, Claims> verified = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_TOKENS)
+            .expireAfter(new UntilTokenExpires())
+            .build();
+
+    private final Timer verifyTimer;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+
+    public JwtService(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.expiry}") long expiry,
+                      MeterRegistry registry) {
+        this.expiry = expiry;
+        this.verifyTimer = Timer.builder("moneymanager.jwt.verify")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.cacheHits = registry.counter("moneymanager.jwt.cache", "result", "hit");
+        this.cacheMisses = registry.counter("moneymanager.jwt.cache", "result", "miss");
+        this.signingKey =
+                Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     // =========================
@@ -38,7 +69,7 @@ public class JwtService {
                 .setExpiration(
                         new Date(System.currentTimeMillis() + expiry)
                 )
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -47,11 +78,25 @@ public class JwtService {
     // =========================
     private Claims extractAllClaims(String token) {
 
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = verified.getIfPresent(token);
+
+        if (claims != null) {
+            cacheHits.increment();
+            return claims;
+        }
+
+        cacheMisses.increment();
+
+        // throws for bad signature or expired token
+        claims = verifyTimer.record(
+                () -> parser.parseClaimsJws(token).getBody()
+        );
+
+        if (claims.getExpiration() != null) {
+            verified.put(token, claims);
+        }
+
+        return claims;
     }
 
     // =========================
@@ -62,15 +107,37 @@ public class JwtService {
     }
 
     // =========================
-    // VALIDATE TOKEN
+    // VERIFY + EXTRACT USER ID
+    // null when the token is not valid
     // =========================
-    public boolean isTokenValid(String token) {
+    public String resolveUserId(String token) {
 
         try {
-            extractAllClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            return extractUserId(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // expire-after-write at the token's own exp
+    private static class UntilTokenExpires implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            long left = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, left));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Claims claims,
+                                      long currentTime, long currentDuration) {
+            return expireAfterCreate(token, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, Claims claims,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
 }
@@ -1,23 +1,46 @@
 package com.moneymanager.backend.service;
 
+import com.moneymanager.backend.config.CacheConfig;
+import com.moneymanager.backend.event.AccountsChangedEvent;
 import com.moneymanager.backend.model.Account;
+import com.moneymanager.backend.model.Direction;
 import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.TransactionType;
+import com.moneymanager.backend.repository.AccountBalanceOperations;
 import com.moneymanager.backend.repository.AccountRepository;
+import com.moneymanager.backend.repository.MongoUnitOfWork;
 import com.moneymanager.backend.repository.TransactionRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 
 @Service
+@Timed(value = "moneymanager.service", histogram = true)
 public class AccountService {
 
     private final AccountRepository repository;
     private final TransactionRepository transactionRepo;
-
-
-    public AccountService(AccountRepository repository, TransactionRepository transactionRepo) {
+    private final AccountBalanceOperations balanceOps;
+    private final RollupService rollups;
+    private final ApplicationEventPublisher events;
+    private final MongoUnitOfWork unitOfWork;
+
+
+    public AccountService(AccountRepository repository,
+                          TransactionRepository transactionRepo,
+                          AccountBalanceOperations balanceOps,
+                          RollupService rollups,
+                          ApplicationEventPublisher events,
+                          MongoUnitOfWork unitOfWork) {
         this.repository = repository;
         this.transactionRepo = transactionRepo;
+        this.balanceOps = balanceOps;
+        this.rollups = rollups;
+        this.events = events;
+        this.unitOfWork = unitOfWork;
     }
 
     public Account create(String userId, String name) {
@@ -27,9 +50,12 @@ public class AccountService {
         acc.setName(name);
         acc.setBalance(0);
 
-        return repository.save(acc);
+        Account saved = repository.save(acc);
+        events.publishEvent(new AccountsChangedEvent(userId));
+        return saved;
     }
 
+    @Cacheable(cacheNames = CacheConfig.ACCOUNTS, key = "#userId")
     public List<Account> getUserAccounts(String userId) {
         return repository.findByUserId(userId);
     }
@@ -37,7 +63,30 @@ public class AccountService {
     public void transfer(String userId,
                          String fromId,
                          String toId,
-                         double amount) {
+                         long amount) {
+        transfer(userId, fromId, toId, amount, () -> { });
+    }
+
+    // committed runs inside the unit of work, after both legs
+    public void transfer(String userId,
+                         String fromId,
+                         String toId,
+                         long amount,
+                         Runnable committed) {
+
+        // both balances, both legs and the rollups commit together
+        unitOfWork.run(() -> {
+            applyTransfer(userId, fromId, toId, amount);
+            committed.run();
+        });
+
+        events.publishEvent(new AccountsChangedEvent(userId));
+    }
+
+    private void applyTransfer(String userId,
+                               String fromId,
+                               String toId,
+                               long amount) {
 
         String groupId = java.util.UUID.randomUUID().toString();
         Account from = repository.findById(fromId)
@@ -51,22 +100,15 @@ public class AccountService {
             throw new RuntimeException("Unauthorized");
         }
 
-        if (from.getBalance() < amount) {
-            throw new RuntimeException("Insufficient balance");
-        }
-
-        // update balances
-        from.setBalance(from.getBalance() - amount);
-        to.setBalance(to.getBalance() + amount);
-
-        repository.save(from);
-        repository.save(to);
+        // update balances, debit only while balance >= amount
+        balanceOps.debit(userId, fromId, amount);
+        balanceOps.credit(userId, toId, amount);
 
         // transfer OUT
         Transaction outTx = new Transaction(
                 userId,
-                "transfer",
-                "OUT",
+                TransactionType.TRANSFER,
+                Direction.OUT,
                 amount,
                 "Transfer",
                 "Transfer to " + to.getName(),
@@ -76,8 +118,8 @@ public class AccountService {
         // transfer IN
         Transaction inTx = new Transaction(
                 userId,
-                "transfer",
-                "IN",
+                TransactionType.TRANSFER,
+                Direction.IN,
                 amount,
                 "Transfer",
                 "Transfer from " + from.getName(),
@@ -86,8 +128,10 @@ public class AccountService {
         outTx.setGroupId(groupId);
         inTx.setGroupId(groupId);
 
-        transactionRepo.save(outTx);
-        transactionRepo.save(inTx);
+        // both legs are new, so this is a single insertMany
+        RollupDelta delta = rollups.delta();
+        delta.write(userId, () -> transactionRepo.saveAll(List.of(outTx, inTx)));
+        delta.add(outTx).add(inTx).flush();
     }
 
 }
@@ -0,0 +1,260 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.model.BucketEntry;
+import com.moneymanager.backend.model.Direction;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.TransactionBucket;
+import com.moneymanager.backend.model.TransactionType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// One document per user / account / month (TransactionBucket). A range
+// reads at most one bucket per account per month: months fully inside
+// the range are summed from bucket totals without loading items, only
+// the two edge months are filtered item by item.
+@Service
+@ConditionalOnProperty(name = "transactions.layout", havingValue = "bucketed")
+public class BucketedTransactionStore implements TransactionStore {
+
+    private final MongoTemplate mongoTemplate;
+    private final CategoryDictionaryService categories;
+
+    public BucketedTransactionStore(MongoTemplate mongoTemplate,
+                                    CategoryDictionaryService categories) {
+        this.mongoTemplate = mongoTemplate;
+        this.categories = categories;
+    }
+
+    // =========================
+    // READS
+    // =========================
+    @Override
+    public Map<String, Long> sumAmountByType(String userId, LocalDateTime from, LocalDateTime to) {
+
+        long[] sums = new long[3];   // income, expense, transfer
+
+        for (TransactionBucket b : headers(userId, from, to)) {
+
+            if (covers(b, from, to)) {
+                sums[0] += b.getIncome();
+                sums[1] += b.getExpense();
+                sums[2] += b.getTransferIn() + b.getTransferOut();
+                continue;
+            }
+
+            for (BucketEntry e : items(b.getId())) {
+                if (inRange(e, from, to)) {
+                    sums[e.getType().ordinal()] += e.getAmount();
+                }
+            }
+        }
+
+        // same shape as the flat $group: only types that occur
+        Map<String, Long> result = new HashMap<>();
+        for (TransactionType type : TransactionType.values()) {
+            if (sums[type.ordinal()] != 0) {
+                result.put(type.value(), sums[type.ordinal()]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> sumExpenseByCategory(String userId, LocalDateTime from, LocalDateTime to) {
+
+        Map<Integer, long[]> byId = new HashMap<>();
+
+        for (TransactionBucket b : headers(userId, from, to)) {
+
+            if (covers(b, from, to)) {
+                b.getCategories().forEach((id, total) -> byId
+                        .computeIfAbsent(Integer.valueOf(id), k -> new long[1])[0] += total);
+                continue;
+            }
+
+            for (BucketEntry e : items(b.getId())) {
+                if (e.getType() == TransactionType.EXPENSE
+                        && e.getCategoryId() != null
+                        && inRange(e, from, to)) {
+                    byId.computeIfAbsent(e.getCategoryId(), k -> new long[1])[0] += e.getAmount();
+                }
+            }
+        }
+
+        Map<String, Long> result = new HashMap<>();
+        byId.forEach((id, total) -> {
+            if (total[0] != 0) {
+                result.put(categories.nameOf(userId, id), total[0]);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public List<Transaction> findBetween(String userId, LocalDateTime from, LocalDateTime to) {
+
+        List<Transaction> result = new ArrayList<>();
+
+        for (TransactionBucket b : mongoTemplate.find(
+                bucketsIn(userId, from, to), TransactionBucket.class)) {
+
+            for (BucketEntry e : b.getItems()) {
+                if (inRange(e, from, to)) {
+                    result.add(toTransaction(b, e));
+                }
+            }
+        }
+
+        // buckets are per account, interleave them by time
+        result.sort(Comparator.comparing(Transaction::getCreatedAt));
+        return result;
+    }
+
+    // =========================
+    // WRITES
+    // =========================
+    @Override
+    public boolean tracksWrites() {
+        return true;
+    }
+
+    @Override
+    public void apply(List<BucketEntry> removed, List<BucketEntry> added) {
+
+        if (removed.isEmpty() && added.isEmpty()) return;
+
+        // written before categoryId existed
+        removed.forEach(this::resolveCategory);
+        added.forEach(this::resolveCategory);
+
+        // ordered: an update pulls the old item before pushing the new
+        // one, and both can hit the same bucket
+        BulkOperations bulk = mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.ORDERED,
+                TransactionBucket.class
+        );
+
+        for (BucketEntry e : removed) {
+            bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(bucketId(e))
+                            .and("items.i").is(e.getId())),
+                    totals(new Update(), e, -1)
+                            .pull("items", Query.query(Criteria.where("i").is(e.getId())))
+            );
+        }
+
+        for (BucketEntry e : added) {
+            bulk.upsert(
+                    Query.query(Criteria.where("_id").is(bucketId(e))),
+                    totals(new Update(), e, 1)
+                            .setOnInsert("userId", e.getUserId())
+                            .setOnInsert("accountId", e.getAccountId())
+                            .setOnInsert("start", TransactionBucket.startOf(e.getCreatedAt()))
+                            .push("items", e)
+            );
+        }
+
+        bulk.execute();
+    }
+
+    static Update totals(Update update, BucketEntry e, int sign) {
+
+        long amount = sign * e.getAmount();
+
+        String field = switch (e.getType()) {
+            case INCOME -> "income";
+            case EXPENSE -> "expense";
+            case TRANSFER -> e.getDirection() == Direction.OUT
+                    ? "transferOut"
+                    : "transferIn";
+        };
+
+        update.inc(field, amount).inc("count", sign);
+
+        if (e.getType() == TransactionType.EXPENSE && e.getCategoryId() != null) {
+            update.inc("categories." + e.getCategoryId(), amount);
+        }
+
+        return update;
+    }
+
+    // =========================
+    // HELPERS
+    // =========================
+    private void resolveCategory(BucketEntry e) {
+        if (e.getCategoryId() == null && e.getCategory() != null) {
+            e.setCategoryId(categories.idOf(e.getUserId(), e.getCategory()));
+        }
+    }
+
+    private static String bucketId(BucketEntry e) {
+        return TransactionBucket.idOf(
+                e.getUserId(),
+                e.getAccountId(),
+                YearMonth.from(e.getCreatedAt())
+        );
+    }
+
+    private Query bucketsIn(String userId, LocalDateTime from, LocalDateTime to) {
+        return Query.query(Criteria.where("userId").is(userId)
+                        .and("start").gte(TransactionBucket.startOf(from)).lt(to))
+                .with(Sort.by(Sort.Direction.ASC, "start"));
+    }
+
+    // bucket totals only, items stay on the server
+    private List<TransactionBucket> headers(String userId, LocalDateTime from, LocalDateTime to) {
+        Query query = bucketsIn(userId, from, to);
+        query.fields().exclude("items");
+        return mongoTemplate.find(query, TransactionBucket.class);
+    }
+
+    private List<BucketEntry> items(String bucketId) {
+        Query query = Query.query(Criteria.where("_id").is(bucketId));
+        query.fields().include("items");
+        TransactionBucket b = mongoTemplate.findOne(query, TransactionBucket.class);
+        return b == null ? List.of() : b.getItems();
+    }
+
+    private static boolean covers(TransactionBucket b, LocalDateTime from, LocalDateTime to) {
+        return !b.getStart().isBefore(from)
+                && !b.getStart().plusMonths(1).isAfter(to);
+    }
+
+    private static boolean inRange(BucketEntry e, LocalDateTime from, LocalDateTime to) {
+        return !e.getCreatedAt().isBefore(from) && e.getCreatedAt().isBefore(to);
+    }
+
+    private Transaction toTransaction(TransactionBucket b, BucketEntry e) {
+
+        Transaction tx = new Transaction();
+        tx.setId(e.getId());
+        tx.setUserId(b.getUserId());
+        tx.setAccountId(b.getAccountId());
+        tx.setType(e.getType());
+        tx.setDirection(e.getDirection());
+        tx.setAmount(e.getAmount());
+        tx.setCategoryId(e.getCategoryId());
+        tx.setCategory(e.getCategoryId() == null
+                ? null
+                : categories.nameOf(b.getUserId(), e.getCategoryId()));
+        tx.setDescription(e.getDescription());
+        tx.setCreatedAt(e.getCreatedAt());
+        tx.setGroupId(e.getGroupId());
+        tx.setDivision(e.getDivision());
+        return tx;
+    }
+}
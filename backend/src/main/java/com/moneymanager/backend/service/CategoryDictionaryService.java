@@ -0,0 +1,104 @@
+package com.moneymanager.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moneymanager.backend.model.CategoryDictionary;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Maps a user's category names to small int ids (Transaction.categoryId),
+// so aggregation can index long[] arrays instead of hashing strings.
+@Service
+public class CategoryDictionaryService {
+
+    private final MongoTemplate mongoTemplate;
+
+    // dictionaries only grow, so a cached snapshot is never wrong,
+    // it can only be missing a name (which triggers a reload)
+    private final Cache<String, Snapshot> snapshots = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+
+    public CategoryDictionaryService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // null for a null category
+    public Integer idOf(String userId, String category) {
+
+        if (category == null) return null;
+
+        Integer id = snapshot(userId).ids.get(category);
+        if (id != null) return id;
+
+        append(userId, category);
+        return load(userId).ids.get(category);
+    }
+
+    public String nameOf(String userId, int categoryId) {
+
+        List<String> names = snapshot(userId).names;
+
+        if (categoryId >= names.size()) {
+            names = load(userId).names;
+        }
+
+        return names.get(categoryId);
+    }
+
+    private Snapshot snapshot(String userId) {
+        return snapshots.get(userId, this::read);
+    }
+
+    private Snapshot load(String userId) {
+        Snapshot snapshot = read(userId);
+        snapshots.put(userId, snapshot);
+        return snapshot;
+    }
+
+    private Snapshot read(String userId) {
+
+        CategoryDictionary dictionary =
+                mongoTemplate.findById(userId, CategoryDictionary.class);
+
+        return new Snapshot(dictionary == null
+                ? List.of()
+                : dictionary.getCategories());
+    }
+
+    // $push only if absent; concurrent appends of the same name are
+    // serialised by the document, so ids stay unique
+    private void append(String userId, String category) {
+        try {
+            mongoTemplate.upsert(
+                    Query.query(Criteria.where("_id").is(userId)
+                            .and("categories").ne(category)),
+                    new Update().push("categories", category),
+                    CategoryDictionary.class
+            );
+        } catch (DuplicateKeyException e) {
+            // document exists and already holds the name
+        }
+    }
+
+    private static class Snapshot {
+
+        private final List<String> names;
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        Snapshot(List<String> names) {
+            this.names = List.copyOf(names);
+            for (int i = 0; i < names.size(); i++) {
+                ids.put(names.get(i), i);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.model.BucketEntry;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.repository.TransactionRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// One document per transaction, ranges served by the
+// user_created_id_live index. Ranges reaching before the archive boundary
+// also read transactions_archive.
+@Service
+@ConditionalOnProperty(name = "transactions.layout", havingValue = "flat", matchIfMissing = true)
+public class FlatTransactionStore implements TransactionStore {
+
+    private final TransactionRepository repo;
+    private final TransactionArchiveService archive;
+
+    public FlatTransactionStore(TransactionRepository repo,
+                                TransactionArchiveService archive) {
+        this.repo = repo;
+        this.archive = archive;
+    }
+
+    @Override
+    public Map<String, Long> sumAmountByType(String userId, LocalDateTime from, LocalDateTime to) {
+        return merge(
+                repo.sumAmountByType(userId, from, to),
+                archive.sumAmountByType(userId, from, to)
+        );
+    }
+
+    @Override
+    public Map<String, Long> sumExpenseByCategory(String userId, LocalDateTime from, LocalDateTime to) {
+        return merge(
+                repo.sumExpenseByCategory(userId, from, to),
+                archive.sumExpenseByCategory(userId, from, to)
+        );
+    }
+
+    @Override
+    public List<Transaction> findBetween(String userId, LocalDateTime from, LocalDateTime to) {
+
+        List<Transaction> hot = repo.findByUserIdAndDeletedFalseAndCreatedAtBetween(
+                userId,
+                Range.rightOpen(from, to),
+                Sort.by(Sort.Direction.ASC, "createdAt")
+        );
+
+        List<Transaction> cold = archive.findBetween(userId, from, to);
+        if (cold.isEmpty()) return hot;
+
+        // restored trash can be older than the boundary, so sort again
+        List<Transaction> all = new ArrayList<>(cold.size() + hot.size());
+        all.addAll(cold);
+        all.addAll(hot);
+        all.sort(Comparator.comparing(Transaction::getCreatedAt));
+        return all;
+    }
+
+    @Override
+    public boolean tracksWrites() {
+        return false;
+    }
+
+    @Override
+    public void apply(List<BucketEntry> removed, List<BucketEntry> added) {
+        // nothing beyond the transactions collection
+    }
+
+    private static Map<String, Long> merge(Map<String, Long> hot, Map<String, Long> cold) {
+
+        if (cold.isEmpty()) return hot;
+
+        Map<String, Long> all = new HashMap<>(hot);
+        cold.forEach((key, total) -> all.merge(key, total, Long::sum));
+        return all;
+    }
+}
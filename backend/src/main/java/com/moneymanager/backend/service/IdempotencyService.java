@@ -0,0 +1,382 @@
+package com.moneymanager.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moneymanager.backend.model.IdempotencyRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Runs a write at most once per (user, Idempotency-Key). The first
+// request executes and stores its response in idempotency_keys; a retry
+// with the same key gets that response back without touching balances.
+//
+// The request that owns a key holds it with an owner token and renews
+// lockedUntil while it runs (heartbeat). The work is handed a callback
+// that marks the key completed; services call it inside their
+// MongoUnitOfWork, so the response commits with the write. If a retry
+// took the key over meanwhile, completing throws and the unit of work
+// rolls back. Without mongo.transactions.enabled the two writes are
+// still separate, as everywhere else on the write path.
+//
+// Duplicates arriving on this instance while the first one is still
+// running wait on the same future (front cache); duplicates on another
+// instance poll the record until it completes. Both give up after
+// wait-ms. A failed request releases its key, nothing was committed so
+// the retry may run again.
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_MS = 50;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lock;
+    private final long waitMs;
+
+    // completed responses stay here until they would expire anyway
+    private final Cache<String, CompletableFuture<Stored>> front;
+
+    private final Counter replayed;
+    private final Counter coalesced;
+
+    // renews lockedUntil of the keys this instance is running
+    private final ScheduledExecutorService heartbeat =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "idempotency-heartbeat");
+                t.setDaemon(true);
+                return t;
+            });
+
+    public IdempotencyService(MongoTemplate mongoTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.ttl-hours}") long ttlHours,
+                              @Value("${idempotency.lock-seconds}") long lockSeconds,
+                              @Value("${idempotency.wait-ms}") long waitMs,
+                              MeterRegistry registry) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.lock = Duration.ofSeconds(lockSeconds);
+        this.waitMs = waitMs;
+
+        this.front = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(ttl)
+                .build();
+
+        this.replayed = Counter.builder("moneymanager.idempotency.replayed")
+                .register(registry);
+        this.coalesced = Counter.builder("moneymanager.idempotency.coalesced")
+                .register(registry);
+    }
+
+    // no key: plain call, clients that never retry pay nothing.
+    // work gets the completion callback, to be called with the result
+    // inside its unit of work
+    public <T> T run(String userId,
+                     String key,
+                     String operation,
+                     Object request,
+                     Class<T> responseType,
+                     Function<Consumer<T>, T> work) {
+
+        if (key == null || key.isBlank()) {
+            return work.apply(result -> { });
+        }
+
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Invalid Idempotency-Key");
+        }
+
+        String id = IdempotencyRecord.idOf(userId, key);
+        String fingerprint = fingerprint(operation, request);
+
+        CompletableFuture<Stored> mine = new CompletableFuture<>();
+        CompletableFuture<Stored> first = front.asMap().putIfAbsent(id, mine);
+
+        if (first != null) {
+            coalesced.increment();
+            return replay(await(first), fingerprint, responseType);
+        }
+
+        try {
+            String owner = UUID.randomUUID().toString();
+            Stored stored = claim(id, userId, fingerprint, owner);
+
+            if (stored != null) {
+                mine.complete(stored);
+                return replay(stored, fingerprint, responseType);
+            }
+
+            Stored[] done = new Stored[1];
+            T result = execute(id, owner, work, r -> {
+                String response = write(r);
+                complete(id, owner, response);
+                done[0] = new Stored(fingerprint, response);
+            });
+
+            // work that has no unit of work of its own never called back
+            if (done[0] == null) {
+                String response = write(result);
+                complete(id, owner, response);
+                done[0] = new Stored(fingerprint, response);
+            }
+
+            mine.complete(done[0]);
+            return result;
+
+        } catch (RuntimeException e) {
+            // waiters get the same error, the next retry starts over
+            front.asMap().remove(id, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeat.shutdownNow();
+    }
+
+    // =========================
+    // MONGO RECORD
+    // =========================
+
+    // null when this request owns the key and must run, otherwise the
+    // response of the request that did
+    private Stored claim(String id, String userId, String fingerprint, String owner) {
+
+        long deadline = System.currentTimeMillis() + waitMs;
+
+        while (true) {
+
+            Instant now = Instant.now();
+
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setId(id);
+            record.setUserId(userId);
+            record.setFingerprint(fingerprint);
+            record.setOwner(owner);
+            record.setLockedUntil(now.plus(lock));
+            record.setExpiresAt(now.plus(ttl));
+
+            try {
+                mongoTemplate.insert(record);
+                return null;
+            } catch (DuplicateKeyException e) {
+                // someone else has (or had) it
+            }
+
+            IdempotencyRecord existing =
+                    mongoTemplate.findById(id, IdempotencyRecord.class);
+
+            // released by a failed request in between, try again
+            if (existing == null) continue;
+
+            if (!existing.getFingerprint().equals(fingerprint)) {
+                throw new RuntimeException(
+                        "Idempotency-Key was already used for a different request");
+            }
+
+            if (existing.isCompleted()) {
+                return new Stored(existing.getFingerprint(), existing.getResponse());
+            }
+
+            // the owner stopped renewing (died mid-request); take over
+            // unless another retry got there first
+            if (existing.getLockedUntil().isBefore(now)
+                    && takeOver(existing, owner, now)) {
+                return null;
+            }
+
+            if (System.currentTimeMillis() > deadline) {
+                throw inProgress();
+            }
+
+            pause();
+        }
+    }
+
+    // the new owner token fences the old one out of complete()
+    private boolean takeOver(IdempotencyRecord stale, String owner, Instant now) {
+
+        return mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(stale.getId())
+                        .and("completed").is(false)
+                        .and("lockedUntil").is(stale.getLockedUntil())),
+                new Update()
+                        .set("owner", owner)
+                        .set("lockedUntil", now.plus(lock)),
+                IdempotencyRecord.class
+        ).getModifiedCount() > 0;
+    }
+
+    private <T> T execute(String id,
+                          String owner,
+                          Function<Consumer<T>, T> work,
+                          Consumer<T> complete) {
+
+        long every = Math.max(1, lock.toMillis() / 3);
+        ScheduledFuture<?> renewal = heartbeat.scheduleAtFixedRate(
+                () -> renew(id, owner), every, every, TimeUnit.MILLISECONDS);
+
+        try {
+            return work.apply(complete);
+        } catch (RuntimeException e) {
+            mongoTemplate.remove(
+                    Query.query(Criteria.where("_id").is(id)
+                            .and("owner").is(owner)
+                            .and("completed").is(false)),
+                    IdempotencyRecord.class
+            );
+            throw e;
+        } finally {
+            renewal.cancel(false);
+        }
+    }
+
+    private void renew(String id, String owner) {
+        try {
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(id)
+                            .and("owner").is(owner)
+                            .and("completed").is(false)),
+                    Update.update("lockedUntil", Instant.now().plus(lock)),
+                    IdempotencyRecord.class
+            );
+        } catch (RuntimeException e) {
+            // next beat tries again; a lapsed lock only allows a takeover
+        }
+    }
+
+    // runs inside the caller's unit of work, with the business write
+    private void complete(String id, String owner, String response) {
+
+        boolean mine = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(id)
+                        .and("owner").is(owner)
+                        .and("completed").is(false)),
+                new Update()
+                        .set("completed", true)
+                        .set("response", response)
+                        .set("expiresAt", Instant.now().plus(ttl))
+                        .unset("lockedUntil"),
+                IdempotencyRecord.class
+        ).getMatchedCount() > 0;
+
+        // a retry took the key over; roll this write back
+        if (!mine) throw inProgress();
+    }
+
+    // =========================
+    // HELPERS
+    // =========================
+    private <T> T replay(Stored stored, String fingerprint, Class<T> responseType) {
+
+        if (!stored.fingerprint.equals(fingerprint)) {
+            throw new RuntimeException(
+                    "Idempotency-Key was already used for a different request");
+        }
+
+        replayed.increment();
+
+        if (stored.response == null) return null;
+
+        try {
+            return objectMapper.readValue(stored.response, responseType);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Stored response is unreadable");
+        }
+    }
+
+    private Stored await(CompletableFuture<Stored> first) {
+        try {
+            return first.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw inProgress();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted");
+        }
+    }
+
+    private static RuntimeException inProgress() {
+        return new RuntimeException(
+                "A request with this Idempotency-Key is still in progress");
+    }
+
+    private String write(Object result) {
+
+        if (result == null) return null;
+
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Response is not serializable");
+        }
+    }
+
+    // same key with another body is a client bug, not a retry
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(operation.getBytes(StandardCharsets.UTF_8));
+            sha.update(objectMapper.writeValueAsBytes(request));
+            return Base64.getEncoder().encodeToString(sha.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new RuntimeException("Request is not serializable");
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(POLL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted");
+        }
+    }
+
+    private static class Stored {
+
+        private final String fingerprint;
+        private final String response;
+
+        Stored(String fingerprint, String response) {
+            this.fingerprint = fingerprint;
+            this.response = response;
+        }
+    }
+}
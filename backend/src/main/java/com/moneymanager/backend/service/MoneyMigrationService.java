@@ -0,0 +1,131 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.model.Account;
+import com.moneymanager.backend.model.Money;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.UserRollup;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Converts amounts stored as BSON doubles (12.34) to int64 minor units
+// (1234). Runs before the web server starts, because reading an old
+// double into a long field would silently truncate it. Rollups are
+// derived data, so they are marked unbuilt and rebuilt on first read.
+@Service
+public class MoneyMigrationService implements InitializingBean {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(MoneyMigrationService.class);
+
+    private static final String MIGRATIONS = "migrations";
+    private static final String MIGRATION_ID = "money-minor-units";
+
+    private static final int BSON_DOUBLE = 1;
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+    private final boolean onStartup;
+
+    public MoneyMigrationService(MongoTemplate mongoTemplate,
+                                 @Value("${money.migration.batch-size}") int batchSize,
+                                 @Value("${money.migration.on-startup}") boolean onStartup) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+        this.onStartup = onStartup;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+
+        if (!onStartup) return;
+
+        boolean done = mongoTemplate.exists(
+                Query.query(Criteria.where("_id").is(MIGRATION_ID)),
+                MIGRATIONS
+        );
+
+        if (!done) migrate();
+    }
+
+    // safe to re-run, e.g. after old instances kept writing doubles
+    // during a rolling deploy
+    public Map<String, Long> migrate() {
+
+        Map<String, Long> converted = new LinkedHashMap<>();
+        converted.put("transactions", convert(Transaction.class, "amount"));
+        converted.put("accounts", convert(Account.class, "balance"));
+
+        // rollup sums were doubles too; mark every user's rollups
+        // unbuilt rather than deleting them, so the first read rebuilds
+        // under RollupService's fence and deltas written before that
+        // are never taken as totals
+        if (converted.values().stream().anyMatch(n -> n > 0)) {
+            mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("scope").is(UserRollup.TOTAL)),
+                    Update.update("built", false),
+                    UserRollup.class
+            );
+        }
+
+        mongoTemplate.upsert(
+                Query.query(Criteria.where("_id").is(MIGRATION_ID)),
+                Update.update("completedAt", LocalDateTime.now()),
+                MIGRATIONS
+        );
+
+        log.info("Money migration converted {}", converted);
+        return converted;
+    }
+
+    private long convert(Class<?> entity, String field) {
+
+        // only rows still holding a double; converted ones drop out,
+        // so every pass reads the next batch from the start
+        Query batch = Query.query(Criteria.where(field).type(BSON_DOUBLE))
+                .limit(batchSize);
+        batch.fields().include(field);
+
+        long converted = 0;
+
+        while (true) {
+
+            List<Document> rows = mongoTemplate.find(
+                    batch, Document.class, mongoTemplate.getCollectionName(entity)
+            );
+
+            if (rows.isEmpty()) return converted;
+
+            BulkOperations bulk = mongoTemplate.bulkOps(
+                    BulkOperations.BulkMode.UNORDERED,
+                    entity
+            );
+
+            for (Document row : rows) {
+                double value = row.getDouble(field);
+
+                // the type guard keeps a concurrent run from converting twice
+                bulk.updateOne(
+                        Query.query(Criteria.where("_id").is(row.get("_id"))
+                                .and(field).type(BSON_DOUBLE)),
+                        Update.update(field, Money.fromDouble(value))
+                );
+            }
+
+            converted += bulk.execute().getModifiedCount();
+        }
+    }
+}
@@ -0,0 +1,674 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.event.TransactionsChangedEvent;
+import com.moneymanager.backend.model.ProjectionCheckpoint;
+import com.moneymanager.backend.model.RecentTransactions;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.UserRollup;
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Tails the change streams of transactions and accounts and keeps the
+// read models up to date: user_rollups (daily / monthly / yearly /
+// category / account totals) and recent_transactions. Only active with
+// projection.mode=changestream, which needs a replica set (a single
+// node one is enough) on MongoDB 6.0+ for pre-images.
+//
+// Each batch of events, its read model writes and the resume token
+// commit in one Mongo transaction, so a crash or a retried batch never
+// applies an event twice. One instance at a time holds the lease in
+// projection_checkpoints; the others wait and take over when it
+// expires.
+@Service
+@ConditionalOnProperty(name = "projection.mode", havingValue = ProjectionService.CHANGE_STREAM)
+public class ProjectionService implements SmartLifecycle {
+
+    public static final String CHANGE_STREAM = "changestream";
+
+    private static final Logger log =
+            LoggerFactory.getLogger(ProjectionService.class);
+
+    private static final String CHECKPOINT = "read-models";
+    private static final String TRANSACTIONS = "transactions";
+    private static final String ACCOUNTS = "accounts";
+
+    // ChangeStreamHistoryLost, the resume point left the oplog
+    private static final int HISTORY_LOST = 286;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoDatabaseFactory factory;
+    private final RollupService rollups;
+    private final RecentTransactionsService recent;
+    private final TransactionArchiveService archive;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final Duration lease;
+    private final String owner;
+
+    private final AtomicLong lagMs = new AtomicLong();
+    private final Counter applied;
+    private final Counter unresolved;
+    private final Counter rebuilds;
+
+    private final AtomicReference<CompletableFuture<Map<String, Long>>> pendingRebuild =
+            new AtomicReference<>();
+
+    private volatile boolean running;
+    private volatile boolean leader;
+    private volatile boolean historyLost;
+    private Thread worker;
+
+    public ProjectionService(MongoTemplate mongoTemplate,
+                             MongoDatabaseFactory factory,
+                             RollupService rollups,
+                             RecentTransactionsService recent,
+                             TransactionArchiveService archive,
+                             ApplicationEventPublisher events,
+                             @Value("${projection.batch-size}") int batchSize,
+                             @Value("${projection.lease-seconds}") long leaseSeconds,
+                             MeterRegistry registry) {
+        this.mongoTemplate = mongoTemplate;
+        this.factory = factory;
+        this.rollups = rollups;
+        this.recent = recent;
+        this.archive = archive;
+        this.events = events;
+        this.batchSize = batchSize;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.owner = ManagementFactory.getRuntimeMXBean().getName()
+                + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+        // own manager: batches are always transactional, whatever
+        // mongo.transactions.enabled says for the write path
+        this.transaction = new TransactionTemplate(new MongoTransactionManager(factory));
+
+        // time between a write and its projection; 0 when caught up
+        TimeGauge.builder("moneymanager.projection.lag", lagMs,
+                        TimeUnit.MILLISECONDS, AtomicLong::get)
+                .register(registry);
+        Gauge.builder("moneymanager.projection.leader", this, p -> p.leader ? 1 : 0)
+                .register(registry);
+
+        this.applied = Counter.builder("moneymanager.projection.events")
+                .register(registry);
+        this.unresolved = Counter.builder("moneymanager.projection.unresolved")
+                .register(registry);
+        this.rebuilds = Counter.builder("moneymanager.projection.rebuilds")
+                .register(registry);
+    }
+
+    // =========================
+    // LIFECYCLE
+    // =========================
+    @Override
+    public void start() {
+
+        enableDocumentImages(TRANSACTIONS);
+        enableDocumentImages(ACCOUNTS);
+
+        running = true;
+        worker = new Thread(this::loop, "projection");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+
+        running = false;
+
+        try {
+            worker.join(lease.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // hand over right away instead of waiting for the lease to expire
+        if (leader) {
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(CHECKPOINT)
+                            .and("owner").is(owner)),
+                    new Update().set("leaseUntil", Instant.EPOCH),
+                    ProjectionCheckpoint.class
+            );
+            leader = false;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // =========================
+    // ADMIN
+    // =========================
+    public Map<String, Object> status() {
+
+        ProjectionCheckpoint checkpoint =
+                mongoTemplate.findById(CHECKPOINT, ProjectionCheckpoint.class);
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("instance", owner);
+        status.put("leader", leader);
+        status.put("lagMs", lagMs.get());
+
+        if (checkpoint != null) {
+            status.put("owner", checkpoint.getOwner());
+            status.put("leaseUntil", checkpoint.getLeaseUntil());
+            status.put("lastEventAt", checkpoint.getLastEventAt());
+        }
+
+        return status;
+    }
+
+    // runs on the projection thread between two batches
+    public Map<String, Long> rebuild() {
+
+        if (!leader) {
+            throw new RuntimeException("Projection is owned by another instance");
+        }
+
+        CompletableFuture<Map<String, Long>> request = new CompletableFuture<>();
+        if (!pendingRebuild.compareAndSet(null, request)) {
+            throw new RuntimeException("Projection rebuild already running");
+        }
+
+        try {
+            return request.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new RuntimeException("Projection rebuild failed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted");
+        }
+    }
+
+    // =========================
+    // STREAM
+    // =========================
+    private void loop() {
+
+        while (running) {
+            try {
+                if (claimLease()) {
+                    follow();
+                } else {
+                    fail(pendingRebuild.getAndSet(null),
+                            new RuntimeException("Projection is owned by another instance"));
+                    pause(lease.toMillis() / 2);
+                }
+            } catch (RuntimeException e) {
+
+                if (!running) break;
+
+                if (isHistoryLost(e)) {
+                    log.warn("Projection resume point is gone, rebuilding");
+                    historyLost = true;
+                } else {
+                    log.error("Projection failed, resuming from the checkpoint", e);
+                }
+
+                fail(pendingRebuild.getAndSet(null), e);
+                pause(1000);
+            }
+        }
+    }
+
+    private void follow() {
+
+        CompletableFuture<Map<String, Long>> request = pendingRebuild.getAndSet(null);
+        ProjectionCheckpoint checkpoint =
+                mongoTemplate.findById(CHECKPOINT, ProjectionCheckpoint.class);
+
+        boolean bootstrap = checkpoint == null
+                || (checkpoint.getResumeToken() == null && checkpoint.getClusterTime() == 0);
+
+        if (request != null || bootstrap || historyLost) {
+            try {
+                Map<String, Long> result = rebuildFromSnapshot();
+                historyLost = false;
+                if (request != null) request.complete(result);
+            } catch (RuntimeException e) {
+                fail(request, e);
+                throw e;
+            }
+            checkpoint = mongoTemplate.findById(CHECKPOINT, ProjectionCheckpoint.class);
+        }
+
+        Instant renewAt = Instant.now().plus(lease.dividedBy(2));
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor =
+                     open(checkpoint)) {
+
+            while (running && pendingRebuild.get() == null) {
+
+                // blocks for at most maxAwaitTime
+                ChangeStreamDocument<Document> first = cursor.tryNext();
+
+                if (first == null) {
+                    lagMs.set(0);
+                    if (Instant.now().isAfter(renewAt)) {
+                        renewLease(cursor.getResumeToken());
+                        renewAt = Instant.now().plus(lease.dividedBy(2));
+                    }
+                    continue;
+                }
+
+                // whatever the last getMore already returned, capped
+                List<ChangeStreamDocument<Document>> batch = new ArrayList<>();
+                batch.add(first);
+                while (batch.size() < batchSize && cursor.available() > 0) {
+                    batch.add(cursor.tryNext());
+                }
+
+                apply(batch);
+                renewAt = Instant.now().plus(lease.dividedBy(2));
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open(
+            ProjectionCheckpoint checkpoint) {
+
+        ChangeStreamIterable<Document> stream = mongoTemplate.getDb()
+                .watch(List.of(Aggregates.match(Filters.and(
+                        Filters.in("ns.coll", TRANSACTIONS, ACCOUNTS),
+                        Filters.in("operationType", "insert", "update", "replace", "delete")
+                ))))
+                .fullDocument(FullDocument.WHEN_AVAILABLE)
+                .fullDocumentBeforeChange(FullDocumentBeforeChange.WHEN_AVAILABLE)
+                .batchSize(batchSize)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+
+        if (checkpoint.getResumeToken() != null) {
+            stream = stream.resumeAfter(BsonDocument.parse(checkpoint.getResumeToken()));
+        } else {
+            // right after a rebuild: everything past its snapshot
+            BsonTimestamp at = new BsonTimestamp(checkpoint.getClusterTime());
+            stream = stream.startAtOperationTime(
+                    new BsonTimestamp(at.getTime(), at.getInc() + 1));
+        }
+
+        return stream.cursor();
+    }
+
+    // =========================
+    // APPLY
+    // =========================
+    private void apply(List<ChangeStreamDocument<Document>> batch) {
+
+        ChangeStreamDocument<Document> last = batch.get(batch.size() - 1);
+        Set<String> totalsChanged = new LinkedHashSet<>();
+
+        transaction.executeWithoutResult(status -> {
+
+            totalsChanged.clear();
+            Set<String> touched = new LinkedHashSet<>();
+            RollupDelta delta = rollups.projectionDelta();
+
+            for (ChangeStreamDocument<Document> event : batch) {
+                if (TRANSACTIONS.equals(event.getNamespace().getCollectionName())) {
+                    String userId = projectTransaction(event, delta);
+                    if (userId != null) {
+                        touched.add(userId);
+                        totalsChanged.add(userId);
+                    }
+                } else {
+                    String userId = projectAccount(event);
+                    if (userId != null) touched.add(userId);
+                }
+            }
+
+            delta.flush();
+
+            // rebuilt rather than patched, so it is correct whatever
+            // was edited, deleted or renamed
+            for (String userId : touched) {
+                mongoTemplate.save(recent.compute(mongoTemplate, userId));
+            }
+
+            saveCheckpoint(last);
+        });
+
+        applied.increment(batch.size());
+
+        long eventMillis = last.getClusterTime().getTime() * 1000L;
+        lagMs.set(Math.max(0, System.currentTimeMillis() - eventMillis));
+
+        for (String userId : totalsChanged) {
+            events.publishEvent(new TransactionsChangedEvent(userId));
+        }
+    }
+
+    // old version out, new version in; soft deletes are updates
+    private String projectTransaction(ChangeStreamDocument<Document> event,
+                                      RollupDelta delta) {
+
+        OperationType op = event.getOperationType();
+
+        // Rows only leave the collection through the trash purge or the
+        // archive mover (TransactionArchiveService); archived rows still
+        // count, so neither changes a read model.
+        if (op == OperationType.DELETE) return null;
+
+        Transaction before = read(event.getFullDocumentBeforeChange());
+        Transaction after = read(event.getFullDocument());
+
+        // images are missing for writes made before they were enabled
+        // or once they expire; verify / rebuild fixes the totals
+        if ((op != OperationType.INSERT && before == null) || after == null) {
+            unresolved.increment();
+            log.warn("Projection skipped {} of transaction {}: no document image",
+                    op, event.getDocumentKey());
+            return null;
+        }
+
+        // moved back for a delete; its archived copy is already counted
+        if (op == OperationType.INSERT && Boolean.TRUE.equals(after.getUnarchived())) {
+            return null;
+        }
+
+        boolean wasLive = before != null && !before.isDeleted();
+        boolean isLive = !after.isDeleted();
+
+        if (!wasLive && !isLive) return null;
+
+        if (wasLive) delta.remove(before);
+        if (isLive) delta.add(after);
+
+        return after.getUserId();
+    }
+
+    // only renames and deletes show up in the read models, balance
+    // updates (one per transaction) are ignored
+    private String projectAccount(ChangeStreamDocument<Document> event) {
+
+        OperationType op = event.getOperationType();
+
+        if (op == OperationType.INSERT) return null;
+
+        if (op == OperationType.UPDATE) {
+            UpdateDescription update = event.getUpdateDescription();
+            if (update == null || update.getUpdatedFields() == null
+                    || !update.getUpdatedFields().containsKey("name")) {
+                return null;
+            }
+        }
+
+        Document account = event.getFullDocument() != null
+                ? event.getFullDocument()
+                : event.getFullDocumentBeforeChange();
+
+        if (account == null) {
+            unresolved.increment();
+            return null;
+        }
+
+        return account.getString("userId");
+    }
+
+    private Transaction read(Document document) {
+        return document == null
+                ? null
+                : mongoTemplate.getConverter().read(Transaction.class, document);
+    }
+
+    // =========================
+    // REBUILD
+    // =========================
+
+    // Reads everything at one snapshot and resumes the stream right
+    // after it, so no event is missed or counted twice. The snapshot
+    // must finish within minSnapshotHistoryWindowInSeconds (300s by
+    // default) or the server drops it.
+    private Map<String, Long> rebuildFromSnapshot() {
+
+        long users = 0;
+        long rollupDocs = 0;
+
+        ClientSessionOptions options = ClientSessionOptions.builder()
+                .snapshot(true)
+                .build();
+
+        try (ClientSession session = factory.getSession(options)) {
+
+            MongoOperations snapshot = mongoTemplate.withSession(session);
+
+            // users with nothing live have no read models
+            Set<String> live = new LinkedHashSet<>(snapshot.findDistinct(
+                    Query.query(Criteria.where("deleted").is(false)),
+                    "userId", Transaction.class, String.class));
+            live.addAll(archive.userIds(snapshot));
+            List<String> userIds = new ArrayList<>(live);
+
+            BsonTimestamp at = session.getSnapshotTimestamp();
+            if (at == null) {
+                throw new RuntimeException("No snapshot time, is this a replica set?");
+            }
+
+            for (String userId : userIds) {
+
+                Map<String, UserRollup> expected = rollups.recompute(snapshot, userId);
+                RecentTransactions latest = recent.compute(snapshot, userId);
+
+                // one user at a time, readers never see all models gone
+                transaction.executeWithoutResult(status -> {
+                    mongoTemplate.remove(
+                            Query.query(Criteria.where("userId").is(userId)),
+                            UserRollup.class
+                    );
+                    mongoTemplate.insertAll(expected.values());
+                    mongoTemplate.save(latest);
+                });
+
+                events.publishEvent(new TransactionsChangedEvent(userId));
+                users++;
+                rollupDocs += expected.size();
+            }
+
+            // users whose transactions were all deleted
+            mongoTemplate.remove(
+                    Query.query(Criteria.where("userId").nin(userIds)),
+                    UserRollup.class
+            );
+            mongoTemplate.remove(
+                    Query.query(Criteria.where("_id").nin(userIds)),
+                    RecentTransactions.class
+            );
+
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(CHECKPOINT)
+                            .and("owner").is(owner)),
+                    new Update()
+                            .unset("resumeToken")
+                            .set("clusterTime", at.getValue())
+                            .set("lastEventAt", Instant.ofEpochSecond(at.getTime()))
+                            .set("leaseUntil", Instant.now().plus(lease)),
+                    ProjectionCheckpoint.class
+            );
+        }
+
+        rebuilds.increment();
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("users", users);
+        result.put("rollups", rollupDocs);
+
+        log.info("Projection rebuilt: {}", result);
+        return result;
+    }
+
+    // =========================
+    // CHECKPOINT / LEASE
+    // =========================
+    private void saveCheckpoint(ChangeStreamDocument<Document> last) {
+
+        BsonTimestamp at = last.getClusterTime();
+
+        boolean owned = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(CHECKPOINT)
+                        .and("owner").is(owner)),
+                new Update()
+                        .set("resumeToken", last.getResumeToken().toJson())
+                        .set("clusterTime", at.getValue())
+                        .set("lastEventAt", Instant.ofEpochSecond(at.getTime()))
+                        .set("leaseUntil", Instant.now().plus(lease)),
+                ProjectionCheckpoint.class
+        ).getMatchedCount() > 0;
+
+        // rolls the batch back, the new owner applies it
+        if (!owned) {
+            leader = false;
+            throw new RuntimeException("Projection lease lost");
+        }
+    }
+
+    private boolean claimLease() {
+
+        Instant now = Instant.now();
+
+        Query claimable = Query.query(Criteria.where("_id").is(CHECKPOINT)
+                .orOperator(
+                        Criteria.where("owner").is(owner),
+                        Criteria.where("leaseUntil").lt(now)
+                ));
+
+        try {
+            // inserts the checkpoint on first start, fails with a
+            // duplicate key while someone else holds the lease
+            mongoTemplate.upsert(
+                    claimable,
+                    new Update()
+                            .set("owner", owner)
+                            .set("leaseUntil", now.plus(lease)),
+                    ProjectionCheckpoint.class
+            );
+            if (!leader) log.info("Projection lease taken by {}", owner);
+            leader = true;
+        } catch (DuplicateKeyException e) {
+            leader = false;
+        }
+
+        return leader;
+    }
+
+    // idle streams move their resume token too, keeping it saved means
+    // a quiet system does not fall off the oplog
+    private void renewLease(BsonDocument resumeToken) {
+
+        Update update = new Update().set("leaseUntil", Instant.now().plus(lease));
+        if (resumeToken != null) {
+            update.set("resumeToken", resumeToken.toJson());
+        }
+
+        boolean owned = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(CHECKPOINT)
+                        .and("owner").is(owner)),
+                update,
+                ProjectionCheckpoint.class
+        ).getMatchedCount() > 0;
+
+        if (!owned) {
+            leader = false;
+            throw new RuntimeException("Projection lease lost");
+        }
+    }
+
+    // =========================
+    // HELPERS
+    // =========================
+
+    // pre-images for updates / deletes, post-images so an event carries
+    // the document as of that change rather than as of now
+    private void enableDocumentImages(String collection) {
+
+        if (!mongoTemplate.collectionExists(collection)) {
+            mongoTemplate.createCollection(collection);
+        }
+
+        try {
+            mongoTemplate.executeCommand(new Document("collMod", collection)
+                    .append("changeStreamPreAndPostImages",
+                            new Document("enabled", true)));
+        } catch (RuntimeException e) {
+            throw new RuntimeException(
+                    "projection.mode=changestream needs MongoDB 6.0+ on a replica set", e);
+        }
+    }
+
+    private static boolean isHistoryLost(Throwable ex) {
+
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof MongoException mongo) {
+                return mongo.getCode() == HISTORY_LOST;
+            }
+        }
+
+        return false;
+    }
+
+    private static void fail(CompletableFuture<Map<String, Long>> request,
+                             RuntimeException e) {
+        if (request != null) request.completeExceptionally(e);
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.model.Division;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.repository.TransactionRepositoryImpl;
+import com.mongodb.client.FindIterable;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class QueryPlanService {
+
+    private final MongoTemplate mongoTemplate;
+    private final QueryMapper queryMapper;
+
+    public QueryPlanService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+    }
+
+    // =========================
+    // EXPLAIN EVERY ACCESS PATH
+    // with the sort, skip and limit the repository sends
+    // =========================
+    public List<Map<String, Object>> explainAll(String userId) {
+
+        LocalDateTime monthStart = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        LocalDateTime monthEnd = monthStart.plusMonths(1);
+
+        Sort oldestFirst = Sort.by(Sort.Direction.ASC, "createdAt");
+        Sort newestFirst = Sort.by(Sort.Direction.DESC, "createdAt");
+
+        Map<String, Query> queries = new LinkedHashMap<>();
+
+        queries.put("findByUserIdAndDeletedFalse",
+                Query.query(live(userId)));
+
+        queries.put("findByUserIdAndDeletedFalse (paged)",
+                Query.query(live(userId)).with(PageRequest.of(1, 20)));
+
+        queries.put("streamByUserIdAndDeletedFalse",
+                Query.query(live(userId)).with(oldestFirst));
+
+        queries.put("findLiveSlice (first)",
+                TransactionRepositoryImpl.liveSliceQuery(userId, null, null, 20));
+
+        queries.put("findLiveSlice (after cursor)",
+                TransactionRepositoryImpl.liveSliceQuery(
+                        userId, monthStart, new ObjectId().toHexString(), 20));
+
+        queries.put("findByUserIdAndDeletedTrueOrderByDeletedAtDesc",
+                Query.query(Criteria.where("userId").is(userId)
+                                .and("deleted").is(true))
+                        .with(Sort.by(Sort.Direction.DESC, "deletedAt")));
+
+        queries.put("findByUserIdAndDivisionAndDeletedFalse",
+                Query.query(live(userId).and("division").is(Division.PERSONAL)));
+
+        queries.put("findByGroupId",
+                Query.query(Criteria.where("groupId").is("index-check")));
+
+        queries.put("findByGroupIdAndDeletedFalse",
+                Query.query(Criteria.where("groupId").is("index-check")
+                        .and("deleted").is(false)));
+
+        queries.put("createdAtRange (sorted)",
+                Query.query(live(userId).and("createdAt").gte(monthStart).lt(monthEnd))
+                        .with(oldestFirst));
+
+        queries.put("createdAtRange (paged)",
+                Query.query(live(userId).and("createdAt").gte(monthStart).lt(monthEnd))
+                        .with(PageRequest.of(1, 20, newestFirst)));
+
+        queries.put("sumSignedAmount",
+                Query.query(Criteria.where("accountId").is("index-check")
+                        .and("deleted").is(false)));
+
+        List<Map<String, Object>> plans = new ArrayList<>();
+        queries.forEach((name, query) -> plans.add(explain(name, query)));
+        return plans;
+    }
+
+    private static Criteria live(String userId) {
+        return Criteria.where("userId").is(userId).and("deleted").is(false);
+    }
+
+    private Map<String, Object> explain(String name, Query query) {
+
+        // field names and values as MongoTemplate would send them
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter()
+                .getMappingContext()
+                .getPersistentEntity(Transaction.class);
+
+        FindIterable<Document> find = mongoTemplate
+                .getCollection(mongoTemplate.getCollectionName(Transaction.class))
+                .find(queryMapper.getMappedObject(query.getQueryObject(), entity))
+                .sort(queryMapper.getMappedSort(query.getSortObject(), entity));
+
+        if (query.getSkip() > 0) find.skip((int) query.getSkip());
+        if (query.isLimited()) find.limit(query.getLimit());
+
+        Document explain = find.explain();
+
+        Document queryPlanner = explain.get("queryPlanner", Document.class);
+        Document winningPlan = queryPlanner.get("winningPlan", Document.class);
+
+        List<String> stages = new ArrayList<>();
+        List<String> indexes = new ArrayList<>();
+        collectStages(winningPlan, stages, indexes);
+
+        Map<String, Object> plan = new LinkedHashMap<>();
+        plan.put("query", name);
+        plan.put("stages", stages);
+        plan.put("indexes", indexes);
+        // a blocking SORT reads every match into memory before the
+        // limit applies, as bad as a scan once a user has history
+        plan.put("collectionScan", stages.contains("COLLSCAN"));
+        plan.put("blockingSort", stages.contains("SORT"));
+        plan.put("usesIndex", !stages.contains("COLLSCAN") && !stages.contains("SORT"));
+        return plan;
+    }
+
+    // winningPlan is a tree of { stage, inputStage | inputStages }
+    @SuppressWarnings("unchecked")
+    private void collectStages(Document node,
+                               List<String> stages,
+                               List<String> indexes) {
+
+        if (node == null) return;
+
+        // newer servers wrap the classic plan in queryPlan
+        if (node.containsKey("queryPlan")) {
+            collectStages(node.get("queryPlan", Document.class), stages, indexes);
+            return;
+        }
+
+        stages.add(node.getString("stage"));
+
+        if (node.containsKey("indexName")) {
+            indexes.add(node.getString("indexName"));
+        }
+
+        collectStages(node.get("inputStage", Document.class), stages, indexes);
+
+        Object inputs = node.get("inputStages");
+        if (inputs instanceof List<?>) {
+            for (Document child : (List<Document>) inputs) {
+                collectStages(child, stages, indexes);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.model.Account;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.repository.reactive.ReactiveAccountRepository;
+import com.moneymanager.backend.repository.reactive.ReactiveTransactionRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Service
+public class ReactiveTransactionService {
+
+    private static final Sort OLDEST_FIRST =
+            Sort.by(Sort.Direction.ASC, "createdAt");
+
+    private final ReactiveTransactionRepository repo;
+    private final ReactiveAccountRepository accountRepo;
+    private final TransactionArchiveService archive;
+
+    public ReactiveTransactionService(ReactiveTransactionRepository repo,
+                                      ReactiveAccountRepository accountRepo,
+                                      TransactionArchiveService archive) {
+        this.repo = repo;
+        this.accountRepo = accountRepo;
+        this.archive = archive;
+    }
+
+    public Flux<Transaction> getUserTransactions(String userId) {
+        return archived(userId, null, null)
+                .concatWith(repo.findByUserIdAndDeletedFalse(userId, OLDEST_FIRST));
+    }
+
+    // same range rules as TransactionService.streamBetweenDates
+    public Flux<Transaction> betweenDates(
+            String userId,
+            String from,
+            String to
+    ) {
+
+        if (from == null && to == null) {
+            return getUserTransactions(userId);
+        }
+
+        if (from == null || to == null) {
+            return Flux.error(
+                    new RuntimeException("Both from and to are required")
+            );
+        }
+
+        Range<LocalDateTime> range = TransactionService.dayRange(from, to);
+
+        return archived(
+                userId,
+                range.getLowerBound().getValue().orElseThrow(),
+                range.getUpperBound().getValue().orElseThrow()
+        ).concatWith(repo.findByUserIdAndDeletedFalseAndCreatedAtBetween(
+                userId,
+                range,
+                OLDEST_FIRST
+        ));
+    }
+
+    // archived rows first, as in streamBetweenDates; the archive is read
+    // with the blocking driver, off the event loop, and its cursor
+    // closes with the Flux
+    private Flux<Transaction> archived(String userId,
+                                       LocalDateTime from,
+                                       LocalDateTime to) {
+        return Flux.fromStream(() -> archive.streamBetween(userId, from, to))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Flux<Account> getUserAccounts(String userId) {
+        return accountRepo.findByUserId(userId);
+    }
+}
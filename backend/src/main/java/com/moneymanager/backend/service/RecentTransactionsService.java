@@ -0,0 +1,74 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.model.Account;
+import com.moneymanager.backend.model.RecentTransactions;
+import com.moneymanager.backend.model.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class RecentTransactionsService {
+
+    private final MongoTemplate mongoTemplate;
+    private final int size;
+    private final boolean projected;
+
+    public RecentTransactionsService(MongoTemplate mongoTemplate,
+                                     @Value("${projection.recent.size}") int size,
+                                     @Value("${projection.mode}") String projectionMode) {
+        this.mongoTemplate = mongoTemplate;
+        this.size = size;
+        this.projected = ProjectionService.CHANGE_STREAM.equalsIgnoreCase(projectionMode);
+    }
+
+    // one _id lookup when projected, otherwise (or before the first
+    // projection of the user) built from the transactions directly
+    public List<RecentTransactions.Entry> recent(String userId) {
+
+        if (projected) {
+            RecentTransactions model =
+                    mongoTemplate.findById(userId, RecentTransactions.class);
+            if (model != null) return model.getItems();
+        }
+
+        return compute(mongoTemplate, userId).getItems();
+    }
+
+    // two indexed reads: latest N on (userId, deleted, createdAt) and
+    // the user's account names
+    RecentTransactions compute(MongoOperations source, String userId) {
+
+        Query latest = Query.query(Criteria.where("userId").is(userId)
+                        .and("deleted").is(false))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"))
+                .limit(size);
+
+        List<Transaction> transactions = source.find(latest, Transaction.class);
+
+        Map<String, String> names = new HashMap<>();
+        if (!transactions.isEmpty()) {
+            Query accounts = Query.query(Criteria.where("userId").is(userId));
+            accounts.fields().include("name");
+            for (Account a : source.find(accounts, Account.class)) {
+                names.put(a.getId(), a.getName());
+            }
+        }
+
+        RecentTransactions model = new RecentTransactions();
+        model.setUserId(userId);
+        for (Transaction tx : transactions) {
+            model.getItems().add(RecentTransactions.Entry.of(tx, names.get(tx.getAccountId())));
+        }
+
+        return model;
+    }
+}
@@ -0,0 +1,256 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.event.AccountsChangedEvent;
+import com.moneymanager.backend.model.Account;
+import com.moneymanager.backend.model.ReconciliationReport;
+import com.moneymanager.backend.model.ReconciliationReport.AccountDrift;
+import com.moneymanager.backend.repository.AccountBalanceOperations;
+import com.moneymanager.backend.repository.MongoUnitOfWork;
+import com.moneymanager.backend.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Recomputes every Account.balance from its live transactions and
+// records the accounts that disagree. Accounts are streamed (only id,
+// userId, balance) and fanned out to a fixed pool; each check is one
+// server-side $group on the (accountId, deleted) index, so memory stays
+// flat no matter how many transactions there are. Archived rows are
+// summed from transactions_archive and added.
+//
+// Auto-correct needs Mongo transactions: without them a write moves the
+// balance and inserts its transaction in two steps, and a check landing
+// in between sees a steady balance that disagrees with the sum. That is
+// only drift on paper, and correcting it would corrupt the balance.
+@Service
+public class ReconciliationService {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(ReconciliationService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final TransactionRepository transactionRepo;
+    private final AccountBalanceOperations balanceOps;
+    private final TransactionArchiveService archive;
+    private final MongoUnitOfWork unitOfWork;
+    private final ApplicationEventPublisher events;
+    private final int parallelism;
+    private final int maxReportEntries;
+    private final boolean scheduledAutoCorrect;
+
+    private final Timer duration;
+    private final Counter accountsChecked;
+    private final Counter driftFound;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ReconciliationService(MongoTemplate mongoTemplate,
+                                 TransactionRepository transactionRepo,
+                                 AccountBalanceOperations balanceOps,
+                                 TransactionArchiveService archive,
+                                 MongoUnitOfWork unitOfWork,
+                                 ApplicationEventPublisher events,
+                                 @Value("${reconciliation.parallelism}") int parallelism,
+                                 @Value("${reconciliation.max-report-entries}") int maxReportEntries,
+                                 @Value("${reconciliation.auto-correct}") boolean scheduledAutoCorrect,
+                                 MeterRegistry registry) {
+        this.mongoTemplate = mongoTemplate;
+        this.transactionRepo = transactionRepo;
+        this.balanceOps = balanceOps;
+        this.archive = archive;
+        this.unitOfWork = unitOfWork;
+        this.events = events;
+        this.parallelism = parallelism > 0
+                ? parallelism
+                : Runtime.getRuntime().availableProcessors();
+        this.maxReportEntries = maxReportEntries;
+        this.scheduledAutoCorrect = scheduledAutoCorrect && unitOfWork.isTransactional();
+
+        if (scheduledAutoCorrect && !unitOfWork.isTransactional()) {
+            log.warn("reconciliation.auto-correct ignored, it needs mongo.transactions.enabled");
+        }
+
+        this.duration = Timer.builder("moneymanager.reconciliation")
+                .register(registry);
+        this.accountsChecked = Counter.builder("moneymanager.reconciliation.accounts")
+                .register(registry);
+        this.driftFound = Counter.builder("moneymanager.reconciliation.drift")
+                .register(registry);
+    }
+
+    // disabled unless reconciliation.cron is set
+    @Scheduled(cron = "${reconciliation.cron}")
+    public void scheduled() {
+        run(scheduledAutoCorrect);
+    }
+
+    public ReconciliationReport run(boolean autoCorrect) {
+
+        if (autoCorrect && !unitOfWork.isTransactional()) {
+            throw new RuntimeException("Auto-correct needs Mongo transactions");
+        }
+
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Reconciliation already running");
+        }
+
+        try {
+            return duration.record(() -> reconcileAll(autoCorrect));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public ReconciliationReport latest() {
+
+        return mongoTemplate.findOne(
+                new Query().with(Sort.by(Sort.Direction.DESC, "startedAt")),
+                ReconciliationReport.class
+        );
+    }
+
+    private ReconciliationReport reconcileAll(boolean autoCorrect) {
+
+        ReconciliationReport report = new ReconciliationReport();
+        report.setStartedAt(LocalDateTime.now());
+        report.setAutoCorrect(autoCorrect);
+
+        AtomicLong checked = new AtomicLong();
+        AtomicLong drifted = new AtomicLong();
+        AtomicLong corrected = new AtomicLong();
+
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+
+        // bounds queued work so the account cursor is not drained
+        // into memory faster than the pool can check accounts
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+
+        Query accounts = new Query();
+        accounts.fields().include("userId", "balance");
+
+        try (Stream<Account> stream =
+                     mongoTemplate.stream(accounts, Account.class)) {
+
+            stream.forEach(account -> {
+                inFlight.acquireUninterruptibly();
+                pool.execute(() -> {
+                    try {
+                        AccountDrift drift = check(account, autoCorrect);
+                        checked.incrementAndGet();
+
+                        if (drift == null) return;
+
+                        drifted.incrementAndGet();
+                        if (drift.isCorrected()) corrected.incrementAndGet();
+
+                        synchronized (report) {
+                            if (report.getDrifts().size() < maxReportEntries) {
+                                report.getDrifts().add(drift);
+                            }
+                        }
+                    } catch (RuntimeException e) {
+                        log.warn("Reconciliation failed for account {}",
+                                account.getId(), e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            });
+        } finally {
+            pool.shutdown();
+            awaitQuietly(pool);
+        }
+
+        accountsChecked.increment(checked.get());
+        driftFound.increment(drifted.get());
+
+        report.setAccountsChecked(checked.get());
+        report.setDriftCount(drifted.get());
+        report.setCorrected(corrected.get());
+        report.setFinishedAt(LocalDateTime.now());
+
+        if (drifted.get() > 0) {
+            log.warn("Balance drift on {} of {} accounts ({} corrected)",
+                    drifted.get(), checked.get(), corrected.get());
+        }
+
+        return mongoTemplate.insert(report);
+    }
+
+    // a row being archived can be seen in both or neither collection,
+    // so no verdict while this instance moves rows
+    private long expected(String accountId) {
+        return transactionRepo.sumSignedAmount(accountId)
+                + archive.sumSignedAmount(accountId);
+    }
+
+    private AccountDrift check(Account account, boolean autoCorrect) {
+
+        // minor units, so balances must match exactly
+        long expected = expected(account.getId());
+        long stored = account.getBalance();
+
+        if (stored == expected) return null;
+
+        if (archive.isRunning()) return null;
+
+        // a write may have landed between reading the balance and the
+        // sum; re-read both and only trust a balance that held still
+        Account before = mongoTemplate.findById(account.getId(), Account.class);
+        if (before == null) return null;
+
+        expected = expected(account.getId());
+        stored = before.getBalance();
+
+        Account after = mongoTemplate.findById(account.getId(), Account.class);
+        if (after == null || after.getBalance() != stored) return null;
+
+        if (stored == expected) return null;
+
+        AccountDrift drift = new AccountDrift();
+        drift.setAccountId(account.getId());
+        drift.setUserId(account.getUserId());
+        drift.setStored(stored);
+        drift.setExpected(expected);
+        drift.setDifference(stored - expected);
+
+        if (autoCorrect) {
+            drift.setCorrected(
+                    balanceOps.reconcile(account.getId(), stored, expected)
+            );
+
+            // the cached account list still holds the old balance
+            if (drift.isCorrected()) {
+                events.publishEvent(new AccountsChangedEvent(account.getUserId()));
+            }
+        }
+
+        return drift;
+    }
+
+    private static void awaitQuietly(ExecutorService pool) {
+        try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
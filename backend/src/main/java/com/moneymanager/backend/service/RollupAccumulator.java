@@ -0,0 +1,244 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.model.Direction;
+import com.moneymanager.backend.model.Division;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.TransactionType;
+import com.moneymanager.backend.model.UserRollup;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Rebuild-time counterpart of RollupService.accumulate. Every rollup key
+// is a row of five longs in a flat array: accounts by first-seen index,
+// categories by CategoryDictionary id, divisions by ordinal and days by
+// epoch day. Adding a transaction only indexes into those arrays; the
+// UserRollup documents and their String keys are built once per row in
+// toRollups(), and months / years are summed from the day rows there.
+class RollupAccumulator {
+
+    private static final int INCOME = 0;
+    private static final int EXPENSE = 1;
+    private static final int TRANSFER_IN = 2;
+    private static final int TRANSFER_OUT = 3;
+    private static final int COUNT = 4;
+    private static final int WIDTH = 5;
+
+    private final String userId;
+    private final CategoryDictionaryService categories;
+
+    private final long[] total = new long[WIDTH];
+    private final long[] divisions = new long[WIDTH * Division.values().length];
+
+    private final Map<String, Integer> accountRows = new HashMap<>();
+    private String[] accountIds = new String[8];
+    private long[] accounts = new long[WIDTH * 8];
+
+    private long[] byCategory = new long[WIDTH * 16];
+    private int categoryRows;
+
+    private long firstDay;
+    private long[] days = new long[0];
+
+    RollupAccumulator(String userId, CategoryDictionaryService categories) {
+        this.userId = userId;
+        this.categories = categories;
+    }
+
+    void add(Transaction tx) {
+
+        int column = column(tx);
+        long amount = tx.getAmount();
+
+        // rows first, looking one up may grow (replace) its table
+        int account = accountRow(tx.getAccountId());
+        int day = dayRow(tx.getCreatedAt().toLocalDate().toEpochDay());
+
+        put(total, 0, column, amount);
+        put(accounts, account, column, amount);
+        put(days, day, column, amount);
+
+        if (tx.getDivision() != null) {
+            put(divisions, tx.getDivision().ordinal(), column, amount);
+        }
+
+        if (tx.getType() == TransactionType.EXPENSE && tx.getCategory() != null) {
+            int category = categoryRow(tx);
+            put(byCategory, category, column, amount);
+        }
+    }
+
+    Map<String, UserRollup> toRollups() {
+
+        Map<String, UserRollup> rollups = new LinkedHashMap<>();
+
+        // the total row exists even with no transactions, it marks
+        // the user's rollups as built
+        emit(rollups, UserRollup.TOTAL, "all", total, 0, true);
+        rollups.get(UserRollup.idOf(userId, UserRollup.TOTAL, "all")).setBuilt(true);
+
+        for (int row = 0; row < accountRows.size(); row++) {
+            emit(rollups, UserRollup.ACCOUNT, accountIds[row], accounts, row, false);
+        }
+
+        for (Division division : Division.values()) {
+            emit(rollups, UserRollup.DIVISION, division.name(),
+                    divisions, division.ordinal(), false);
+        }
+
+        for (int row = 0; row < categoryRows; row++) {
+            if (byCategory[row * WIDTH + COUNT] > 0) {
+                emit(rollups, UserRollup.CATEGORY,
+                        categories.nameOf(userId, row), byCategory, row, false);
+            }
+        }
+
+        long[] months = new long[WIDTH];
+        long[] years = new long[WIDTH];
+        String month = null;
+        String year = null;
+
+        for (int row = 0; row < days.length / WIDTH; row++) {
+
+            if (days[row * WIDTH + COUNT] == 0) continue;
+
+            String day = LocalDate.ofEpochDay(firstDay + row).toString();
+            emit(rollups, UserRollup.DAY, day, days, row, false);
+
+            // days are in order, so a month / year is complete as
+            // soon as the next one starts
+            if (month == null || !day.startsWith(month)) {
+                flush(rollups, UserRollup.MONTH, month, months);
+                month = day.substring(0, 7);
+            }
+            if (year == null || !day.startsWith(year)) {
+                flush(rollups, UserRollup.YEAR, year, years);
+                year = day.substring(0, 4);
+            }
+
+            for (int c = 0; c < WIDTH; c++) {
+                months[c] += days[row * WIDTH + c];
+                years[c] += days[row * WIDTH + c];
+            }
+        }
+
+        flush(rollups, UserRollup.MONTH, month, months);
+        flush(rollups, UserRollup.YEAR, year, years);
+
+        return rollups;
+    }
+
+    // =========================
+    // ROWS
+    // =========================
+    private static int column(Transaction tx) {
+        return switch (tx.getType()) {
+            case INCOME -> INCOME;
+            case EXPENSE -> EXPENSE;
+            case TRANSFER -> tx.getDirection() == Direction.OUT
+                    ? TRANSFER_OUT
+                    : TRANSFER_IN;
+        };
+    }
+
+    private static void put(long[] table, int row, int column, long amount) {
+        table[row * WIDTH + column] += amount;
+        table[row * WIDTH + COUNT]++;
+    }
+
+    private int accountRow(String accountId) {
+
+        Integer row = accountRows.get(accountId);
+        if (row != null) return row;
+
+        row = accountRows.size();
+        accountRows.put(accountId, row);
+
+        if (row == accountIds.length) {
+            accountIds = Arrays.copyOf(accountIds, row * 2);
+            accounts = Arrays.copyOf(accounts, row * 2 * WIDTH);
+        }
+        accountIds[row] = accountId;
+
+        return row;
+    }
+
+    private int categoryRow(Transaction tx) {
+
+        // older documents predate categoryId
+        Integer id = tx.getCategoryId();
+        int row = id != null ? id : categories.idOf(userId, tx.getCategory());
+
+        if (row >= categoryRows) {
+            categoryRows = row + 1;
+            if (categoryRows * WIDTH > byCategory.length) {
+                byCategory = Arrays.copyOf(byCategory,
+                        Math.max(byCategory.length * 2, categoryRows * WIDTH));
+            }
+        }
+
+        return row;
+    }
+
+    // grows the day table in either direction, with some headroom
+    private int dayRow(long epochDay) {
+
+        int rows = days.length / WIDTH;
+
+        if (rows == 0) {
+            firstDay = epochDay - 31;
+            days = new long[62 * WIDTH];
+            return 31;
+        }
+
+        if (epochDay < firstDay) {
+            int shift = (int) Math.max(firstDay - epochDay, rows);
+            long[] grown = new long[(rows + shift) * WIDTH];
+            System.arraycopy(days, 0, grown, shift * WIDTH, days.length);
+            days = grown;
+            firstDay -= shift;
+        } else if (epochDay - firstDay >= rows) {
+            int needed = (int) (epochDay - firstDay + 1);
+            days = Arrays.copyOf(days, Math.max(needed, rows * 2) * WIDTH);
+        }
+
+        return (int) (epochDay - firstDay);
+    }
+
+    // =========================
+    // OUTPUT
+    // =========================
+    private void flush(Map<String, UserRollup> rollups,
+                       String scope,
+                       String key,
+                       long[] sums) {
+
+        if (key == null) return;
+
+        emit(rollups, scope, key, sums, 0, false);
+        Arrays.fill(sums, 0);
+    }
+
+    private void emit(Map<String, UserRollup> rollups,
+                      String scope,
+                      String key,
+                      long[] table,
+                      int row,
+                      boolean always) {
+
+        int at = row * WIDTH;
+        if (!always && table[at + COUNT] == 0) return;
+
+        UserRollup r = new UserRollup(userId, scope, key);
+        r.setIncome(table[at + INCOME]);
+        r.setExpense(table[at + EXPENSE]);
+        r.setTransferIn(table[at + TRANSFER_IN]);
+        r.setTransferOut(table[at + TRANSFER_OUT]);
+        r.setCount(table[at + COUNT]);
+
+        rollups.put(r.getId(), r);
+    }
+}
@@ -0,0 +1,169 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.model.BucketEntry;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.UserRollup;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Collects rollup deltas for one unit of work and writes them in a
+// single bulk upsert. Call remove() before mutating a transaction and
+// add() after, so the old and new values are both captured. The same
+// changes are handed to the TransactionStore if its layout keeps a
+// copy of live transactions (bucketed).
+//
+// A user's rollups only count once their TOTAL document says built
+// (see RollupService); deltas for a user without rollups are still
+// written, the first read rebuilds over them.
+//
+// With projection.mode=changestream the write path passes
+// rollups=false and only the store is written; the projector builds
+// its own deltas (store=null) from the change stream.
+//
+// Without Mongo transactions (fenced) the transaction documents go
+// through write(), which counts the write in the TOTAL's pending
+// first; flush() counts it out along with the delta. See RollupService.
+public class RollupDelta {
+
+    private final MongoTemplate mongoTemplate;
+    private final TransactionStore store;
+    private final boolean rollups;
+    private final boolean fenced;
+    private final Map<String, UserRollup> deltas = new LinkedHashMap<>();
+    private final List<BucketEntry> removed = new ArrayList<>();
+    private final List<BucketEntry> added = new ArrayList<>();
+
+    // user whose write is counted in pending and not flushed yet
+    private String begun;
+
+    RollupDelta(MongoTemplate mongoTemplate,
+                TransactionStore store,
+                boolean rollups,
+                boolean fenced) {
+        this.mongoTemplate = mongoTemplate;
+        this.store = store;
+        this.rollups = rollups;
+        this.fenced = fenced;
+    }
+
+    // writes the user's transaction documents; a write that fails is
+    // counted out right away, there is no delta to wait for
+    public <T> T write(String userId, Supplier<T> documents) {
+
+        if (fenced) {
+            mongoTemplate.upsert(
+                    Query.query(Criteria.where("_id").is(RollupService.totalId(userId))),
+                    total(userId)
+                            .inc("pending", 1)
+                            .set("pendingSince", Instant.now()),
+                    UserRollup.class
+            );
+            begun = userId;
+        }
+
+        try {
+            return documents.get();
+        } catch (RuntimeException e) {
+            if (begun != null) {
+                mongoTemplate.upsert(
+                        Query.query(Criteria.where("_id").is(RollupService.totalId(userId))),
+                        total(userId).inc("pending", -1).inc("writes", 1),
+                        UserRollup.class
+                );
+                begun = null;
+            }
+            throw e;
+        }
+    }
+
+    public RollupDelta add(Transaction tx) {
+        if (rollups) RollupService.accumulate(deltas, tx, 1);
+        if (mirrors()) added.add(BucketEntry.of(tx));
+        return this;
+    }
+
+    public RollupDelta remove(Transaction tx) {
+        if (rollups) RollupService.accumulate(deltas, tx, -1);
+        if (mirrors()) removed.add(BucketEntry.of(tx));
+        return this;
+    }
+
+    public void flush() {
+
+        if (mirrors()) {
+            store.apply(removed, added);
+            removed.clear();
+            added.clear();
+        }
+
+        // a pending write is counted out even when it changed no rollup
+        String counted = begun;
+        if (counted != null) {
+            deltas.computeIfAbsent(RollupService.totalId(counted),
+                    id -> new UserRollup(counted, UserRollup.TOTAL, RollupService.ALL));
+            begun = null;
+        }
+
+        if (deltas.isEmpty()) return;
+
+        // ordered, TOTAL documents last: their writes counter only moves
+        // once the other deltas are in, which is what fences a
+        // concurrent RollupService rebuild
+        BulkOperations bulk = mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.ORDERED,
+                UserRollup.class
+        );
+
+        for (UserRollup d : deltas.values()) {
+            if (!UserRollup.TOTAL.equals(d.getScope())) bulk.upsert(query(d), inc(d));
+        }
+
+        for (UserRollup d : deltas.values()) {
+            if (!UserRollup.TOTAL.equals(d.getScope())) continue;
+
+            Update update = inc(d).inc("writes", 1);
+            if (d.getUserId().equals(counted)) update.inc("pending", -1);
+            bulk.upsert(query(d), update);
+        }
+
+        bulk.execute();
+        deltas.clear();
+    }
+
+    private static Query query(UserRollup d) {
+        return Query.query(Criteria.where("_id").is(d.getId()));
+    }
+
+    private static Update total(String userId) {
+        return new Update()
+                .setOnInsert("userId", userId)
+                .setOnInsert("scope", UserRollup.TOTAL)
+                .setOnInsert("key", RollupService.ALL);
+    }
+
+    private static Update inc(UserRollup d) {
+        return new Update()
+                .setOnInsert("userId", d.getUserId())
+                .setOnInsert("scope", d.getScope())
+                .setOnInsert("key", d.getKey())
+                .inc("income", d.getIncome())
+                .inc("expense", d.getExpense())
+                .inc("transferIn", d.getTransferIn())
+                .inc("transferOut", d.getTransferOut())
+                .inc("count", d.getCount());
+    }
+
+    private boolean mirrors() {
+        return store != null && store.tracksWrites();
+    }
+}
@@ -0,0 +1,561 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.event.TransactionsChangedEvent;
+import com.moneymanager.backend.model.Direction;
+import com.moneymanager.backend.model.Money;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.TransactionType;
+import com.moneymanager.backend.model.UserRollup;
+import com.moneymanager.backend.repository.MongoUnitOfWork;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Service
+public class RollupService {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(RollupService.class);
+
+    static final String ALL = "all";
+
+    private static final Duration REBUILD_LEASE = Duration.ofMinutes(5);
+    private static final int REBUILD_ATTEMPTS = 3;
+    private static final long PENDING_WAIT_MS = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher events;
+    private final CategoryDictionaryService categories;
+    private final TransactionStore store;
+    private final TransactionArchiveService archive;
+    private final Counter rebuilds;
+
+    // rollups are written by ProjectionService, not by the write path
+    private final boolean projected;
+
+    // no Mongo transactions: writes count themselves in pending
+    private final boolean fenced;
+
+    public RollupService(MongoTemplate mongoTemplate,
+                         ApplicationEventPublisher events,
+                         CategoryDictionaryService categories,
+                         TransactionStore store,
+                         TransactionArchiveService archive,
+                         MongoUnitOfWork unitOfWork,
+                         @Value("${projection.mode}") String projectionMode,
+                         MeterRegistry registry) {
+        this.mongoTemplate = mongoTemplate;
+        this.events = events;
+        this.categories = categories;
+        this.store = store;
+        this.archive = archive;
+        this.projected = ProjectionService.CHANGE_STREAM.equalsIgnoreCase(projectionMode);
+        this.fenced = !projected && !unitOfWork.isTransactional();
+
+        this.rebuilds = Counter.builder("moneymanager.rollups.rebuilds")
+                .register(registry);
+    }
+
+    public RollupDelta delta() {
+        return new RollupDelta(mongoTemplate, store, !projected, fenced);
+    }
+
+    // rollup-only delta for change stream events, the store was
+    // already written by the original request
+    RollupDelta projectionDelta() {
+        return new RollupDelta(mongoTemplate, null, true, false);
+    }
+
+    // =========================
+    // READS
+    // =========================
+    public Map<String, BigDecimal> summary(String userId) {
+
+        String id = totalId(userId);
+        UserRollup total = mongoTemplate.findById(id, UserRollup.class);
+
+        if (!projected && (total == null || !total.isBuilt())) {
+
+            Map<String, UserRollup> computed = build(userId);
+            if (computed != null) return totals(present(computed.get(id)));
+
+            total = mongoTemplate.findById(id, UserRollup.class);
+        }
+
+        // projected: not projected yet (or no transactions at all)
+        return totals(present(total));
+    }
+
+    public Map<String, BigDecimal> periodSummary(String userId, String period) {
+
+        Map<String, UserRollup> computed = ensureBuilt(userId);
+
+        LocalDate today = LocalDate.now();
+        List<String> ids = new ArrayList<>();
+
+        switch (period.toLowerCase()) {
+            case "week" -> {
+                for (int i = 0; i < 7; i++) {
+                    ids.add(UserRollup.idOf(userId, UserRollup.DAY,
+                            today.minusDays(i).toString()));
+                }
+            }
+            case "year" -> ids.add(UserRollup.idOf(userId, UserRollup.YEAR,
+                    String.valueOf(today.getYear())));
+            default -> // month
+                    ids.add(UserRollup.idOf(userId, UserRollup.MONTH,
+                            today.toString().substring(0, 7)));
+        }
+
+        if (computed != null) {
+            List<UserRollup> found = new ArrayList<>();
+            for (String id : ids) found.addAll(present(computed.get(id)));
+            return totals(found);
+        }
+
+        return totals(mongoTemplate.find(
+                Query.query(Criteria.where("_id").in(ids)),
+                UserRollup.class
+        ));
+    }
+
+    public Map<String, BigDecimal> categorySummary(String userId) {
+
+        Map<String, UserRollup> computed = ensureBuilt(userId);
+
+        List<UserRollup> rollups = computed != null
+                ? computed.values().stream()
+                        .filter(r -> UserRollup.CATEGORY.equals(r.getScope()))
+                        .toList()
+                : findByScope(userId, UserRollup.CATEGORY);
+
+        Map<String, BigDecimal> map = new HashMap<>();
+
+        for (UserRollup r : rollups) {
+            if (r.getCount() > 0) {
+                map.put(r.getKey(), Money.toMajor(r.getExpense()));
+            }
+        }
+
+        return map;
+    }
+
+    // =========================
+    // REBUILD / VERIFY
+    // =========================
+    public void rebuild(String userId) {
+
+        // a rebuild racing the projector would count events twice
+        if (projected) {
+            throw new RuntimeException(
+                    "Rollups are projected, rebuild the projection instead");
+        }
+
+        if (build(userId) != null) {
+            throw new RuntimeException("Rollups are being rebuilt, try again");
+        }
+    }
+
+    public List<Map<String, Object>> verify(String userId) {
+
+        Map<String, UserRollup> expected = recompute(mongoTemplate, userId);
+
+        Map<String, UserRollup> actual = new HashMap<>();
+        for (UserRollup r : mongoTemplate.find(
+                Query.query(Criteria.where("userId").is(userId)),
+                UserRollup.class)) {
+            actual.put(r.getId(), r);
+        }
+
+        List<Map<String, Object>> drift = new ArrayList<>();
+
+        for (UserRollup e : expected.values()) {
+            compare(e, actual.remove(e.getId()), drift);
+        }
+
+        // rollups with no backing transactions at all
+        for (UserRollup a : actual.values()) {
+            compare(new UserRollup(userId, a.getScope(), a.getKey()), a, drift);
+        }
+
+        if (!drift.isEmpty()) {
+            log.warn("Rollup drift for user {}: {} entries", userId, drift.size());
+        }
+
+        return drift;
+    }
+
+    // source is a snapshot session when the projection is rebuilt
+    Map<String, UserRollup> recompute(MongoOperations source, String userId) {
+
+        RollupAccumulator accumulator =
+                new RollupAccumulator(userId, categories);
+
+        Query live = Query.query(Criteria.where("userId").is(userId)
+                .and("deleted").is(false));
+
+        try (Stream<Transaction> stream =
+                     source.stream(live, Transaction.class)) {
+            stream.forEach(accumulator::add);
+        }
+
+        // archived rows still count in every rollup
+        archive.forEach(source, userId, accumulator::add);
+
+        return accumulator.toRollups();
+    }
+
+    private void compare(UserRollup expected,
+                         UserRollup actual,
+                         List<Map<String, Object>> drift) {
+
+        if (actual == null) {
+            actual = new UserRollup();
+        }
+
+        long[] want = {
+                expected.getIncome(), expected.getExpense(),
+                expected.getTransferIn(), expected.getTransferOut(),
+                expected.getCount()
+        };
+        long[] got = {
+                actual.getIncome(), actual.getExpense(),
+                actual.getTransferIn(), actual.getTransferOut(),
+                actual.getCount()
+        };
+        String[] fields = {
+                "income", "expense", "transferIn", "transferOut", "count"
+        };
+
+        // minor units add up exactly, so any difference is drift
+        for (int i = 0; i < fields.length; i++) {
+            if (want[i] != got[i]) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("scope", expected.getScope());
+                entry.put("key", expected.getKey());
+                entry.put("field", fields[i]);
+                entry.put("expected", i < 4 ? Money.toMajor(want[i]) : want[i]);
+                entry.put("actual", i < 4 ? Money.toMajor(got[i]) : got[i]);
+                drift.add(entry);
+            }
+        }
+    }
+
+    // =========================
+    // HELPERS
+    // =========================
+
+    // per-write deltas; full rebuilds go through RollupAccumulator
+    static void accumulate(Map<String, UserRollup> rollups,
+                           Transaction tx,
+                           int sign) {
+
+        String userId = tx.getUserId();
+        LocalDate day = tx.getCreatedAt().toLocalDate();
+
+        add(rollups, userId, UserRollup.TOTAL, ALL, tx, sign);
+        add(rollups, userId, UserRollup.ACCOUNT, tx.getAccountId(), tx, sign);
+        add(rollups, userId, UserRollup.DAY, day.toString(), tx, sign);
+        add(rollups, userId, UserRollup.MONTH, day.toString().substring(0, 7), tx, sign);
+        add(rollups, userId, UserRollup.YEAR, String.valueOf(day.getYear()), tx, sign);
+
+        if (tx.getDivision() != null) {
+            add(rollups, userId, UserRollup.DIVISION, tx.getDivision().name(), tx, sign);
+        }
+
+        if (tx.getType() == TransactionType.EXPENSE && tx.getCategory() != null) {
+            add(rollups, userId, UserRollup.CATEGORY, tx.getCategory(), tx, sign);
+        }
+    }
+
+    private static void add(Map<String, UserRollup> rollups,
+                            String userId,
+                            String scope,
+                            String key,
+                            Transaction tx,
+                            int sign) {
+
+        UserRollup r = rollups.computeIfAbsent(
+                UserRollup.idOf(userId, scope, key),
+                id -> new UserRollup(userId, scope, key)
+        );
+
+        long amount = sign * tx.getAmount();
+
+        if (tx.getType() == TransactionType.INCOME) {
+            r.setIncome(r.getIncome() + amount);
+        } else if (tx.getType() == TransactionType.EXPENSE) {
+            r.setExpense(r.getExpense() + amount);
+        } else if (tx.getDirection() == Direction.OUT) {
+            r.setTransferOut(r.getTransferOut() + amount);
+        } else {
+            r.setTransferIn(r.getTransferIn() + amount);
+        }
+
+        r.setCount(r.getCount() + sign);
+    }
+
+    // null when the stored rollups can be read, otherwise the rollups
+    // recomputed for this read only
+    private Map<String, UserRollup> ensureBuilt(String userId) {
+
+        if (projected) return null;
+
+        boolean built = mongoTemplate.exists(
+                Query.query(Criteria.where("_id").is(totalId(userId))
+                        .and("built").is(true)),
+                UserRollup.class
+        );
+
+        return built ? null : build(userId);
+    }
+
+    // =========================
+    // FENCED REBUILD
+    // =========================
+
+    // Rollups of users that had history before rollups existed (or
+    // after the money migration) are built on first read. Deltas keep
+    // being written meanwhile, so the rebuild is fenced on the TOTAL
+    // document:
+    //
+    //   1. take the lease (rebuildOwner) and read writes, built=false
+    //   2. recompute from the transactions
+    //   3. replace every other rollup of the user
+    //   4. set TOTAL and built=true only if writes did not move
+    //
+    // Any delta landing after 1 bumps writes (RollupDelta writes TOTAL
+    // last), so 4 fails and the rebuild goes again from 2. A second
+    // reader finding the lease taken computes its answer in memory and
+    // leaves the stored rollups alone.
+    //
+    // Without Mongo transactions a write's documents can already be in
+    // (and missed or counted by 2) while its delta is still to come, so
+    // writes alone is not enough: every write counts itself in pending
+    // before its documents (RollupDelta.write). The rebuild waits while
+    // pending > 0 and 4 also requires pending to still be 0. A pending
+    // count older than the lease is from a writer that died between the
+    // two; it is dropped, losing at most that writer's delta.
+    //
+    // Returns null once the stored rollups are built, otherwise the
+    // recomputed ones (lease held elsewhere, or writes kept coming).
+    private Map<String, UserRollup> build(String userId) {
+
+        String owner = UUID.randomUUID().toString();
+        UserRollup claimed = claim(userId, owner);
+
+        if (claimed == null) {
+            return recompute(mongoTemplate, userId);
+        }
+
+        Map<String, UserRollup> expected = null;
+
+        for (int attempt = 1; attempt <= REBUILD_ATTEMPTS; attempt++) {
+
+            if (claimed.getPending() > 0) {
+                // a write is between its documents and its delta
+                awaitPending(userId, owner, claimed);
+            } else {
+                expected = recompute(mongoTemplate, userId);
+
+                if (publish(userId, owner, claimed.getWrites(), expected)) {
+                    rebuilds.increment();
+                    events.publishEvent(new TransactionsChangedEvent(userId));
+                    return null;
+                }
+            }
+
+            // writes came in or are pending; renew the lease, go again
+            claimed = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(totalId(userId))
+                            .and("rebuildOwner").is(owner)),
+                    new Update().set("rebuildUntil", Instant.now().plus(REBUILD_LEASE)),
+                    FindAndModifyOptions.options().returnNew(true),
+                    UserRollup.class
+            );
+
+            if (claimed == null) break;
+        }
+
+        if (claimed == null) {
+            return expected != null ? expected : recompute(mongoTemplate, userId);
+        }
+
+        log.warn("Rollup rebuild for user {} kept racing writes, left unbuilt", userId);
+
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(totalId(userId))
+                        .and("rebuildOwner").is(owner)),
+                new Update().unset("rebuildOwner").unset("rebuildUntil"),
+                UserRollup.class
+        );
+
+        return expected != null ? expected : recompute(mongoTemplate, userId);
+    }
+
+    // waits a little for pending writes to flush; a count older than
+    // the lease is from a writer that died mid-write and is dropped
+    private void awaitPending(String userId, String owner, UserRollup claimed) {
+
+        Instant since = claimed.getPendingSince();
+
+        if (since != null && since.isAfter(Instant.now().minus(REBUILD_LEASE))) {
+            pause();
+            return;
+        }
+
+        long dropped = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(totalId(userId))
+                        .and("rebuildOwner").is(owner)
+                        .and("pending").is(claimed.getPending())
+                        .and("pendingSince").is(since)),
+                new Update().set("pending", 0L),
+                UserRollup.class
+        ).getModifiedCount();
+
+        if (dropped == 1) {
+            log.warn("Dropped {} stale pending rollup write(s) of user {}",
+                    claimed.getPending(), userId);
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(PENDING_WAIT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted");
+        }
+    }
+
+    // the TOTAL document with its lease taken, null if another rebuild
+    // holds an unexpired one
+    private UserRollup claim(String userId, String owner) {
+
+        Instant now = Instant.now();
+
+        try {
+            return mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(totalId(userId))
+                            .orOperator(
+                                    Criteria.where("rebuildOwner").exists(false),
+                                    Criteria.where("rebuildUntil").lt(now))),
+                    new Update()
+                            .set("rebuildOwner", owner)
+                            .set("rebuildUntil", now.plus(REBUILD_LEASE))
+                            .set("built", false)
+                            .setOnInsert("userId", userId)
+                            .setOnInsert("scope", UserRollup.TOTAL)
+                            .setOnInsert("key", ALL)
+                            .inc("writes", 0L),   // creates it, the fence compares it
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    UserRollup.class
+            );
+        } catch (DuplicateKeyException e) {
+            // the document exists and its lease did not match
+            return null;
+        }
+    }
+
+    private boolean publish(String userId,
+                            String owner,
+                            long writes,
+                            Map<String, UserRollup> expected) {
+
+        mongoTemplate.remove(
+                Query.query(Criteria.where("userId").is(userId)
+                        .and("scope").ne(UserRollup.TOTAL)),
+                UserRollup.class
+        );
+
+        List<UserRollup> others = new ArrayList<>(expected.size());
+        for (UserRollup r : expected.values()) {
+            if (!UserRollup.TOTAL.equals(r.getScope())) others.add(r);
+        }
+
+        try {
+            mongoTemplate.insertAll(others);
+        } catch (DuplicateKeyException e) {
+            // a delta recreated a document in between; it bumped
+            // writes too, so this attempt could not publish anyway
+            return false;
+        }
+
+        UserRollup total = expected.getOrDefault(
+                totalId(userId), new UserRollup(userId, UserRollup.TOTAL, ALL));
+
+        return mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(totalId(userId))
+                        .and("rebuildOwner").is(owner)
+                        .and("writes").is(writes)
+                        .and("pending").not().gt(0)),   // missing on older TOTALs
+                sums(total)
+                        .set("built", true)
+                        .unset("rebuildOwner")
+                        .unset("rebuildUntil"),
+                UserRollup.class
+        ).getMatchedCount() == 1;
+    }
+
+    private static Update sums(UserRollup r) {
+        return new Update()
+                .set("income", r.getIncome())
+                .set("expense", r.getExpense())
+                .set("transferIn", r.getTransferIn())
+                .set("transferOut", r.getTransferOut())
+                .set("count", r.getCount());
+    }
+
+    static String totalId(String userId) {
+        return UserRollup.idOf(userId, UserRollup.TOTAL, ALL);
+    }
+
+    private static List<UserRollup> present(UserRollup r) {
+        return r == null ? List.of() : List.of(r);
+    }
+
+    private List<UserRollup> findByScope(String userId, String scope) {
+        return mongoTemplate.find(
+                Query.query(Criteria.where("userId").is(userId)
+                        .and("scope").is(scope)),
+                UserRollup.class
+        );
+    }
+
+    // primitive long sums, converted to decimals once at the end
+    private Map<String, BigDecimal> totals(List<UserRollup> rollups) {
+
+        long income = 0;
+        long expense = 0;
+
+        for (UserRollup r : rollups) {
+            income += r.getIncome();
+            expense += r.getExpense();
+        }
+
+        return TransactionService.totals(income, expense);
+    }
+}
@@ -0,0 +1,601 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.model.ArchiveState;
+import com.moneymanager.backend.model.ArchivedTransaction;
+import com.moneymanager.backend.model.Direction;
+import com.moneymanager.backend.model.Division;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.TransactionType;
+import com.moneymanager.backend.repository.MongoUnitOfWork;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.BooleanOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Cold tier: live transactions older than archive.horizon-days (and
+// always outside the edit window) are moved in batches to the
+// compressed transactions_archive collection, so the hot collection and
+// its indexes only hold recent history.
+//
+// Moving changes no totals. Balances, rollups and buckets keep counting
+// archived rows; reads that span old dates (ranges, reports, exports,
+// full lists, reconciliation, rollup rebuilds) add the archive only
+// when the range starts before ArchiveState.archivedBefore, and the
+// keyset scroll merges archived rows in. Offset-paged listings stay on
+// the hot collection. Deleting an archived row moves it back to the hot
+// collection first, where the trash and restore work as usual.
+//
+// The watermark is cached per instance for WATERMARK_REFRESH; a run
+// that raises it waits that long before moving rows, so no instance
+// skips the archive for a row that is already there.
+@Service
+public class TransactionArchiveService {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(TransactionArchiveService.class);
+
+    private static final String COLLECTION = "transactions_archive";
+
+    static final Duration WATERMARK_REFRESH = Duration.ofSeconds(30);
+
+    private static final Comparator<Transaction> NEWEST_FIRST =
+            Comparator.comparing(Transaction::getCreatedAt)
+                    .thenComparing(Transaction::getId)
+                    .reversed();
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoUnitOfWork unitOfWork;
+    private final int horizonDays;
+    private final int batchSize;
+
+    private final Timer duration;
+    private final Counter moved;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile Watermark watermark;
+
+    public TransactionArchiveService(MongoTemplate mongoTemplate,
+                                     MongoUnitOfWork unitOfWork,
+                                     @Value("${archive.horizon-days}") int horizonDays,
+                                     @Value("${archive.batch-size}") int batchSize,
+                                     MeterRegistry registry) {
+        this.mongoTemplate = mongoTemplate;
+        this.unitOfWork = unitOfWork;
+        this.horizonDays = horizonDays;
+        this.batchSize = batchSize;
+
+        this.duration = Timer.builder("moneymanager.archive.run")
+                .register(registry);
+        this.moved = Counter.builder("moneymanager.archive.moved")
+                .register(registry);
+    }
+
+    // before MongoIndexConfig, which would create it uncompressed
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void createCollection() {
+
+        if (mongoTemplate.collectionExists(COLLECTION)) return;
+
+        mongoTemplate.executeCommand(new Document("create", COLLECTION)
+                .append("storageEngine", new Document("wiredTiger",
+                        new Document("configString", "block_compressor=zstd"))));
+    }
+
+    // =========================
+    // READS
+    // =========================
+
+    // whether [from, ...) may reach archived rows; from null = all time
+    public boolean covers(LocalDateTime from) {
+
+        LocalDateTime before = archivedBefore();
+
+        return before != null
+                && (from == null || from.isBefore(before));
+    }
+
+    // cached; with archiving disabled here read once, in case rows were
+    // archived while it was enabled
+    private LocalDateTime archivedBefore() {
+
+        Watermark w = watermark;
+
+        if (w == null || (horizonDays > 0
+                && System.nanoTime() - w.readAt > WATERMARK_REFRESH.toNanos())) {
+
+            ArchiveState state = mongoTemplate.findById(ArchiveState.ID, ArchiveState.class);
+            w = new Watermark(state == null ? null : state.getArchivedBefore());
+            watermark = w;
+        }
+
+        return w.before;
+    }
+
+    // keyset page of archived rows after (createdAt, id), newest first
+    public List<Transaction> findSlice(String userId,
+                                       LocalDateTime createdAt,
+                                       String id,
+                                       int limit) {
+
+        if (!covers(null)) return List.of();
+
+        Criteria criteria = Criteria.where("userId").is(userId);
+
+        if (createdAt != null) {
+            criteria.orOperator(
+                    Criteria.where("createdAt").lt(createdAt),
+                    Criteria.where("createdAt").is(createdAt)
+                            .and("id").lt(id)
+            );
+        }
+
+        return mongoTemplate.find(
+                        Query.query(criteria)
+                                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                                .limit(limit),
+                        ArchivedTransaction.class)
+                .stream()
+                .map(ArchivedTransaction::toTransaction)
+                .toList();
+    }
+
+    // one keyset page over both tiers: hot holds the hot page (hasMore
+    // when it was cut at size), the archive fills in between and after
+    public List<Transaction> mergeSlice(String userId,
+                                        LocalDateTime createdAt,
+                                        String id,
+                                        List<Transaction> hot,
+                                        boolean hasMore,
+                                        int size) {
+
+        // archived rows are older than the watermark; once the hot page
+        // ends above it, none of them belongs on this page
+        if (hasMore && !hot.isEmpty()) {
+            if (!covers(hot.get(hot.size() - 1).getCreatedAt())) return hot;
+        } else if (!covers(null)) {
+            return hot;
+        }
+
+        List<Transaction> cold = findSlice(userId, createdAt, id, size + 1);
+        if (cold.isEmpty()) return hot;
+
+        List<Transaction> merged = new ArrayList<>(hot.size() + cold.size());
+        merged.addAll(hot);
+        merged.addAll(cold);
+        merged.sort(NEWEST_FIRST);
+
+        // a row caught between copy and delete by a running mover
+        // is in both, adjacent after the sort
+        for (int i = merged.size() - 1; i > 0; i--) {
+            if (merged.get(i).getId().equals(merged.get(i - 1).getId())) {
+                merged.remove(i);
+            }
+        }
+
+        return merged;
+    }
+
+    // oldest first, like TransactionStore.findBetween
+    public List<Transaction> findBetween(String userId, LocalDateTime from, LocalDateTime to) {
+
+        if (!covers(from)) return List.of();
+
+        return mongoTemplate.find(
+                        range(userId, from, to)
+                                .with(Sort.by(Sort.Direction.ASC, "createdAt")),
+                        ArchivedTransaction.class)
+                .stream()
+                .map(ArchivedTransaction::toTransaction)
+                .toList();
+    }
+
+    // caller must close the stream
+    public Stream<Transaction> streamBetween(String userId, LocalDateTime from, LocalDateTime to) {
+
+        if (!covers(from)) return Stream.empty();
+
+        return mongoTemplate.stream(
+                        range(userId, from, to)
+                                .with(Sort.by(Sort.Direction.ASC, "createdAt")),
+                        ArchivedTransaction.class)
+                .map(ArchivedTransaction::toTransaction);
+    }
+
+    public List<Transaction> findByDivision(String userId, Division division) {
+
+        if (!covers(null)) return List.of();
+
+        return mongoTemplate.find(
+                        Query.query(Criteria.where("userId").is(userId)
+                                .and("division").is(division)),
+                        ArchivedTransaction.class)
+                .stream()
+                .map(ArchivedTransaction::toTransaction)
+                .toList();
+    }
+
+    public boolean contains(String userId, String id) {
+
+        if (!covers(null)) return false;
+
+        return mongoTemplate.exists(
+                Query.query(Criteria.where("_id").is(id)
+                        .and("userId").is(userId)),
+                ArchivedTransaction.class);
+    }
+
+    // =========================
+    // MOVE BACK
+    // archived rows are read-only; to delete one it goes back to the
+    // hot collection first (inside the caller's unit of work), and the
+    // next run archives it again if it is still live
+    // =========================
+
+    // the user's archived row, now hot; null when there is none
+    public Transaction unarchive(String userId, String id) {
+
+        if (!covers(null)) return null;
+
+        List<Transaction> moved = moveBack(
+                Query.query(Criteria.where("_id").is(id)
+                        .and("userId").is(userId)));
+
+        return moved.isEmpty() ? null : moved.get(0);
+    }
+
+    // archived legs of a transfer, now hot
+    public List<Transaction> unarchiveGroup(String groupId) {
+
+        if (!covers(null)) return List.of();
+
+        return moveBack(Query.query(Criteria.where("groupId").is(groupId)));
+    }
+
+    private List<Transaction> moveBack(Query query) {
+
+        List<Transaction> rows = mongoTemplate.find(query, ArchivedTransaction.class)
+                .stream()
+                .map(ArchivedTransaction::toTransaction)
+                .toList();
+
+        if (rows.isEmpty()) return rows;
+
+        rows.forEach(tx -> tx.setUnarchived(true));
+        mongoTemplate.insertAll(rows);
+        mongoTemplate.remove(
+                Query.query(Criteria.where("_id")
+                        .in(rows.stream().map(Transaction::getId).toList())),
+                ArchivedTransaction.class
+        );
+
+        return rows;
+    }
+
+    List<String> userIds(MongoOperations source) {
+        return source.findDistinct(new Query(), "userId",
+                ArchivedTransaction.class, String.class);
+    }
+
+    // every archived row of the user; source may be a snapshot session
+    void forEach(MongoOperations source, String userId, Consumer<Transaction> action) {
+
+        try (Stream<ArchivedTransaction> stream = source.stream(
+                Query.query(Criteria.where("userId").is(userId)),
+                ArchivedTransaction.class)) {
+            stream.forEach(a -> action.accept(a.toTransaction()));
+        }
+    }
+
+    void forEachOfAccount(String accountId, Consumer<Transaction> action) {
+
+        try (Stream<ArchivedTransaction> stream = mongoTemplate.stream(
+                Query.query(Criteria.where("accountId").is(accountId)),
+                ArchivedTransaction.class)) {
+            stream.forEach(a -> action.accept(a.toTransaction()));
+        }
+    }
+
+    // =========================
+    // SUMS (minor units)
+    // =========================
+    public Map<String, Long> sumAmountByType(String userId, LocalDateTime from, LocalDateTime to) {
+
+        if (!covers(from)) return Map.of();
+
+        return sumBy("type", rangeCriteria(userId, from, to));
+    }
+
+    public Map<String, Long> sumExpenseByCategory(String userId, LocalDateTime from, LocalDateTime to) {
+
+        if (!covers(from)) return Map.of();
+
+        return sumBy("category", rangeCriteria(userId, from, to)
+                .and("type").is(TransactionType.EXPENSE));
+    }
+
+    // same signs as TransactionBatch.signedAmount
+    public long sumSignedAmount(String accountId) {
+
+        TypedAggregation<ArchivedTransaction> aggregation = Aggregation.newAggregation(
+                ArchivedTransaction.class,
+                Aggregation.match(Criteria.where("accountId").is(accountId)),
+                Aggregation.group()
+                        .sum(ConditionalOperators
+                                .when(BooleanOperators.Or.or(
+                                        ComparisonOperators.valueOf("type")
+                                                .equalToValue(TransactionType.INCOME.value()),
+                                        BooleanOperators.And.and(
+                                                ComparisonOperators.valueOf("type")
+                                                        .equalToValue(TransactionType.TRANSFER.value()),
+                                                ComparisonOperators.valueOf("direction")
+                                                        .equalToValue(Direction.IN.name())
+                                        )
+                                ))
+                                .thenValueOf("amount")
+                                .otherwiseValueOf(ArithmeticOperators
+                                        .valueOf("amount").multiplyBy(-1)))
+                        .as("total")
+        );
+
+        Document result = mongoTemplate
+                .aggregate(aggregation, Document.class)
+                .getUniqueMappedResult();
+
+        return result == null
+                ? 0
+                : ((Number) result.get("total")).longValue();
+    }
+
+    // =========================
+    // MOVER
+    // =========================
+
+    // disabled when archive.cron is "-"
+    @Scheduled(cron = "${archive.cron}")
+    public void scheduled() {
+        if (horizonDays > 0) run();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Map<String, Long> run() {
+
+        if (horizonDays <= 0) {
+            throw new RuntimeException("Archiving is disabled");
+        }
+
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Archiving already running");
+        }
+
+        try {
+            return duration.record(this::moveAll);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Map<String, Long> moveAll() {
+
+        // never inside the edit window, whatever the horizon
+        Duration horizon = Duration.ofDays(horizonDays);
+        if (horizon.compareTo(TransactionService.EDIT_WINDOW) < 0) {
+            horizon = TransactionService.EDIT_WINDOW;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(horizon);
+
+        // other instances read it within WATERMARK_REFRESH
+        if (raiseWatermark(cutoff)) {
+            try {
+                Thread.sleep(WATERMARK_REFRESH.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted");
+            }
+        }
+
+        long users = 0;
+        long total = 0;
+
+        // per user, so every batch is a range on user_created_id_live
+        List<String> userIds = mongoTemplate.findDistinct(
+                Query.query(Criteria.where("deleted").is(false)
+                        .and("createdAt").lt(cutoff)),
+                "userId", Transaction.class, String.class);
+
+        for (String userId : userIds) {
+
+            while (true) {
+                int n = unitOfWork.run(() -> moveBatch(userId, cutoff));
+                total += n;
+                moved.increment(n);
+                if (n < batchSize) break;
+            }
+
+            users++;
+        }
+
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(ArchiveState.ID)),
+                new Update()
+                        .set("lastRunAt", LocalDateTime.now())
+                        .set("lastMoved", total),
+                ArchiveState.class
+        );
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("users", users);
+        result.put("moved", total);
+
+        log.info("Archive run done (before {}): {}", cutoff, result);
+        return result;
+    }
+
+    // Copy, then delete what is still live and old. In a Mongo
+    // transaction this is atomic; without one, rows deleted by the user
+    // in between are taken back out of the archive.
+    private int moveBatch(String userId, LocalDateTime cutoff) {
+
+        Query old = Query.query(Criteria.where("userId").is(userId)
+                        .and("deleted").is(false)
+                        .and("createdAt").lt(cutoff))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"))
+                .limit(batchSize);
+
+        List<Transaction> batch = mongoTemplate.find(old, Transaction.class);
+        if (batch.isEmpty()) return 0;
+
+        // upserts, a rerun after a crash just overwrites
+        BulkOperations copy = mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.UNORDERED,
+                ArchivedTransaction.class
+        );
+        for (Transaction tx : batch) {
+            copy.replaceOne(
+                    Query.query(Criteria.where("_id").is(tx.getId())),
+                    ArchivedTransaction.of(tx),
+                    FindAndReplaceOptions.options().upsert()
+            );
+        }
+        copy.execute();
+
+        List<String> ids = batch.stream().map(Transaction::getId).toList();
+
+        long deleted = mongoTemplate.remove(
+                Query.query(Criteria.where("_id").in(ids)
+                        .and("deleted").is(false)),
+                Transaction.class
+        ).getDeletedCount();
+
+        if (deleted < ids.size()) {
+
+            Query left = Query.query(Criteria.where("_id").in(ids));
+            left.fields().include("_id");
+
+            List<String> stayed = mongoTemplate.find(left, Transaction.class)
+                    .stream()
+                    .map(Transaction::getId)
+                    .toList();
+
+            mongoTemplate.remove(
+                    Query.query(Criteria.where("_id").in(stayed)),
+                    ArchivedTransaction.class
+            );
+        }
+
+        return batch.size();
+    }
+
+    // whether it moved
+    private boolean raiseWatermark(LocalDateTime cutoff) {
+
+        ArchiveState state = mongoTemplate.findById(ArchiveState.ID, ArchiveState.class);
+
+        if (state != null && state.getArchivedBefore() != null
+                && !state.getArchivedBefore().isBefore(cutoff)) {
+            watermark = new Watermark(state.getArchivedBefore());
+            return false;
+        }
+
+        mongoTemplate.upsert(
+                Query.query(Criteria.where("_id").is(ArchiveState.ID)),
+                new Update().set("archivedBefore", cutoff),
+                ArchiveState.class
+        );
+
+        watermark = new Watermark(cutoff);
+        return true;
+    }
+
+    // =========================
+    // HELPERS
+    // =========================
+    private Query range(String userId, LocalDateTime from, LocalDateTime to) {
+        return Query.query(rangeCriteria(userId, from, to));
+    }
+
+    private Criteria rangeCriteria(String userId, LocalDateTime from, LocalDateTime to) {
+
+        Criteria criteria = Criteria.where("userId").is(userId);
+
+        if (from != null || to != null) {
+            Criteria createdAt = criteria.and("createdAt");
+            if (from != null) createdAt.gte(from);
+            if (to != null) createdAt.lt(to);
+        }
+
+        return criteria;
+    }
+
+    private Map<String, Long> sumBy(String field, Criteria criteria) {
+
+        TypedAggregation<ArchivedTransaction> aggregation = Aggregation.newAggregation(
+                ArchivedTransaction.class,
+                Aggregation.match(criteria),
+                Aggregation.group(field).sum("amount").as("total")
+        );
+
+        Map<String, Long> result = new HashMap<>();
+
+        for (Document row : mongoTemplate
+                .aggregate(aggregation, Document.class)
+                .getMappedResults()) {
+
+            Object key = row.get("_id");
+            if (key != null) {
+                result.put(key.toString(), ((Number) row.get("total")).longValue());
+            }
+        }
+
+        return result;
+    }
+
+    private static class Watermark {
+
+        private final LocalDateTime before;
+        private final long readAt = System.nanoTime();
+
+        Watermark(LocalDateTime before) {
+            this.before = before;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.model.Direction;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.TransactionType;
+import com.moneymanager.backend.repository.AccountBalanceOperations;
+import com.moneymanager.backend.repository.TransactionRepository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Edits of already stored transactions (update, delete, restore) for
+// one unit of work. Balance effects are summed per account in memory
+// and flush() writes them whatever the number of legs as one guarded
+// $inc per account touched (a balance only goes down while it covers
+// it, as for a new expense), one update bulk on transactions and the
+// rollup delta (plus its pending mark without Mongo transactions, see
+// RollupDelta). Edits are always of one user's transactions.
+public class TransactionBatch {
+
+    private final AccountBalanceOperations balanceOps;
+    private final TransactionRepository repo;
+    private final RollupDelta rollups;
+
+    private final Map<String, Long> balances = new LinkedHashMap<>();
+    private final Map<String, Transaction> changed = new LinkedHashMap<>();
+
+    TransactionBatch(AccountBalanceOperations balanceOps,
+                     TransactionRepository repo,
+                     RollupDelta rollups) {
+        this.balanceOps = balanceOps;
+        this.repo = repo;
+        this.rollups = rollups;
+    }
+
+    // the balance moves by the difference between the effect of the
+    // transaction before and after the edit; deleted ones have none
+    public TransactionBatch change(Transaction tx, Consumer<Transaction> edit) {
+
+        long before = balanceEffect(tx);
+        if (!tx.isDeleted()) rollups.remove(tx);
+
+        edit.accept(tx);
+
+        if (!tx.isDeleted()) rollups.add(tx);
+        balances.merge(tx.getAccountId(), balanceEffect(tx) - before, Long::sum);
+        changed.put(tx.getId(), tx);
+
+        return this;
+    }
+
+    public void flush() {
+
+        if (changed.isEmpty()) return;
+
+        balances.values().removeIf(delta -> delta == 0);
+
+        String userId = changed.values().iterator().next().getUserId();
+
+        balanceOps.adjustAllGuardedOrFail(userId, balances);
+
+        rollups.write(userId, () -> {
+            repo.updateAll(changed.values());
+            return null;
+        });
+        rollups.flush();
+
+        balances.clear();
+        changed.clear();
+    }
+
+    // effect of a live transaction on its account balance:
+    // income and transfer IN add, expense and transfer OUT subtract
+    static long signedAmount(Transaction tx) {
+
+        if (tx.getType() == TransactionType.TRANSFER) {
+            return tx.getDirection() == Direction.OUT
+                    ? -tx.getAmount()
+                    : tx.getAmount();
+        }
+
+        return tx.getType() == TransactionType.INCOME
+                ? tx.getAmount()
+                : -tx.getAmount();
+    }
+
+    private static long balanceEffect(Transaction tx) {
+        return tx.isDeleted() ? 0 : signedAmount(tx);
+    }
+}
@@ -0,0 +1,130 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.model.Account;
+import com.moneymanager.backend.model.BucketEntry;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.TransactionBucket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Builds transaction_buckets from the flat collection and the archive,
+// one account at a time, so memory is bounded by the largest account's history.
+// Run it once after switching to transactions.layout=bucketed; new
+// writes are already mirrored, rerunning simply rebuilds every bucket.
+@Service
+public class TransactionBucketMigrationService {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(TransactionBucketMigrationService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final TransactionStore store;
+    private final CategoryDictionaryService categories;
+    private final TransactionArchiveService archive;
+
+    public TransactionBucketMigrationService(MongoTemplate mongoTemplate,
+                                             TransactionStore store,
+                                             CategoryDictionaryService categories,
+                                             TransactionArchiveService archive) {
+        this.mongoTemplate = mongoTemplate;
+        this.store = store;
+        this.categories = categories;
+        this.archive = archive;
+    }
+
+    public Map<String, Long> backfill() {
+
+        if (!store.tracksWrites()) {
+            throw new RuntimeException("Bucketed layout is not enabled");
+        }
+
+        Query all = new Query();
+        all.fields().include("_id");
+
+        long accounts = 0;
+        long buckets = 0;
+        long transactions = 0;
+
+        Map<YearMonth, TransactionBucket> pending = new LinkedHashMap<>();
+
+        try (Stream<Account> stream = mongoTemplate.stream(all, Account.class)) {
+
+            for (Account account : (Iterable<Account>) stream::iterator) {
+
+                // hot rows on account_live, archived ones on the archive's
+                // account index
+                Query live = Query.query(Criteria.where("accountId").is(account.getId())
+                        .and("deleted").is(false));
+
+                long before = transactions;
+
+                try (Stream<Transaction> txs =
+                             mongoTemplate.stream(live, Transaction.class)) {
+                    txs.forEach(tx -> add(pending, tx));
+                }
+                archive.forEachOfAccount(account.getId(), tx -> add(pending, tx));
+
+                for (TransactionBucket b : pending.values()) {
+                    transactions += b.getCount();
+                }
+
+                if (transactions > before) accounts++;
+                buckets += write(pending);
+            }
+        }
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("accounts", accounts);
+        result.put("buckets", buckets);
+        result.put("transactions", transactions);
+
+        log.info("Bucket backfill done: {}", result);
+        return result;
+    }
+
+    private void add(Map<YearMonth, TransactionBucket> pending, Transaction tx) {
+
+        BucketEntry e = BucketEntry.of(tx);
+        if (e.getCategoryId() == null && e.getCategory() != null) {
+            e.setCategoryId(categories.idOf(tx.getUserId(), tx.getCategory()));
+        }
+
+        YearMonth month = YearMonth.from(tx.getCreatedAt());
+        pending.computeIfAbsent(month, m -> {
+            TransactionBucket b = new TransactionBucket();
+            b.setId(TransactionBucket.idOf(tx.getUserId(), tx.getAccountId(), m));
+            b.setUserId(tx.getUserId());
+            b.setAccountId(tx.getAccountId());
+            b.setStart(m.atDay(1).atStartOfDay());
+            return b;
+        }).add(e);
+    }
+
+    // replaces every bucket of the account in one go
+    private long write(Map<YearMonth, TransactionBucket> pending) {
+
+        if (pending.isEmpty()) return 0;
+
+        TransactionBucket any = pending.values().iterator().next();
+
+        mongoTemplate.remove(
+                Query.query(Criteria.where("userId").is(any.getUserId())
+                        .and("accountId").is(any.getAccountId())),
+                TransactionBucket.class
+        );
+        mongoTemplate.insertAll(pending.values());
+
+        long written = pending.size();
+        pending.clear();
+        return written;
+    }
+}
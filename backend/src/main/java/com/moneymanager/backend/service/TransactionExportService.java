@@ -0,0 +1,84 @@
+package com.moneymanager.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.moneymanager.backend.model.Transaction;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class TransactionExportService {
+
+    private final TransactionService transactionService;
+    private final ObjectWriter ndjsonWriter;
+    private final ObjectWriter csvWriter;
+
+    public TransactionExportService(TransactionService transactionService,
+                                    ObjectMapper objectMapper) {
+        this.transactionService = transactionService;
+
+        this.ndjsonWriter = objectMapper.writer()
+                .withRootValueSeparator("\n");
+
+        CsvMapper csvMapper = new CsvMapper();
+        csvMapper.findAndRegisterModules();
+        csvMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.csvWriter = csvMapper.writer(
+                csvMapper.schemaFor(Transaction.class)
+                        .sortedBy("id", "createdAt", "type", "direction",
+                                "amount", "category", "description",
+                                "accountId", "division", "groupId")
+                        .withHeader()
+        );
+    }
+
+    public String contentType(String format) {
+        return switch (format.toLowerCase()) {
+            case "csv" -> "text/csv";
+            case "ndjson" -> "application/x-ndjson";
+            default -> throw new RuntimeException("Unsupported format");
+        };
+    }
+
+    // a bad range has to fail here, while the response can still be a
+    // 400; once export() runs the 200 is already on the wire
+    public void checkRange(String from, String to) {
+        TransactionService.checkRange(from, to);
+    }
+
+    // =========================
+    // CURSOR -> OUTPUT, ROW BY ROW
+    // heap use does not depend on history size
+    // =========================
+    public void export(String userId,
+                       String format,
+                       String from,
+                       String to,
+                       boolean gzip,
+                       OutputStream out) throws IOException {
+
+        ObjectWriter writer = format.equalsIgnoreCase("csv")
+                ? csvWriter
+                : ndjsonWriter;
+
+        OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+
+        try (Stream<Transaction> rows =
+                     transactionService.streamBetweenDates(userId, from, to);
+             SequenceWriter sequence = writer.writeValues(target)) {
+
+            Iterator<Transaction> it = rows.iterator();
+            while (it.hasNext()) {
+                sequence.write(it.next());
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.moneymanager.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.moneymanager.backend.dto.BulkImportResult;
+import com.moneymanager.backend.dto.ImportRow;
+import com.moneymanager.backend.dto.ImportRowError;
+import com.moneymanager.backend.event.TransactionsChangedEvent;
+import com.moneymanager.backend.model.Account;
+import com.moneymanager.backend.model.Direction;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.TransactionType;
+import com.moneymanager.backend.repository.AccountBalanceOperations;
+import com.moneymanager.backend.repository.AccountRepository;
+import com.moneymanager.backend.repository.MongoUnitOfWork;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class TransactionImportService {
+
+    private final MongoTemplate mongoTemplate;
+    private final AccountRepository accountRepo;
+    private final AccountBalanceOperations balanceOps;
+    private final RollupService rollups;
+    private final ApplicationEventPublisher events;
+    private final CategoryDictionaryService categories;
+    private final MongoUnitOfWork unitOfWork;
+    private final ObjectReader ndjsonReader;
+    private final ObjectReader csvReader;
+
+    @Value("${import.batch-size}")
+    private int batchSize;
+
+    @Value("${import.max-errors}")
+    private int maxErrors;
+
+    public TransactionImportService(MongoTemplate mongoTemplate,
+                                    AccountRepository accountRepo,
+                                    AccountBalanceOperations balanceOps,
+                                    RollupService rollups,
+                                    ApplicationEventPublisher events,
+                                    CategoryDictionaryService categories,
+                                    MongoUnitOfWork unitOfWork,
+                                    ObjectMapper objectMapper) {
+        this.mongoTemplate = mongoTemplate;
+        this.accountRepo = accountRepo;
+        this.balanceOps = balanceOps;
+        this.rollups = rollups;
+        this.events = events;
+        this.categories = categories;
+        this.unitOfWork = unitOfWork;
+
+        this.ndjsonReader = objectMapper
+                .readerFor(ImportRow.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+        CsvMapper csvMapper = new CsvMapper();
+        csvMapper.findAndRegisterModules();
+        this.csvReader = csvMapper
+                .readerFor(ImportRow.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    public BulkImportResult importRows(String userId,
+                                       InputStream in,
+                                       String format) {
+
+        ObjectReader reader = switch (format.toLowerCase()) {
+            case "csv" -> csvReader;
+            case "ndjson" -> ndjsonReader;
+            default -> throw new RuntimeException("Unsupported format");
+        };
+
+        // balances are tracked in memory so expense rows can be
+        // checked without a read per row; long[1] cells in minor
+        // units, so rows are summed without boxing. Only a first
+        // check: each chunk's deltas are applied guarded again
+        Map<String, long[]> balances = new HashMap<>();
+        readBalances(userId, balances);
+
+        BulkImportResult result = new BulkImportResult();
+        List<Transaction> batch = new ArrayList<>(batchSize);
+        long[] batchRows = new long[batchSize];
+        Map<String, long[]> deltas = new HashMap<>();
+        long rowNo = 0;
+
+        try (MappingIterator<ImportRow> rows = reader.readValues(in)) {
+
+            while (rows.hasNextValue()) {
+
+                rowNo++;
+
+                ImportRow row;
+                try {
+                    row = rows.nextValue();
+                } catch (DatabindException e) {
+                    // bad value, the iterator resyncs on the next row
+                    reject(result, rowNo, e.getOriginalMessage());
+                    continue;
+                }
+
+                String error = validate(row, balances);
+                if (error != null) {
+                    reject(result, rowNo, error);
+                    continue;
+                }
+
+                long delta = row.getType() == TransactionType.INCOME
+                        ? row.getAmount()
+                        : -row.getAmount();
+
+                balances.get(row.getAccountId())[0] += delta;
+                deltas.computeIfAbsent(row.getAccountId(), id -> new long[1])[0] += delta;
+                batchRows[batch.size()] = rowNo;
+                batch.add(toTransaction(userId, row));
+
+                if (batch.size() >= batchSize) {
+                    flush(userId, batch, batchRows, deltas, balances, result);
+                }
+            }
+
+        } catch (JsonProcessingException e) {
+            // malformed input, nothing after this point can be trusted
+            reject(result, rowNo, "Unreadable input: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            reject(result, rowNo, "Unreadable input: " + e.getMessage());
+        }
+
+        flush(userId, batch, batchRows, deltas, balances, result);
+
+        if (result.getImported() > 0) {
+            events.publishEvent(new TransactionsChangedEvent(userId));
+        }
+        return result;
+    }
+
+    private String validate(ImportRow row, Map<String, long[]> balances) {
+
+        if (row.getType() != TransactionType.INCOME
+                && row.getType() != TransactionType.EXPENSE) {
+            return "Type must be income or expense";
+        }
+
+        if (row.getAmount() <= 0) {
+            return "Amount must be positive";
+        }
+
+        long[] balance = balances.get(row.getAccountId());
+
+        if (balance == null) {
+            return "Account not found";
+        }
+
+        if (row.getType() == TransactionType.EXPENSE && balance[0] < row.getAmount()) {
+            return "Insufficient balance";
+        }
+
+        return null;
+    }
+
+    private Transaction toTransaction(String userId, ImportRow row) {
+
+        Transaction tx = new Transaction(
+                userId,
+                row.getType(),
+                Direction.IN,
+                row.getAmount(),
+                row.getCategory(),
+                row.getDescription(),
+                row.getAccountId()
+        );
+        // assigned up front: bulk inserts do not write generated ids
+        // back, and bucket entries need them
+        tx.setId(new ObjectId().toHexString());
+        tx.setCategoryId(categories.idOf(userId, row.getCategory()));
+        tx.setDivision(row.getDivision());
+
+        if (row.getCreatedAt() != null) {
+            tx.setCreatedAt(row.getCreatedAt());
+        }
+
+        return tx;
+    }
+
+    // =========================
+    // ONE CHUNK = ONE UNIT OF WORK
+    // guarded $inc per account, then the bulk insert and the rollup
+    // delta; a balance spent concurrently since the snapshot rejects
+    // the whole chunk and nothing of it is written
+    // =========================
+    private void flush(String userId,
+                       List<Transaction> batch,
+                       long[] batchRows,
+                       Map<String, long[]> deltas,
+                       Map<String, long[]> balances,
+                       BulkImportResult result) {
+
+        if (batch.isEmpty()) return;
+
+        Map<String, Long> byAccount = new HashMap<>();
+        deltas.forEach((accountId, delta) -> byAccount.put(accountId, delta[0]));
+
+        boolean applied = unitOfWork.run(() -> {
+
+            if (!balanceOps.adjustAllGuarded(userId, byAccount)) {
+                return false;
+            }
+
+            RollupDelta delta = rollups.delta();
+
+            delta.write(userId, () -> mongoTemplate
+                    .bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class)
+                    .insert(batch)
+                    .execute());
+
+            batch.forEach(delta::add);
+            delta.flush();
+
+            return true;
+        });
+
+        if (applied) {
+            result.setImported(result.getImported() + batch.size());
+        } else {
+            for (int i = 0; i < batch.size(); i++) {
+                reject(result, batchRows[i], "Insufficient balance");
+            }
+            // the snapshot was stale, later rows check against fresh ones
+            readBalances(userId, balances);
+        }
+
+        batch.clear();
+        deltas.clear();
+    }
+
+    private void readBalances(String userId, Map<String, long[]> balances) {
+
+        balances.clear();
+        for (Account a : accountRepo.findByUserId(userId)) {
+            balances.put(a.getId(), new long[]{a.getBalance()});
+        }
+    }
+
+    private void reject(BulkImportResult result, long row, String message) {
+
+        result.setFailed(result.getFailed() + 1);
+
+        // keep the response bounded for huge, mostly broken files
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(new ImportRowError(row, message));
+        }
+    }
+}
@@ -1,308 +1,346 @@
 package com.moneymanager.backend.service;
 
+import com.moneymanager.backend.config.CacheConfig;
 import com.moneymanager.backend.dto.TransactionRequest;
+import com.moneymanager.backend.dto.TransactionSlice;
+import com.moneymanager.backend.model.Direction;
+import com.moneymanager.backend.model.Division;
+import com.moneymanager.backend.model.Money;
 import com.moneymanager.backend.model.Transaction;
-import com.moneymanager.backend.model.Account;
+import com.moneymanager.backend.model.TransactionType;
 import com.moneymanager.backend.repository.TransactionRepository;
-import com.moneymanager.backend.repository.AccountRepository;
+import com.moneymanager.backend.repository.AccountBalanceOperations;
+import com.moneymanager.backend.repository.MongoUnitOfWork;
+import com.moneymanager.backend.event.AccountsChangedEvent;
+import com.moneymanager.backend.event.TransactionsChangedEvent;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "moneymanager.service", histogram = true)
 public class TransactionService {
 
+    // edits only within this long after creation; older rows may move
+    // to the archive (TransactionArchiveService)
+    static final Duration EDIT_WINDOW = Duration.ofHours(12);
+
     private final TransactionRepository repo;
-    private final AccountRepository accountRepo;
+    private final AccountBalanceOperations balanceOps;
+    private final RollupService rollups;
+    private final ApplicationEventPublisher events;
+    private final MongoUnitOfWork unitOfWork;
+    private final CategoryDictionaryService categories;
+    private final TransactionStore store;
+    private final TransactionArchiveService archive;
 
     public TransactionService(TransactionRepository repo,
-                              AccountRepository accountRepo) {
+                              AccountBalanceOperations balanceOps,
+                              RollupService rollups,
+                              ApplicationEventPublisher events,
+                              MongoUnitOfWork unitOfWork,
+                              CategoryDictionaryService categories,
+                              TransactionStore store,
+                              TransactionArchiveService archive) {
         this.repo = repo;
-        this.accountRepo = accountRepo;
+        this.balanceOps = balanceOps;
+        this.rollups = rollups;
+        this.events = events;
+        this.unitOfWork = unitOfWork;
+        this.categories = categories;
+        this.store = store;
+        this.archive = archive;
     }
 
+    // Write paths run inside unitOfWork (balance $inc, transaction
+    // document and rollup delta commit together) and publish their
+    // cache events only once it has committed.
+
     public Transaction create(String userId, TransactionRequest request) {
+        return create(userId, request, saved -> { });
+    }
 
-        // 1️⃣ Load account
-        Account account = accountRepo
-                .findById(request.getAccountId())
-                .orElseThrow(() ->
-                        new RuntimeException("Account not found"));
+    // committed: called with the saved transaction inside the unit of
+    // work, e.g. to complete an idempotency key along with it
+    public Transaction create(String userId,
+                              TransactionRequest request,
+                              Consumer<Transaction> committed) {
 
-        // 2️⃣ Ownership check
-        if (!account.getUserId().equals(userId)) {
-            throw new RuntimeException("Unauthorized account");
+        if (request.getType() == null) {
+            throw new RuntimeException("Type is required");
         }
 
-        // 3️⃣ Balance rules
-        if (request.getType().equals("expense")
-                && account.getBalance() < request.getAmount()) {
-            throw new RuntimeException("Insufficient balance");
-        }
+        // resolved outside the unit of work, a rolled back append
+        // must not leave a cached id behind
+        Integer categoryId = categories.idOf(userId, request.getCategory());
+
+        Transaction saved = unitOfWork.run(() -> {
+            Transaction tx = applyCreate(userId, request, categoryId);
+            committed.accept(tx);
+            return tx;
+        });
+
+        events.publishEvent(new TransactionsChangedEvent(userId));
+        return saved;
+    }
 
-        // 4️⃣ Update account balance
-        if (request.getType().equals("income")) {
-            account.setBalance(
-                    account.getBalance() + request.getAmount()
+    private Transaction applyCreate(String userId,
+                                    TransactionRequest request,
+                                    Integer categoryId) {
+
+        // 1️⃣ Ownership check, balance rules and balance update
+        //    in one atomic $inc
+        if (request.getType() == TransactionType.INCOME) {
+            balanceOps.credit(
+                    userId, request.getAccountId(), request.getAmount()
             );
         } else {
-            account.setBalance(
-                    account.getBalance() - request.getAmount()
+            balanceOps.debit(
+                    userId, request.getAccountId(), request.getAmount()
             );
         }
 
-        accountRepo.save(account);
-
-        // 5️⃣ Save transaction
+        // 2️⃣ Save transaction
         Transaction tx = new Transaction(
                 userId,
                 request.getType(),
-                "IN",
+                Direction.IN,
                 request.getAmount(),
                 request.getCategory(),
                 request.getDescription(),
                 request.getAccountId()
         );
+        tx.setCategoryId(categoryId);
         tx.setDivision(request.getDivision());
 
-        return repo.save(tx);
+        RollupDelta delta = rollups.delta();
+        Transaction saved = delta.write(userId, () -> repo.save(tx));
+        delta.add(saved).flush();
+
+        return saved;
     }
 
     public List<Transaction> getUserTransactions(String userId) {
-        return repo.findByUserIdAndDeletedFalse(userId);
+        return withArchived(
+                repo.findByUserIdAndDeletedFalse(userId),
+                archive.findBetween(userId, null, null)
+        );
     }
 
     public Transaction update(String userId,
                               String txId,
                               TransactionRequest request) {
 
+        Integer categoryId = categories.idOf(userId, request.getCategory());
+
+        Transaction updated = unitOfWork.run(
+                () -> applyUpdate(userId, txId, request, categoryId)
+        );
+
+        // transfers never count in summaries
+        if (updated.getType() == TransactionType.TRANSFER) {
+            events.publishEvent(new AccountsChangedEvent(userId));
+        } else {
+            events.publishEvent(new TransactionsChangedEvent(userId));
+        }
+
+        return updated;
+    }
+
+    private Transaction applyUpdate(String userId,
+                                    String txId,
+                                    TransactionRequest request,
+                                    Integer categoryId) {
+
         Transaction tx = repo.findById(txId)
                 .orElseThrow(() -> new RuntimeException("Not found"));
 
         if (!tx.getUserId().equals(userId))
             throw new RuntimeException("Unauthorized");
 
-        long minutes = java.time.Duration
-                .between(tx.getCreatedAt(), java.time.LocalDateTime.now())
-                .toMinutes();
-
-        if (minutes > 720)
+        if (tx.getCreatedAt().plus(EDIT_WINDOW).isBefore(LocalDateTime.now()))
             throw new RuntimeException("Edit window expired");
 
         // ============================
         // TRANSFER UPDATE
         // ============================
-        if (tx.getType().equals("transfer")) {
-
-            List<Transaction> pair =
-                    repo.findByGroupId(tx.getGroupId());
-
-            for (Transaction t : pair) {
+        if (tx.getType() == TransactionType.TRANSFER) {
 
-                Account acc = accountRepo
-                        .findById(t.getAccountId())
-                        .orElseThrow();
+            TransactionBatch batch = batch();
+            Transaction edited = tx;
 
-                // reverse old
-                if (t.getDirection().equals("OUT")) {
-                    acc.setBalance(acc.getBalance() + t.getAmount());
-                } else {
-                    acc.setBalance(acc.getBalance() - t.getAmount());
-                }
-
-                // apply new
-                if (t.getDirection().equals("OUT")) {
-                    acc.setBalance(acc.getBalance() - request.getAmount());
-                } else {
-                    acc.setBalance(acc.getBalance() + request.getAmount());
-                }
-
-                t.setAmount(request.getAmount());
-
-                accountRepo.save(acc);
-                repo.save(t);
+            for (Transaction t : repo.findByGroupId(tx.getGroupId())) {
+                batch.change(t, leg -> leg.setAmount(request.getAmount()));
+                if (t.getId().equals(txId)) edited = t;
             }
 
-            return tx;
+            batch.flush();
+            return edited;
         }
 
         // ============================
         // INCOME / EXPENSE UPDATE
         // ============================
 
-        Account account = accountRepo
-                .findById(tx.getAccountId())
-                .orElseThrow();
+        batch().change(tx, t -> {
+            t.setAmount(request.getAmount());
+            t.setCategory(request.getCategory());
+            t.setCategoryId(categoryId);
+            t.setDescription(request.getDescription());
+        }).flush();
 
-        // reverse old
-        if (tx.getType().equals("income")) {
-            account.setBalance(account.getBalance() - tx.getAmount());
-        } else {
-            account.setBalance(account.getBalance() + tx.getAmount());
-        }
-
-        // apply new
-        if (tx.getType().equals("income")) {
-            account.setBalance(account.getBalance() + request.getAmount());
-        } else {
-            account.setBalance(account.getBalance() - request.getAmount());
-        }
-
-        tx.setAmount(request.getAmount());
-        tx.setCategory(request.getCategory());
-        tx.setDescription(request.getDescription());
-
-        accountRepo.save(account);
-        return repo.save(tx);
+        return tx;
     }
 
 
 
-    public Map<String, Double> getSummary(String userId) {
-
-        List<Transaction> list = repo.findByUserIdAndDeletedFalse(userId);
+    @Cacheable(cacheNames = CacheConfig.SUMMARY, key = "#userId")
+    public Map<String, BigDecimal> getSummary(String userId) {
 
-        double income = 0;
-        double expense = 0;
-
-        for (Transaction t : list) {
-            if (t.getType().equals("income")) {
-                income += t.getAmount();
-            }
-            else if (t.getType().equals("expense")) {
-                expense += t.getAmount();
-            }
-            // transfer is intentionally ignored
-        }
+        // transfer is intentionally ignored
+        return rollups.summary(userId);
+    }
 
+    public void delete(String userId, String id) {
 
-        Map<String, Double> result = new HashMap<>();
-        result.put("income", income);
-        result.put("expense", expense);
-        result.put("balance", income - expense);
+        boolean transfer = unitOfWork.run(() -> applyDelete(userId, id));
 
-        return result;
+        if (transfer) {
+            events.publishEvent(new AccountsChangedEvent(userId));
+        } else {
+            events.publishEvent(new TransactionsChangedEvent(userId));
+        }
     }
 
-    public void delete(String userId, String id) {
+    // returns whether a transfer pair was deleted
+    private boolean applyDelete(String userId, String id) {
 
+        // archived rows move back to the hot collection to be deleted
         Transaction tx = repo.findById(id)
-                .orElseThrow(() -> new RuntimeException("Not found"));
+                .orElseGet(() -> archive.unarchive(userId, id));
+
+        if (tx == null) {
+            throw new RuntimeException("Not found");
+        }
 
         if (!tx.getUserId().equals(userId)) {
             throw new RuntimeException("Forbidden");
         }
 
         // If transfer → delete both sides
-        if (tx.getType().equals("transfer") && tx.getGroupId() != null) {
-
-            List<Transaction> pair =
-                    repo.findByGroupIdAndDeletedFalse(tx.getGroupId());
+        boolean transfer = tx.getType() == TransactionType.TRANSFER
+                && tx.getGroupId() != null;
 
-            for (Transaction t : pair) {
-                deleteSingle(t);
-            }
-            return;
+        // the other leg may have been archived first
+        if (transfer) {
+            archive.unarchiveGroup(tx.getGroupId());
         }
 
-        deleteSingle(tx);
-    }
+        List<Transaction> targets = transfer
+                ? repo.findByGroupIdAndDeletedFalse(tx.getGroupId())
+                : List.of(tx);
 
-    private void deleteSingle(Transaction tx) {
+        TransactionBatch batch = batch();
+        LocalDateTime now = LocalDateTime.now();
 
-        Account account = accountRepo.findById(tx.getAccountId())
-                .orElseThrow(() -> new RuntimeException("Account not found"));
+        // deletedAt starts the trash retention (TrashPurgeService)
+        for (Transaction t : targets) {
+            if (!t.isDeleted()) batch.change(t, d -> {
+                d.setDeleted(true);
+                d.setDeletedAt(now);
+            });
+        }
 
-        if (tx.getType().equals("transfer")) {
+        batch.flush();
+        return transfer;
+    }
 
-            if (tx.getDirection().equals("OUT")) {
-                account.setBalance(account.getBalance() + tx.getAmount());
-            } else {
-                account.setBalance(account.getBalance() - tx.getAmount());
-            }
+    public void restore(String userId, String id) {
 
-        } else if (tx.getType().equals("income")) {
+        Boolean transfer = unitOfWork.run(() -> applyRestore(userId, id));
 
-            account.setBalance(account.getBalance() - tx.getAmount());
+        if (transfer == null) return;
 
+        if (transfer) {
+            events.publishEvent(new AccountsChangedEvent(userId));
         } else {
-
-            account.setBalance(account.getBalance() + tx.getAmount());
+            events.publishEvent(new TransactionsChangedEvent(userId));
         }
+    }
 
-        accountRepo.save(account);
-        tx.setDeleted(true);
-        repo.save(tx);
+    // returns whether a transfer pair was restored,
+    // null when there was nothing to restore
+    private Boolean applyRestore(String userId, String id) {
 
-    }
+        Transaction tx = repo.findById(id).orElse(null);
 
-    public void restore(String userId, String id) {
+        // only live rows are archived, nothing to restore
+        if (tx == null && archive.contains(userId, id)) return null;
 
-        Transaction tx = repo.findById(id)
-                .orElseThrow(() -> new RuntimeException("Not found"));
+        if (tx == null) {
+            throw new RuntimeException("Not found");
+        }
 
         if (!tx.getUserId().equals(userId))
             throw new RuntimeException("Forbidden");
 
-        if (!tx.isDeleted()) return;
+        if (!tx.isDeleted()) return null;
 
         // ===========================
         // TRANSFER RESTORE
         // ===========================
-        if (tx.getType().equals("transfer") && tx.getGroupId() != null) {
-
-            List<Transaction> pair =
-                    repo.findByGroupId(tx.getGroupId());
-
-            for (Transaction t : pair) {
-
-                if (!t.isDeleted()) continue;
-
-                Account acc = accountRepo
-                        .findById(t.getAccountId())
-                        .orElseThrow();
+        if (tx.getType() == TransactionType.TRANSFER && tx.getGroupId() != null) {
 
-                if (t.getDirection().equals("OUT")) {
-                    acc.setBalance(acc.getBalance() - t.getAmount());
-                } else {
-                    acc.setBalance(acc.getBalance() + t.getAmount());
-                }
+            TransactionBatch batch = batch();
 
-                t.setDeleted(false);
-                accountRepo.save(acc);
-                repo.save(t);
+            for (Transaction t : repo.findByGroupId(tx.getGroupId())) {
+                if (t.isDeleted()) batch.change(t, TransactionService::undelete);
             }
 
-            return;
+            batch.flush();
+            return true;
         }
 
         // ===========================
         // INCOME / EXPENSE RESTORE
         // ===========================
 
-        Account acc = accountRepo
-                .findById(tx.getAccountId())
-                .orElseThrow();
+        batch().change(tx, TransactionService::undelete).flush();
 
-        if (tx.getType().equals("income")) {
-            acc.setBalance(acc.getBalance() + tx.getAmount());
-        }
-        else {
-            acc.setBalance(acc.getBalance() - tx.getAmount());
-        }
+        return false;
+    }
 
+    private static void undelete(Transaction tx) {
         tx.setDeleted(false);
-        accountRepo.save(acc);
-        repo.save(tx);
+        tx.setDeletedAt(null);
+    }
+
+    // balance, transaction and rollup writes of an edit, batched
+    private TransactionBatch batch() {
+        return new TransactionBatch(balanceOps, repo, rollups.delta());
     }
 
     public List<Transaction> getDeleted(String userId) {
-        return repo.findByUserIdAndDeletedTrue(userId);
+        return repo.findByUserIdAndDeletedTrueOrderByDeletedAtDesc(userId);
     }
 
     public Map<String, Object> getReport(
@@ -311,141 +349,162 @@ public class TransactionService {
             String to
     ) {
 
-        LocalDate start = LocalDate.parse(from);
-        LocalDate end = LocalDate.parse(to);
-
-        List<Transaction> list =
-                repo.findByUserIdAndDeletedFalse(userId);
-
-        double income = 0;
-        double expense = 0;
-
-        Map<String, Double> categoryMap = new HashMap<>();
-
-        for (Transaction t : list) {
+        LocalDateTime start = LocalDate.parse(from).atStartOfDay();
+        LocalDateTime end = LocalDate.parse(to).plusDays(1).atStartOfDay();
 
-            LocalDate txDate =
-                    t.getCreatedAt().toLocalDate();
+        Map<String, Long> byType = store.sumAmountByType(userId, start, end);
 
-            if (txDate.isBefore(start) || txDate.isAfter(end))
-                continue;
+        Map<String, Object> result = new HashMap<>(totals(
+                byType.getOrDefault(TransactionType.INCOME.value(), 0L),
+                byType.getOrDefault(TransactionType.EXPENSE.value(), 0L)
+        ));
 
-            if (t.getType().equals("income")) {
-                income += t.getAmount();
-            }
-
-            else if (t.getType().equals("expense")) {
-                expense += t.getAmount();
-
-                categoryMap.put(
-                        t.getCategory(),
-                        categoryMap.getOrDefault(
-                                t.getCategory(), 0.0
-                        ) + t.getAmount()
-                );
-            }
-        }
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("income", income);
-        result.put("expense", expense);
-        result.put("balance", income - expense);
-        result.put("categories", categoryMap);
+        Map<String, BigDecimal> categories = new HashMap<>();
+        store.sumExpenseByCategory(userId, start, end).forEach(
+                (category, total) -> categories.put(category, Money.toMajor(total))
+        );
+        result.put("categories", categories);
 
         return result;
     }
 
-    public Map<String, Double> getSummaryByPeriod(
+    @Cacheable(
+            cacheNames = CacheConfig.PERIOD_SUMMARY,
+            key = "#userId + ':' + #period.toLowerCase()",
+            condition = "T(com.moneymanager.backend.config.CacheConfig)"
+                    + ".PERIODS.contains(#period.toLowerCase())"
+    )
+    public Map<String, BigDecimal> getSummaryByPeriod(
             String userId,
             String period
     ) {
+        return rollups.periodSummary(userId, period);
+    }
 
-        List<Transaction> list =
-                repo.findByUserIdAndDeletedFalse(userId);
-
-        LocalDate today = LocalDate.now();
-
-        double income = 0;
-        double expense = 0;
-
-        for (Transaction t : list) {
-
-            LocalDate d = t.getCreatedAt().toLocalDate();
-
-            boolean match = switch (period.toLowerCase()) {
-                case "week" ->
-                        d.isAfter(today.minusDays(7));
-                case "year" ->
-                        d.getYear() == today.getYear();
-                default -> // month
-                        d.getMonth() == today.getMonth()
-                                && d.getYear() == today.getYear();
-            };
+    public List<Transaction> getByDivision(
+            String userId,
+            String division
+    ) {
+        Division d = Division.from(division);
 
-            if (!match) continue;
+        return withArchived(
+                repo.findByUserIdAndDivisionAndDeletedFalse(userId, d),
+                archive.findByDivision(userId, d)
+        );
+    }
 
-            if (t.getType().equals("income"))
-                income += t.getAmount();
-            else if (t.getType().equals("expense"))
-                expense += t.getAmount();
-        }
+    public List<Transaction> betweenDates(
+            String userId,
+            String from,
+            String to
+    ) {
+        Range<LocalDateTime> range = dayRange(from, to);
 
-        Map<String, Double> result = new HashMap<>();
-        result.put("income", income);
-        result.put("expense", expense);
-        result.put("balance", income - expense);
-        return result;
+        return store.findBetween(
+                userId,
+                range.getLowerBound().getValue().orElseThrow(),
+                range.getUpperBound().getValue().orElseThrow()
+        );
     }
 
-    public List<Transaction> getByDivision(
+    // hot collection only, like getPaged
+    public Page<Transaction> betweenDatesPaged(
             String userId,
-            String division
+            String from,
+            String to,
+            int page,
+            int size
     ) {
-        return repo.findByUserIdAndDivisionAndDeletedFalse(
-                userId, division
+        return repo.findByUserIdAndDeletedFalseAndCreatedAtBetween(
+                userId,
+                dayRange(from, to),
+                PageRequest.of(page, size,
+                        Sort.by(Sort.Direction.DESC, "createdAt"))
         );
     }
 
-    public List<Transaction> betweenDates(
+    // cursor-backed, caller must close the stream
+    public Stream<Transaction> streamBetweenDates(
             String userId,
             String from,
             String to
     ) {
 
-        LocalDate start = LocalDate.parse(from);
-        LocalDate end = LocalDate.parse(to);
-
-        return repo.findByUserIdAndDeletedFalse(userId)
-                .stream()
-                .filter(t -> {
-                    LocalDate d =
-                            t.getCreatedAt().toLocalDate();
-                    return !d.isBefore(start)
-                            && !d.isAfter(end);
-                })
-                .toList();
+        Sort sort = Sort.by(Sort.Direction.ASC, "createdAt");
+
+        if (from == null && to == null) {
+            return Stream.concat(
+                    archive.streamBetween(userId, null, null),
+                    repo.streamByUserIdAndDeletedFalse(userId, sort)
+            );
+        }
+
+        checkRange(from, to);
+
+        Range<LocalDateTime> range = dayRange(from, to);
+
+        // archived rows first, both cursors close with the stream
+        return Stream.concat(
+                archive.streamBetween(
+                        userId,
+                        range.getLowerBound().getValue().orElseThrow(),
+                        range.getUpperBound().getValue().orElseThrow()
+                ),
+                repo.streamByUserIdAndDeletedFalseAndCreatedAtBetween(
+                        userId, range, sort
+                )
+        );
     }
 
-    public Map<String, Double> categorySummary(String userId) {
+    private static List<Transaction> withArchived(List<Transaction> hot,
+                                                  List<Transaction> cold) {
+
+        if (cold.isEmpty()) return hot;
 
-        Map<String, Double> map = new HashMap<>();
+        List<Transaction> all = new ArrayList<>(hot.size() + cold.size());
+        all.addAll(hot);
+        all.addAll(cold);
+        return all;
+    }
 
-        List<Transaction> list =
-                repo.findByUserIdAndDeletedFalse(userId);
+    // what streamBetweenDates refuses, for callers that must fail
+    // before a response is committed (the streaming export)
+    public static void checkRange(String from, String to) {
 
-        for (Transaction t : list) {
-            if (t.getType().equals("expense")) {
-                map.put(
-                        t.getCategory(),
-                        map.getOrDefault(
-                                t.getCategory(), 0.0
-                        ) + t.getAmount()
-                );
-            }
+        if (from == null && to == null) return;
+
+        if (from == null || to == null) {
+            throw new RuntimeException("Both from and to are required");
         }
-        return map;
+
+        dayRange(from, to);
     }
 
+    // [from 00:00, to + 1 day 00:00)
+    static Range<LocalDateTime> dayRange(String from, String to) {
+        return Range.rightOpen(
+                LocalDate.parse(from).atStartOfDay(),
+                LocalDate.parse(to).plusDays(1).atStartOfDay()
+        );
+    }
+
+    @Cacheable(cacheNames = CacheConfig.CATEGORY_SUMMARY, key = "#userId")
+    public Map<String, BigDecimal> categorySummary(String userId) {
+        return rollups.categorySummary(userId);
+    }
+
+    // income / expense / balance as decimals from minor-unit sums
+    static Map<String, BigDecimal> totals(long income, long expense) {
+
+        Map<String, BigDecimal> result = new HashMap<>();
+        result.put("income", Money.toMajor(income));
+        result.put("expense", Money.toMajor(expense));
+        result.put("balance", Money.toMajor(income - expense));
+        return result;
+    }
+
+    // hot collection only, see TransactionArchiveService;
+    // /scroll includes archived history
     public Page<Transaction> getPaged(
             String userId,
             int page,
@@ -457,4 +516,61 @@ public class TransactionService {
         );
     }
 
+    // =========================
+    // KEYSET PAGINATION
+    // =========================
+    public TransactionSlice scroll(
+            String userId,
+            String cursor,
+            int size
+    ) {
+
+        LocalDateTime createdAt = null;
+        String id = null;
+
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            createdAt = LocalDateTime.parse(parts[0]);
+            id = parts[1];
+        }
+
+        Slice<Transaction> slice =
+                repo.findLiveSlice(userId, createdAt, id, size);
+
+        // archived history continues where the hot rows end
+        List<Transaction> rows = archive.mergeSlice(
+                userId, createdAt, id, slice.getContent(), slice.hasNext(), size);
+
+        boolean hasNext = slice.hasNext() || rows.size() > size;
+        if (rows.size() > size) rows = rows.subList(0, size);
+
+        String next = null;
+        if (hasNext) {
+            next = encodeCursor(rows.get(rows.size() - 1));
+        }
+
+        return new TransactionSlice(rows, next, hasNext);
+    }
+
+    // opaque to clients: base64url("createdAt|id")
+    private String encodeCursor(Transaction tx) {
+        String raw = tx.getCreatedAt() + "|" + tx.getId();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(
+                    Base64.getUrlDecoder().decode(cursor),
+                    StandardCharsets.UTF_8
+            );
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2) throw new IllegalArgumentException();
+            LocalDateTime.parse(parts[0]);
+            return parts;
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
 }
@@ -0,0 +1,28 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.model.BucketEntry;
+import com.moneymanager.backend.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Storage layout for range reads (reports, date ranges). The flat
+// transactions collection is always written and stays the source of
+// truth; a layout may keep its own copy in step through apply().
+// Sums are in minor units, ranges are [from, to).
+public interface TransactionStore {
+
+    Map<String, Long> sumAmountByType(String userId, LocalDateTime from, LocalDateTime to);
+
+    Map<String, Long> sumExpenseByCategory(String userId, LocalDateTime from, LocalDateTime to);
+
+    // live transactions, oldest first
+    List<Transaction> findBetween(String userId, LocalDateTime from, LocalDateTime to);
+
+    // whether apply() needs to be called at all
+    boolean tracksWrites();
+
+    // removed first, then added; an update is a remove plus an add
+    void apply(List<BucketEntry> removed, List<BucketEntry> added);
+}
@@ -0,0 +1,141 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.metrics.IndexSizeMetrics;
+import com.moneymanager.backend.model.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Hard-deletes transactions that have been in the trash longer than
+// trash.retention-days. Trash has no effect on balances or rollups, so
+// removing it changes nothing but storage. Runs in batches of ids off
+// the trash_expiry partial index, so each delete is short and indexed.
+@Service
+public class TrashPurgeService {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(TrashPurgeService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final IndexSizeMetrics indexSizes;
+    private final Duration retention;
+    private final int batchSize;
+
+    private final Timer duration;
+    private final Counter purged;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public TrashPurgeService(MongoTemplate mongoTemplate,
+                             IndexSizeMetrics indexSizes,
+                             @Value("${trash.retention-days}") long retentionDays,
+                             @Value("${trash.purge.batch-size}") int batchSize,
+                             MeterRegistry registry) {
+        this.mongoTemplate = mongoTemplate;
+        this.indexSizes = indexSizes;
+        this.retention = Duration.ofDays(retentionDays);
+        this.batchSize = batchSize;
+
+        this.duration = Timer.builder("moneymanager.trash.purge")
+                .register(registry);
+        this.purged = Counter.builder("moneymanager.trash.purged")
+                .register(registry);
+    }
+
+    // disabled when trash.purge.cron is "-"
+    @Scheduled(cron = "${trash.purge.cron}")
+    public void scheduled() {
+        purge();
+    }
+
+    public Map<String, Object> purge() {
+
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Trash purge already running");
+        }
+
+        try {
+            return duration.record(this::purgeExpired);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Map<String, Object> purgeExpired() {
+
+        long started = System.nanoTime();
+        long indexBytesBefore = indexSizes.refresh().get("transactions");
+
+        // trash from before deletedAt existed starts its retention now
+        long stamped = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("deleted").is(true)
+                        .and("deletedAt").exists(false)),
+                new Update().set("deletedAt", LocalDateTime.now()),
+                Transaction.class
+        ).getModifiedCount();
+
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+
+        Query expired = Query.query(Criteria.where("deleted").is(true)
+                        .and("deletedAt").lt(cutoff))
+                .limit(batchSize);
+        expired.fields().include("_id");
+
+        long removed = 0;
+        long batches = 0;
+
+        while (true) {
+
+            List<Object> ids = mongoTemplate.find(expired, Transaction.class)
+                    .stream()
+                    .map(tx -> (Object) tx.getId())
+                    .toList();
+
+            if (ids.isEmpty()) break;
+
+            // re-checked: a restore (or restore and delete) in
+            // between keeps the row
+            long n = mongoTemplate.remove(
+                    Query.query(Criteria.where("_id").in(ids)
+                            .and("deleted").is(true)
+                            .and("deletedAt").lt(cutoff)),
+                    Transaction.class
+            ).getDeletedCount();
+
+            removed += n;
+            batches++;
+            purged.increment(n);
+        }
+
+        // WiredTiger reuses the freed pages, the files only shrink
+        // after a compact; the gauge shows what the indexes hold now
+        long indexBytesAfter = indexSizes.refresh().get("transactions");
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("stamped", stamped);
+        result.put("purged", removed);
+        result.put("batches", batches);
+        result.put("durationMs", (System.nanoTime() - started) / 1_000_000);
+        result.put("indexBytesBefore", indexBytesBefore);
+        result.put("indexBytesAfter", indexBytesAfter);
+
+        log.info("Trash purge done: {}", result);
+        return result;
+    }
+}
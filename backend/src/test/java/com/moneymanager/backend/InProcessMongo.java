@@ -0,0 +1,129 @@
+package com.moneymanager.backend;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.moneymanager.backend.config.MongoConfig;
+import com.moneymanager.backend.model.Account;
+import com.moneymanager.backend.repository.AccountBalanceOperations;
+import com.moneymanager.backend.repository.AccountRepository;
+import com.moneymanager.backend.repository.MongoUnitOfWork;
+import com.moneymanager.backend.repository.TransactionRepository;
+import com.moneymanager.backend.repository.TransactionRepositoryImpl;
+import com.moneymanager.backend.service.AccountService;
+import com.moneymanager.backend.service.CategoryDictionaryService;
+import com.moneymanager.backend.service.FlatTransactionStore;
+import com.moneymanager.backend.service.RollupService;
+import com.moneymanager.backend.service.TransactionArchiveService;
+import com.moneymanager.backend.service.TransactionService;
+import com.moneymanager.backend.service.TransactionStore;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+// mongo-java-server in the test JVM with the services wired by hand,
+// the way the application wires them with the default settings (flat
+// layout, inline rollups, no archiving, no Mongo transactions).
+public final class InProcessMongo implements AutoCloseable {
+
+    public final MongoTemplate template;
+    public final MeterRegistry registry = new SimpleMeterRegistry();
+
+    public final TransactionRepository transactions;
+    public final AccountRepository accounts;
+    public final RollupService rollups;
+    public final TransactionService transactionService;
+    public final AccountService accountService;
+
+    private final MongoServer server;
+    private final MongoClient client;
+
+    public InProcessMongo(CommandListener... listeners) {
+
+        server = new MongoServer(new MemoryBackend());
+        server.bind("localhost", 0);
+
+        MongoClientSettings.Builder settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(
+                        "mongodb://localhost:" + server.getLocalAddress().getPort()));
+        for (CommandListener listener : listeners) {
+            settings.addCommandListener(listener);
+        }
+        client = MongoClients.create(settings.build());
+
+        MongoDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(client, "moneymanager_test");
+        template = new MongoTemplate(factory, converter(factory));
+
+        MongoUnitOfWork unitOfWork = new MongoUnitOfWork(
+                new StaticListableBeanFactory().getBeanProvider(MongoTransactionManager.class),
+                5, 10, registry);
+
+        transactions = new MongoRepositoryFactory(template).getRepository(
+                TransactionRepository.class,
+                RepositoryFragments.just(new TransactionRepositoryImpl(template, registry)));
+        accounts = new MongoRepositoryFactory(template).getRepository(AccountRepository.class);
+
+        CategoryDictionaryService categories = new CategoryDictionaryService(template);
+        TransactionArchiveService archive =
+                new TransactionArchiveService(template, unitOfWork, 0, 1000, registry);
+        TransactionStore store = new FlatTransactionStore(transactions, archive);
+        rollups = new RollupService(
+                template, event -> { }, categories, store, archive, unitOfWork, "inline", registry);
+        AccountBalanceOperations balanceOps = new AccountBalanceOperations(template);
+
+        transactionService = new TransactionService(
+                transactions, balanceOps, rollups, event -> { },
+                unitOfWork, categories, store, archive);
+        accountService = new AccountService(
+                accounts, transactions, balanceOps, rollups, event -> { }, unitOfWork);
+    }
+
+    public Account insertAccount(String userId, String name, long balance) {
+
+        Account account = new Account();
+        account.setUserId(userId);
+        account.setName(name);
+        account.setBalance(balance);
+        return template.insert(account);
+    }
+
+    public long balance(String accountId) {
+        return template.findById(accountId, Account.class).getBalance();
+    }
+
+    @Override
+    public void close() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    // as Boot configures it, with the backend's conversions
+    private static MappingMongoConverter converter(MongoDatabaseFactory factory) {
+
+        MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+
+        MappingMongoConverter converter =
+                new MappingMongoConverter(new DefaultDbRefResolver(factory), context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
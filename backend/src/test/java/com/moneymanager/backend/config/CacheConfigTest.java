@@ -0,0 +1,126 @@
+package com.moneymanager.backend.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A summary read that started before a write and finishes after the
+// write's eviction must not put what it read back into the cache.
+class CacheConfigTest {
+
+    private static final String USER = "user-1";
+
+    private AnnotationConfigApplicationContext context;
+    private Summaries summaries;
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(Beans.class);
+        summaries = context.getBean(Summaries.class);
+        cacheManager = context.getBean(CacheManager.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void cachesUntilEvicted() {
+
+        assertEquals("before", summaries.summary(USER));
+
+        summaries.store("after");
+        assertEquals("before", summaries.summary(USER));
+
+        cacheManager.getCache(CacheConfig.SUMMARY).evict(USER);
+        assertEquals("after", summaries.summary(USER));
+    }
+
+    @Test
+    void evictDuringLoadIsNotUndoneByItsRefill() throws Exception {
+
+        summaries.pause(true);
+
+        // reads "before", then waits in the method
+        CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> summaries.summary(USER));
+        assertTrue(summaries.awaitRead());
+
+        // the write and its eviction land meanwhile
+        summaries.store("after");
+        cacheManager.getCache(CacheConfig.SUMMARY).evict(USER);
+
+        summaries.resume();
+        assertEquals("before", slow.get(10, TimeUnit.SECONDS));
+
+        summaries.pause(false);
+        assertEquals("after", summaries.summary(USER));
+    }
+
+    @Configuration
+    @Import(CacheConfig.class)
+    static class Beans {
+
+        @Bean
+        Summaries summaries() {
+            return new Summaries();
+        }
+    }
+
+    // a proxy, so the test only goes through methods
+    static class Summaries {
+
+        private final CountDownLatch read = new CountDownLatch(1);
+        private final CountDownLatch resume = new CountDownLatch(1);
+
+        private volatile String stored = "before";
+        private volatile boolean pause;
+
+        public void store(String value) {
+            stored = value;
+        }
+
+        public void pause(boolean on) {
+            pause = on;
+        }
+
+        public boolean awaitRead() throws InterruptedException {
+            return read.await(10, TimeUnit.SECONDS);
+        }
+
+        public void resume() {
+            resume.countDown();
+        }
+
+        @Cacheable(cacheNames = CacheConfig.SUMMARY, key = "#userId")
+        public String summary(String userId) {
+
+            String value = stored;
+
+            if (pause) {
+                read.countDown();
+                try {
+                    resume.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            return value;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.moneymanager.backend.config;
+
+import com.moneymanager.backend.InProcessMongo;
+import com.moneymanager.backend.model.Division;
+import com.moneymanager.backend.model.Transaction;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Divisions were free strings before the enum; rows still holding the
+// old spellings must read, not fail the whole query.
+class MongoConfigTest {
+
+    private InProcessMongo mongo;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new InProcessMongo();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void readsStoredDivisions() {
+
+        assertEquals(Division.OFFICE, read("office"));
+        assertEquals(Division.PERSONAL, read("Personal"));
+        assertEquals(Division.OFFICE, read("OFFICE"));
+        assertNull(read(""));
+        assertNull(read("side project"));
+    }
+
+    private Division read(String stored) {
+
+        Document row = new Document("userId", "user-1")
+                .append("type", "expense")
+                .append("direction", "IN")
+                .append("amount", 100L)
+                .append("deleted", false)
+                .append("division", stored);
+
+        mongo.template.getCollection("transactions").insertOne(row);
+
+        return mongo.template
+                .findById(row.getObjectId("_id"), Transaction.class)
+                .getDivision();
+    }
+}
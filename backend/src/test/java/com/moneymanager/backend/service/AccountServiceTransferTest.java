@@ -0,0 +1,190 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.InProcessMongo;
+import com.moneymanager.backend.dto.TransactionRequest;
+import com.moneymanager.backend.model.Account;
+import com.moneymanager.backend.model.Direction;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.TransactionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Many concurrent writes out of one account that can only cover some
+// of them: the guarded debits (transfer, new expense, and an edit
+// raising an expense) must never overdraw it and balances must still
+// match the transactions behind them.
+class AccountServiceTransferTest {
+
+    private static final String USER = "user-1";
+
+    private static final long OPENING = 10_000;
+    private static final long AMOUNT = 100;
+    private static final long SMALL = 10;
+    private static final int THREADS = 16;
+    private static final int PER_THREAD = 30;
+
+    private InProcessMongo mongo;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new InProcessMongo();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void concurrentTransfersNeverOverdraw() throws Exception {
+
+        Account from = mongo.insertAccount(USER, "From", 0);
+        Account to = mongo.insertAccount(USER, "To", 0);
+        create(TransactionType.INCOME, OPENING, from);
+
+        AtomicInteger transferred = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        race((thread, i) -> {
+            mongo.accountService.transfer(USER, from.getId(), to.getId(), AMOUNT);
+            transferred.incrementAndGet();
+        }, refused);
+
+        long fromBalance = mongo.balance(from.getId());
+        long toBalance = mongo.balance(to.getId());
+
+        assertTrue(fromBalance >= 0, "overdrawn: " + fromBalance);
+        assertEquals(OPENING / AMOUNT, transferred.get());
+        assertEquals(THREADS * PER_THREAD - OPENING / AMOUNT, refused.get());
+
+        assertEquals(OPENING - transferred.get() * AMOUNT, fromBalance);
+        assertEquals(transferred.get() * AMOUNT, toBalance);
+
+        assertEquals(fromBalance, signedSum(from.getId()));
+        assertEquals(toBalance, signedSum(to.getId()));
+    }
+
+    // transfers, new expenses and edits raising an existing expense,
+    // interleaved; each edit has its own expense, two edits of one
+    // transaction are a different race
+    @Test
+    void concurrentExpensesAndEditsNeverOverdraw() throws Exception {
+
+        Account from = mongo.insertAccount(USER, "From", 0);
+        Account to = mongo.insertAccount(USER, "To", 0);
+        create(TransactionType.INCOME, OPENING, from);
+
+        String[] small = new String[THREADS * PER_THREAD];
+        for (int n = 0; n < small.length; n++) {
+            if (n % 3 == 2) small[n] = create(TransactionType.EXPENSE, SMALL, from).getId();
+        }
+
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        race((thread, i) -> {
+            int n = thread * PER_THREAD + i;
+            switch (n % 3) {
+                case 0 -> mongo.accountService.transfer(USER, from.getId(), to.getId(), AMOUNT);
+                case 1 -> create(TransactionType.EXPENSE, AMOUNT, from);
+                default -> mongo.transactionService.update(
+                        USER, small[n], request(TransactionType.EXPENSE, AMOUNT, from));
+            }
+            applied.incrementAndGet();
+        }, refused);
+
+        long fromBalance = mongo.balance(from.getId());
+
+        assertTrue(fromBalance >= 0, "overdrawn: " + fromBalance);
+        assertTrue(applied.get() > 0, "nothing applied");
+        assertTrue(refused.get() > 0, "nothing refused, the account never ran low");
+        assertEquals(THREADS * PER_THREAD, applied.get() + refused.get());
+
+        assertEquals(fromBalance, signedSum(from.getId()));
+        assertEquals(mongo.balance(to.getId()), signedSum(to.getId()));
+    }
+
+    private interface Step {
+        void run(int thread, int i);
+    }
+
+    // THREADS threads released at once, PER_THREAD steps each; a step
+    // may only fail for lack of balance
+    private static void race(Step step, AtomicInteger refused) throws Exception {
+
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < PER_THREAD; i++) {
+                    try {
+                        step.run(thread, i);
+                    } catch (RuntimeException e) {
+                        assertEquals("Insufficient balance", e.getMessage());
+                        refused.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(120, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+    }
+
+    // opening balances too go in as transactions, so every balance has
+    // one behind it
+    private Transaction create(TransactionType type, long amount, Account account) {
+        return mongo.transactionService.create(USER, request(type, amount, account));
+    }
+
+    private static TransactionRequest request(TransactionType type, long amount, Account account) {
+
+        TransactionRequest request = new TransactionRequest();
+        request.setType(type);
+        request.setAmount(amount);
+        request.setCategory(type == TransactionType.INCOME ? "Salary" : "Food");
+        request.setAccountId(account.getId());
+        return request;
+    }
+
+    // income and incoming transfer legs add, everything else subtracts
+    private long signedSum(String accountId) {
+
+        long sum = 0;
+
+        for (Transaction tx : mongo.transactions.findAll()) {
+
+            if (!tx.getAccountId().equals(accountId) || tx.isDeleted()) continue;
+
+            boolean in = tx.getType() == TransactionType.INCOME
+                    || (tx.getType() == TransactionType.TRANSFER
+                    && tx.getDirection() == Direction.IN);
+
+            sum += in ? tx.getAmount() : -tx.getAmount();
+        }
+
+        return sum;
+    }
+}
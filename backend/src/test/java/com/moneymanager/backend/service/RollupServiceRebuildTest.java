@@ -0,0 +1,92 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.InProcessMongo;
+import com.moneymanager.backend.model.Account;
+import com.moneymanager.backend.model.Direction;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.TransactionType;
+import com.moneymanager.backend.model.UserRollup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A rebuild running while a write is between its transaction document
+// and its rollup delta, with no Mongo transaction around the two: the
+// rebuild must not publish sums that already hold the document, or the
+// delta counts it a second time.
+class RollupServiceRebuildTest {
+
+    private static final String USER = "user-1";
+
+    private InProcessMongo mongo;
+    private Account cash;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new InProcessMongo();
+        cash = mongo.insertAccount(USER, "Cash", 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void rebuildWaitsForPendingWrite() {
+
+        Transaction tx = new Transaction(
+                USER, TransactionType.INCOME, Direction.IN,
+                500, "Salary", null, cash.getId());
+
+        RollupDelta delta = mongo.rollups.delta();
+
+        delta.write(USER, () -> {
+            Transaction saved = mongo.transactions.save(tx);
+
+            // answered from the transactions, the stored rollups are left alone
+            assertAmount("5.00", mongo.rollups.summary(USER).get("income"));
+            assertFalse(total().isBuilt());
+            return saved;
+        });
+
+        delta.add(tx).flush();
+
+        assertAmount("5.00", mongo.rollups.summary(USER).get("income"));
+        assertTrue(total().isBuilt());
+        assertEquals(0, total().getPending());
+        assertTrue(mongo.rollups.verify(USER).isEmpty());
+    }
+
+    @Test
+    void failedWriteIsNotLeftPending() {
+
+        RollupDelta delta = mongo.rollups.delta();
+
+        try {
+            delta.write(USER, () -> {
+                throw new RuntimeException("Write failed");
+            });
+        } catch (RuntimeException e) {
+            assertEquals("Write failed", e.getMessage());
+        }
+
+        assertEquals(0, total().getPending());
+        assertAmount("0.00", mongo.rollups.summary(USER).get("income"));
+        assertTrue(total().isBuilt());
+    }
+
+    private UserRollup total() {
+        return mongo.template.findById(RollupService.totalId(USER), UserRollup.class);
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "was " + actual);
+    }
+}
@@ -0,0 +1,167 @@
+package com.moneymanager.backend.service;
+
+import com.moneymanager.backend.InProcessMongo;
+import com.moneymanager.backend.dto.TransactionRequest;
+import com.moneymanager.backend.metrics.MongoRoundTripCounter;
+import com.moneymanager.backend.model.Account;
+import com.moneymanager.backend.model.Direction;
+import com.moneymanager.backend.model.Transaction;
+import com.moneymanager.backend.model.TransactionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Edits go through TransactionBatch: one guarded $inc per account, then
+// whatever the number of legs one update bulk on transactions and the
+// rollup delta, plus the pending mark on the rollups as there are no
+// Mongo transactions here. These pin the Mongo commands each edit
+// costs, so a per-leg write sneaking back in shows up here.
+class TransactionServiceRoundTripTest {
+
+    private static final String USER = "user-1";
+
+    private final MongoRoundTripCounter counter = new MongoRoundTripCounter();
+
+    private InProcessMongo mongo;
+    private Account cash;
+    private Account savings;
+
+    @BeforeEach
+    void setUp() {
+
+        mongo = new InProcessMongo(counter);
+        cash = mongo.insertAccount(USER, "Cash", 0);
+        savings = mongo.insertAccount(USER, "Savings", 0);
+
+        mongo.transactionService.create(USER, request(TransactionType.INCOME, 10_000, cash));
+
+        // the counts are for a warm archive watermark, read here once
+        mongo.transactionService.getUserTransactions(USER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    // ============================
+    // INCOME / EXPENSE
+    // findById + the $inc + the pending mark + transactions + rollups
+    // ============================
+
+    @Test
+    void updateExpense() {
+
+        Transaction tx = mongo.transactionService.create(
+                USER, request(TransactionType.EXPENSE, 500, cash));
+
+        assertEquals(5, roundTrips(() -> mongo.transactionService.update(
+                USER, tx.getId(), request(TransactionType.EXPENSE, 700, cash))));
+
+        assertEquals(10_000 - 700, mongo.balance(cash.getId()));
+    }
+
+    @Test
+    void deleteAndRestoreExpense() {
+
+        Transaction tx = mongo.transactionService.create(
+                USER, request(TransactionType.EXPENSE, 500, cash));
+
+        assertEquals(5, roundTrips(() -> mongo.transactionService.delete(USER, tx.getId())));
+        assertEquals(10_000, mongo.balance(cash.getId()));
+
+        assertEquals(5, roundTrips(() -> mongo.transactionService.restore(USER, tx.getId())));
+        assertEquals(10_000 - 500, mongo.balance(cash.getId()));
+    }
+
+    @Test
+    void updateIncome() {
+
+        Transaction tx = mongo.transactionService.create(
+                USER, request(TransactionType.INCOME, 500, savings));
+
+        assertEquals(5, roundTrips(() -> mongo.transactionService.update(
+                USER, tx.getId(), request(TransactionType.INCOME, 700, savings))));
+
+        assertEquals(700, mongo.balance(savings.getId()));
+    }
+
+    @Test
+    void deleteAndRestoreIncome() {
+
+        Transaction tx = mongo.transactionService.create(
+                USER, request(TransactionType.INCOME, 500, savings));
+
+        assertEquals(5, roundTrips(() -> mongo.transactionService.delete(USER, tx.getId())));
+        assertEquals(0, mongo.balance(savings.getId()));
+
+        assertEquals(5, roundTrips(() -> mongo.transactionService.restore(USER, tx.getId())));
+        assertEquals(500, mongo.balance(savings.getId()));
+    }
+
+    // ============================
+    // TRANSFER
+    // findById + findByGroupId + an $inc per account + the pending
+    // mark + transactions + rollups, the last three shared by both legs
+    // ============================
+
+    @Test
+    void updateTransfer() {
+
+        String outId = transfer(1_000);
+
+        assertEquals(7, roundTrips(() -> mongo.transactionService.update(
+                USER, outId, request(TransactionType.TRANSFER, 1_500, cash))));
+
+        assertEquals(10_000 - 1_500, mongo.balance(cash.getId()));
+        assertEquals(1_500, mongo.balance(savings.getId()));
+    }
+
+    @Test
+    void deleteAndRestoreTransfer() {
+
+        String outId = transfer(1_000);
+
+        assertEquals(7, roundTrips(() -> mongo.transactionService.delete(USER, outId)));
+        assertEquals(10_000, mongo.balance(cash.getId()));
+        assertEquals(0, mongo.balance(savings.getId()));
+
+        assertEquals(7, roundTrips(() -> mongo.transactionService.restore(USER, outId)));
+        assertEquals(10_000 - 1_000, mongo.balance(cash.getId()));
+        assertEquals(1_000, mongo.balance(savings.getId()));
+    }
+
+    private int roundTrips(Runnable edit) {
+
+        counter.reset();
+        edit.run();
+        return counter.get();
+    }
+
+    // the OUT leg of a new transfer from cash to savings
+    private String transfer(long amount) {
+
+        mongo.accountService.transfer(USER, cash.getId(), savings.getId(), amount);
+
+        return mongo.transactions.findAll().stream()
+                .filter(t -> t.getType() == TransactionType.TRANSFER
+                        && t.getDirection() == Direction.OUT)
+                .findFirst()
+                .orElseThrow()
+                .getId();
+    }
+
+    private static TransactionRequest request(TransactionType type, long amount, Account account) {
+
+        TransactionRequest request = new TransactionRequest();
+        request.setType(type);
+        request.setAmount(amount);
+        if (type != TransactionType.TRANSFER) {
+            request.setCategory(type == TransactionType.INCOME ? "Salary" : "Food");
+        }
+        request.setAccountId(account.getId());
+        return request;
+    }
+}
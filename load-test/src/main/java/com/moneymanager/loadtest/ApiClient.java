@@ -0,0 +1,192 @@
+package com.moneymanager.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+// The backend's HTTP API, nothing else: seeding uses the same public
+// endpoints a client would. Blocking helpers are for seeding; the load
+// itself goes through send(), which never blocks the caller.
+final class ApiClient {
+
+    private final HttpClient http;
+    private final ObjectMapper json = new ObjectMapper();
+    private final String baseUrl;
+    private final LoadTestConfig config;
+
+    ApiClient(LoadTestConfig config, String baseUrl) {
+        this.config = config;
+        this.baseUrl = baseUrl;
+
+        // HTTP/1.1 like browsers behind most proxies; no h2c upgrade dance
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(config.timeout())
+                .build();
+    }
+
+    // =========================
+    // SEEDING (blocking)
+    // =========================
+
+    // an already registered email is fine, the login decides
+    void register(String name, String email, String password) {
+
+        HttpResponse<String> response = call(request("/api/v1/auth/register", null)
+                .header("Content-Type", "application/json")
+                .POST(body(Map.of("name", name, "email", email, "password", password)))
+                .build());
+
+        if (response.statusCode() != 201 && !response.body().contains("already registered")) {
+            throw failure("register", response);
+        }
+    }
+
+    String login(String email, String password) {
+
+        HttpResponse<String> response = call(request("/api/v1/auth/login", null)
+                .header("Content-Type", "application/json")
+                .POST(body(Map.of("email", email, "password", password)))
+                .build());
+
+        return expectOk("login", response).path("token").asText();
+    }
+
+    String createAccount(String token, String name) {
+
+        HttpResponse<String> response = call(request(
+                "/api/v1/accounts?name=" + encode(name), token)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build());
+
+        return expectOk("create account", response).path("id").asText();
+    }
+
+    // returns {imported, failed}
+    long[] bulkImport(String token, byte[] ndjson) {
+
+        HttpResponse<String> response = call(request(
+                "/api/v1/transactions/bulk?format=ndjson", token)
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(ndjson))
+                .build());
+
+        JsonNode result = expectOk("bulk import", response);
+        return new long[]{result.path("imported").asLong(), result.path("failed").asLong()};
+    }
+
+    void transfer(String token, String fromId, String toId, long amount) {
+
+        HttpResponse<String> response = call(transferRequest(token, fromId, toId, amount));
+
+        if (response.statusCode() != 200) {
+            throw failure("transfer", response);
+        }
+    }
+
+    // =========================
+    // LOAD (async)
+    // =========================
+    CompletableFuture<HttpResponse<Void>> send(HttpRequest request) {
+        return http.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    HttpRequest createTransaction(String token, Map<String, Object> transaction) {
+        return request("/api/v1/transactions", token)
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .POST(body(transaction))
+                .build();
+    }
+
+    HttpRequest transferRequest(String token, String fromId, String toId, long amount) {
+        return request("/api/v1/accounts/transfer"
+                + "?fromId=" + encode(fromId)
+                + "&toId=" + encode(toId)
+                + "&amount=" + major(amount).toPlainString(), token)
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    byte[] json(Object value) {
+        try {
+            return json.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static BigDecimal major(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+
+    // =========================
+    // HELPERS
+    // =========================
+    private HttpRequest.Builder request(String path, String token) {
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(config.timeout());
+
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+
+        return builder;
+    }
+
+    private HttpRequest.BodyPublisher body(Object value) {
+        return HttpRequest.BodyPublishers.ofByteArray(json(value));
+    }
+
+    private HttpResponse<String> call(HttpRequest request) {
+        try {
+            return http.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    "Cannot reach " + request.uri() + ": " + e, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+    }
+
+    private JsonNode expectOk(String what, HttpResponse<String> response) {
+
+        if (response.statusCode() != 200) {
+            throw failure(what, response);
+        }
+
+        try {
+            return json.readTree(response.body());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(what + ": unreadable response " + response.body());
+        }
+    }
+
+    private static IllegalStateException failure(String what, HttpResponse<String> response) {
+        return new IllegalStateException(
+                what + " failed: HTTP " + response.statusCode() + " " + response.body());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,166 @@
+package com.moneymanager.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Closed model: a fixed number of requests is kept in flight, each
+// completion sends the next one right away. This is what holds the
+// server at a given concurrency (1k+ open requests, the case platform
+// vs virtual threads differ on), which the open model only reaches once
+// the server is already overloaded.
+//
+// Latency is measured from the actual send, and a slow server lowers
+// the offered load with it: read throughput and latency together, and
+// use OpenLoadDriver for latency under a fixed arrival rate.
+//
+// Warm-up requests are sent but not recorded, whenever they complete.
+final class ClosedLoadDriver {
+
+    private static final long PROGRESS_SECONDS = 5;
+
+    private final LoadTestConfig config;
+    private final ApiClient api;
+    private final Workload workload;
+    private final Report report;
+
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder sent = new LongAdder();
+
+    private long measureFrom;
+    private long end;
+
+    ClosedLoadDriver(LoadTestConfig config, ApiClient api, Workload workload, Report report) {
+        this.config = config;
+        this.api = api;
+        this.workload = workload;
+        this.report = report;
+
+        for (Endpoint endpoint : workload.endpoints()) {
+            stats.put(endpoint, new EndpointStats(endpoint));
+        }
+    }
+
+    List<EndpointStats> run() throws InterruptedException {
+
+        long start = System.nanoTime();
+        measureFrom = start + config.warmup().toNanos();
+        end = measureFrom + config.duration().toNanos();
+
+        System.out.printf("closed, %d in flight for %ds after %ds warm-up%n",
+                config.concurrency(), config.duration().toSeconds(), config.warmup().toSeconds());
+
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "load-progress");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(() -> tick(start, true),
+                PROGRESS_SECONDS, PROGRESS_SECONDS, TimeUnit.SECONDS);
+
+        try {
+            for (int i = 0; i < config.concurrency(); i++) {
+                send();
+            }
+
+            TimeUnit.NANOSECONDS.sleep(Math.max(0, end - System.nanoTime()));
+
+            drain();
+
+        } finally {
+            ticker.shutdownNow();
+            ticker.awaitTermination(PROGRESS_SECONDS, TimeUnit.SECONDS);
+        }
+
+        // whatever completed since the last tick
+        tick(start, false);
+
+        return new ArrayList<>(stats.values());
+    }
+
+    // one slot: sends, and on completion sends again until the run ends
+    private void send() {
+
+        long started = System.nanoTime();
+        if (started >= end) return;
+
+        Workload.Call call;
+        synchronized (workload) {
+            call = workload.next();
+        }
+
+        EndpointStats s = stats.get(call.endpoint);
+        boolean measured = started >= measureFrom;
+
+        inFlight.incrementAndGet();
+        sent.increment();
+
+        try {
+            api.send(call.request).whenComplete((HttpResponse<Void> response, Throwable error) -> {
+                long latency = System.nanoTime() - started;
+                inFlight.decrementAndGet();
+                if (measured) s.record(error == null ? response.statusCode() : 0, latency);
+                send();
+            });
+        } catch (RuntimeException e) {
+            // the slot is lost, not retried in a tight loop
+            inFlight.decrementAndGet();
+            if (measured) s.record(0, System.nanoTime() - started);
+        }
+    }
+
+    // in-flight requests finish or time out on their own; wait a bit
+    // longer than the request timeout for that
+    private void drain() throws InterruptedException {
+
+        long deadline = System.nanoTime() + config.timeout().toNanos() + TimeUnit.SECONDS.toNanos(5);
+
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+
+        if (inFlight.get() > 0) {
+            System.out.printf("gave up waiting for %d requests%n", inFlight.get());
+        }
+    }
+
+    // =========================
+    // PROGRESS
+    // =========================
+    private synchronized void tick(long start, boolean print) {
+
+        long now = System.nanoTime();
+        boolean measuring = now >= measureFrom;
+
+        Histogram all = new Histogram(EndpointStats.MAX_MICROS, EndpointStats.DIGITS);
+        long errors = 0;
+
+        for (EndpointStats s : stats.values()) {
+            Histogram interval = s.interval();
+            all.add(interval);
+            if (measuring) report.interval(interval);
+            errors += s.errors();
+        }
+
+        if (!print) return;
+
+        System.out.printf("%5ds %-9s sent %8d  in flight %5d  interval p50 %8.1f ms  p99 %8.1f ms  errors %d%n",
+                TimeUnit.NANOSECONDS.toSeconds(now - start),
+                measuring ? "measure" : "warm-up",
+                sent.sum(),
+                inFlight.get(),
+                all.getValueAtPercentile(50) / 1000.0,
+                all.getValueAtPercentile(99) / 1000.0,
+                errors);
+    }
+}
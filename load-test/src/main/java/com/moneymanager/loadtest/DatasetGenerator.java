@@ -0,0 +1,300 @@
+package com.moneymanager.loadtest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+// Synthetic but plausible money history for one user, oldest first.
+//
+// Users differ: salary is log-normal (median 3500), activity (how much
+// they spend day to day) has a heavy tail, and some book part of their
+// spending to the OFFICE division. Each month has a salary, rent and
+// bills; every day brings a Poisson number of discretionary expenses,
+// more at weekends, with log-normal amounts per category; freelance
+// income, refunds, gifts and interest show up now and then.
+//
+// Balances are tracked per account and an expense only goes to an
+// account that can pay it, so the bulk import accepts every row.
+// Amounts are in minor units.
+final class DatasetGenerator {
+
+    static final List<String> ACCOUNT_NAMES = List.of("Bank", "Card", "Cash", "Savings");
+
+    private static final int BANK = 0;
+    private static final int CARD = 1;
+    private static final int CASH = 2;
+    private static final int SAVINGS = 3;
+
+    // category, weight, median amount (major units), sigma
+    private static final Object[][] SPENDING = {
+            {"Food", 35, 15.0, 0.6},
+            {"Transport", 15, 8.0, 0.5},
+            {"Shopping", 15, 40.0, 0.9},
+            {"Entertainment", 10, 25.0, 0.7},
+            {"Health", 5, 30.0, 0.8},
+            {"Travel", 3, 250.0, 0.8},
+            {"Other", 7, 20.0, 1.0}
+    };
+
+    private static final String[][] DESCRIPTIONS = {
+            {"Groceries", "Lunch", "Coffee", "Restaurant", "Bakery"},
+            {"Bus ticket", "Taxi", "Fuel", "Parking"},
+            {"Clothes", "Electronics", "Books", "Home"},
+            {"Cinema", "Concert", "Streaming", "Games"},
+            {"Pharmacy", "Dentist", "Doctor"},
+            {"Flight", "Hotel", "Train"},
+            {"Misc"}
+    };
+
+    private static final int SPENDING_WEIGHT = 90;
+
+    private DatasetGenerator() {
+    }
+
+    static Profile profile(long seed, int index) {
+
+        Random random = new Random(seed * 1_000_003L + index);
+
+        Profile p = new Profile();
+        p.salary = Math.round(logNormal(random, 3500, 0.45)) * 100;
+        p.rent = Math.round(p.salary * (0.22 + random.nextDouble() * 0.15) / 100) * 100;
+        p.activity = Math.max(0.2, Math.min(6, logNormal(random, 1, 0.6)));
+        p.officeShare = random.nextDouble() < 0.6 ? 0 : 0.1 + random.nextDouble() * 0.3;
+        p.salaryDay = 1 + random.nextInt(28);
+        return p;
+    }
+
+    // days [from, to), accountIds in ACCOUNT_NAMES order
+    static History history(long seed,
+                           int index,
+                           Profile p,
+                           List<String> accountIds,
+                           LocalDate from,
+                           LocalDate to,
+                           double dailySpend) {
+
+        Random random = new Random(seed * 7_919L + index);
+        History h = new History(accountIds);
+
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+
+            List<Row> rows = new ArrayList<>();
+
+            // ===== monthly =====
+            if (day.getDayOfMonth() == p.salaryDay) {
+                rows.add(h.income(BANK, p.salary, "Salary", "Monthly salary"));
+            }
+            if (day.getDayOfMonth() == 2) {
+                rows.add(h.expense(random, BANK, p.rent, "Rent", "Rent", p, true));
+            }
+            if (day.getDayOfMonth() == 10) {
+                rows.add(h.expense(random, BANK,
+                        minor(logNormal(random, 80, 0.3)), "Utilities", "Electricity", p, true));
+            }
+            if (day.getDayOfMonth() == 15) {
+                rows.add(h.expense(random, BANK, 4_000, "Utilities", "Internet", p, true));
+            }
+            if (day.getDayOfYear() == 20) {
+                rows.add(h.expense(random, BANK,
+                        minor(logNormal(random, 600, 0.3)), "Insurance", "Yearly insurance", p, true));
+            }
+
+            // ===== occasional income =====
+            if (random.nextDouble() < 0.1 / 30) {
+                rows.add(h.income(random.nextBoolean() ? BANK : CARD,
+                        minor(logNormal(random, 600, 0.6)), "Freelance", "Side project"));
+            }
+            if (random.nextDouble() < 0.5 / 7) {
+                rows.add(h.income(CARD,
+                        minor(logNormal(random, 12, 0.7)), "Refund", "Refund"));
+            }
+            if (random.nextDouble() < 2.0 / 365) {
+                rows.add(h.income(CASH,
+                        minor(logNormal(random, 100, 0.5)), "Gifts", "Gift"));
+            }
+            if (day.getDayOfMonth() == 1) {
+                rows.add(h.income(SAVINGS,
+                        minor(logNormal(random, 5, 0.5)), "Interest", "Interest"));
+            }
+
+            // ===== discretionary spending =====
+            double lambda = dailySpend * p.activity * (weekend(day) ? 1.5 : 1);
+
+            for (int i = poisson(random, lambda); i > 0; i--) {
+
+                int category = pick(random);
+                Object[] c = SPENDING[category];
+                String[] texts = DESCRIPTIONS[category];
+
+                // card mostly, cash for small things
+                int account = random.nextInt(10) < 7 ? CARD : CASH;
+
+                rows.add(h.expense(random, account,
+                        minor(logNormal(random, (double) c[2], (double) c[3])),
+                        (String) c[0],
+                        random.nextInt(5) == 0 ? null : texts[random.nextInt(texts.length)],
+                        p, false));
+            }
+
+            rows.removeIf(Objects::isNull);
+
+            // times in generation order: the import checks balances row
+            // by row, so an expense must not move before its income
+            List<LocalDateTime> times = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) times.add(at(day, random));
+            Collections.sort(times);
+
+            for (int i = 0; i < rows.size(); i++) {
+                rows.get(i).createdAt = times.get(i);
+            }
+            h.rows.addAll(rows);
+        }
+
+        return h;
+    }
+
+    // =========================
+    // RANDOM HELPERS
+    // =========================
+    static double logNormal(Random random, double median, double sigma) {
+        return median * Math.exp(sigma * random.nextGaussian());
+    }
+
+    static long minor(double major) {
+        return Math.max(1, Math.round(major * 100));
+    }
+
+    private static int poisson(Random random, double lambda) {
+
+        // Knuth, fine for the small daily rates used here
+        double limit = Math.exp(-lambda);
+        double product = random.nextDouble();
+        int n = 0;
+
+        while (product > limit) {
+            n++;
+            product *= random.nextDouble();
+        }
+
+        return n;
+    }
+
+    private static int pick(Random random) {
+
+        int roll = random.nextInt(SPENDING_WEIGHT);
+
+        for (int i = 0; i < SPENDING.length; i++) {
+            roll -= (int) SPENDING[i][1];
+            if (roll < 0) return i;
+        }
+
+        return SPENDING.length - 1;
+    }
+
+    private static boolean weekend(LocalDate day) {
+        return day.getDayOfWeek() == DayOfWeek.SATURDAY
+                || day.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+
+    private static LocalDateTime at(LocalDate day, Random random) {
+        // 07:00 .. 23:00
+        return day.atTime(7, 0).plusSeconds(random.nextInt(16 * 3600));
+    }
+
+    // =========================
+    // TYPES
+    // =========================
+    static final class Profile {
+
+        long salary;          // minor units
+        long rent;
+        double activity;      // spending multiplier, ~1 for a median user
+        double officeShare;   // share of expenses booked to OFFICE
+        int salaryDay;
+    }
+
+    static final class Row {
+
+        String type;          // income / expense
+        long amount;
+        String category;
+        String description;
+        String accountId;
+        String division;
+        LocalDateTime createdAt;   // set once the day is complete
+    }
+
+    static final class History {
+
+        final List<Row> rows = new ArrayList<>();
+        final long[] balances;
+
+        private final List<String> accountIds;
+
+        History(List<String> accountIds) {
+            this.accountIds = accountIds;
+            this.balances = new long[accountIds.size()];
+        }
+
+        // accounts the user does not have fall back to the first one
+        private int account(int role) {
+            return role < accountIds.size() ? role : BANK;
+        }
+
+        Row income(int role, long amount, String category, String description) {
+
+            int account = account(role);
+            balances[account] += amount;
+
+            return row("income", account, amount, category, description, "PERSONAL");
+        }
+
+        // null when no account can pay it
+        Row expense(Random random, int role,
+                    long amount, String category, String description,
+                    Profile p, boolean fixed) {
+
+            int account = account(role);
+
+            if (balances[account] < amount) {
+                account = richest();
+                if (balances[account] < amount) return null;
+            }
+
+            balances[account] -= amount;
+
+            String division = !fixed && random.nextDouble() < p.officeShare
+                    ? "OFFICE"
+                    : "PERSONAL";
+
+            return row("expense", account, amount, category, description, division);
+        }
+
+        private int richest() {
+
+            int best = 0;
+            for (int i = 1; i < balances.length; i++) {
+                if (balances[i] > balances[best]) best = i;
+            }
+            return best;
+        }
+
+        private Row row(String type, int account,
+                        long amount, String category, String description, String division) {
+
+            Row r = new Row();
+            r.type = type;
+            r.amount = amount;
+            r.category = category;
+            r.description = description;
+            r.accountId = accountIds.get(account);
+            r.division = division;
+            return r;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.moneymanager.loadtest;
+
+// What the workload calls; stats are kept per endpoint
+enum Endpoint {
+
+    CREATE("create", "POST /api/v1/transactions"),
+    TRANSFER("transfer", "POST /api/v1/accounts/transfer"),
+    SUMMARY("summary", "GET /api/v1/transactions/summary"),
+    SUMMARY_PERIOD("summary-period", "GET /api/v1/transactions/summary/{period}"),
+    RANGE("range", "GET /api/v1/transactions/range"),
+    PAGE("page", "GET /api/v1/transactions/page"),
+    LIST("list", "GET /api/v1/transactions");
+
+    private final String key;
+    private final String route;
+
+    Endpoint(String key, String route) {
+        this.key = key;
+        this.route = route;
+    }
+
+    String key() {
+        return key;
+    }
+
+    String route() {
+        return route;
+    }
+
+    static Endpoint of(String key) {
+
+        for (Endpoint endpoint : values()) {
+            if (endpoint.key.equals(key)) return endpoint;
+        }
+
+        throw new IllegalArgumentException("Unknown endpoint in mix: " + key);
+    }
+}
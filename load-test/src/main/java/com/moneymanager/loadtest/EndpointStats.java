@@ -0,0 +1,75 @@
+package com.moneymanager.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency and outcome counts for one endpoint. Latencies are in
+// microseconds, written from the HTTP client's threads into a Recorder;
+// interval() swaps it out for the progress line and the .hlog, and
+// every interval is folded into the run total.
+final class EndpointStats {
+
+    static final long MAX_MICROS = TimeUnit.SECONDS.toMicros(60);
+    static final int DIGITS = 3;
+
+    private final Endpoint endpoint;
+    private final Recorder recorder = new Recorder(MAX_MICROS, DIGITS);
+    private final Histogram total = new Histogram(MAX_MICROS, DIGITS);
+
+    private Histogram interval;
+
+    final LongAdder ok = new LongAdder();          // 2xx
+    final LongAdder clientErrors = new LongAdder(); // 4xx
+    final LongAdder serverErrors = new LongAdder(); // 5xx
+    final LongAdder ioErrors = new LongAdder();     // timeouts, resets, refused
+    final LongAdder dropped = new LongAdder();      // never sent, over max-in-flight
+
+    EndpointStats(Endpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    Endpoint endpoint() {
+        return endpoint;
+    }
+
+    // status 0 means no response at all
+    void record(int status, long latencyNanos) {
+
+        long micros = Math.min(MAX_MICROS, Math.max(1, latencyNanos / 1_000));
+        recorder.recordValue(micros);
+
+        if (status == 0) ioErrors.increment();
+        else if (status < 300) ok.increment();
+        else if (status < 500) clientErrors.increment();
+        else serverErrors.increment();
+    }
+
+    // =========================
+    // READING (single thread)
+    // =========================
+
+    // the histogram recorded since the last call, also added to the total
+    Histogram interval() {
+
+        interval = recorder.getIntervalHistogram(interval);
+        interval.setTag(endpoint.key());
+        total.add(interval);
+
+        return interval;
+    }
+
+    Histogram total() {
+        return total;
+    }
+
+    long requests() {
+        return ok.sum() + clientErrors.sum() + serverErrors.sum() + ioErrors.sum();
+    }
+
+    long errors() {
+        return clientErrors.sum() + serverErrors.sum() + ioErrors.sum();
+    }
+}
@@ -0,0 +1,98 @@
+package com.moneymanager.loadtest;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Seeds a running backend with synthetic users and history over its
+// public API, then drives it with an open-model request mix and reports
+// throughput, error rates and latency histograms per endpoint.
+//
+//   mongod --dbpath /tmp/mm-load
+//   MONGO_URI=mongodb://localhost:27017 JWT_SECRET=... \
+//       java -jar backend/target/money-manager-backend-0.0.1-SNAPSHOT-exec.jar
+//   java -jar load-test/target/load-test.jar --users=100 --rate=200 --duration=120
+//
+// Platform vs virtual threads: two instances of the same backend jar on
+// a Java 21 runtime (VIRTUAL_THREADS has no effect on 17), the same
+// Mongo and JWT_SECRET, only the flag differs. Users are seeded once,
+// through the first backend, then each backend gets the same request
+// sequence in turn at a fixed 1000 requests in flight:
+//
+//   SERVER_PORT=8080 MONGO_URI=... JWT_SECRET=... \
+//       java -jar money-manager-backend-0.0.1-SNAPSHOT-exec.jar
+//   SERVER_PORT=8081 MONGO_URI=... JWT_SECRET=... VIRTUAL_THREADS=true \
+//       java -jar money-manager-backend-0.0.1-SNAPSHOT-exec.jar
+//   java -jar load-test/target/load-test.jar \
+//       --base-url=platform=http://localhost:8080,virtual=http://localhost:8081 \
+//       --users=200 --concurrency=1000 --warmup=30 --duration=120 \
+//       --mix=list:10,page:30,range:20,summary:25,summary-period:15
+//
+// Tomcat's 200 platform threads (server.tomcat.threads.max) cap the
+// first, the Mongo pool (MONGO_POOL_MAX_SIZE, 100) the second; raise
+// the pool to see past it. The table at the end and comparison.json
+// hold the totals side by side. The mix above is read-only; with
+// writes in it, later backends see a little more data.
+//
+// Options: see LoadTestConfig.
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        LoadTestConfig config;
+        try {
+            config = LoadTestConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        Map<String, String> targets = config.targets();
+        boolean comparing = targets.size() > 1;
+
+        List<SeededUser> users;
+        try {
+            String first = targets.values().iterator().next();
+            users = new Seeder(config, new ApiClient(config, first)).seed();
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        Map<String, Map<String, Object>> totals = new LinkedHashMap<>();
+
+        for (Map.Entry<String, String> target : targets.entrySet()) {
+
+            if (comparing) {
+                System.out.printf("%n== %s: %s ==%n", target.getKey(), target.getValue());
+            }
+
+            ApiClient api = new ApiClient(config, target.getValue());
+            Path dir = comparing
+                    ? Path.of(config.out(), target.getKey())
+                    : Path.of(config.out());
+
+            Report report = new Report(config, target.getKey(), dir);
+
+            // a fresh workload per backend, so each gets the same sequence
+            Workload workload = new Workload(config, api, users);
+
+            List<EndpointStats> stats = config.concurrency() > 0
+                    ? new ClosedLoadDriver(config, api, workload, report).run()
+                    : new OpenLoadDriver(config, api, workload, report).run();
+
+            totals.put(target.getKey(), report.finish(stats));
+        }
+
+        if (comparing) Report.compare(config, totals);
+
+        // the HTTP client's threads are not daemons
+        System.exit(0);
+    }
+}
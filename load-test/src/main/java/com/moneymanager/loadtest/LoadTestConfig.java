@@ -0,0 +1,213 @@
+package com.moneymanager.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// --key=value options, all optional. Defaults:
+//
+//   base-url=http://localhost:8080
+//                             or label=url,label=url to run the same
+//                             load against several backends in turn
+//   users=50                  seeded users
+//   accounts-per-user=3       1..4 (Bank, Card, Cash, Savings)
+//   years=3                   history per user
+//   daily-spend=2.5           mean expenses per day of a median user
+//   transfers-per-user=5      made through /accounts/transfer while seeding
+//   seed=42                   same seed, same dataset and request sequence
+//   seed-parallelism=8        users seeded at once
+//   rate=100                  arrivals per second (open model)
+//   concurrency=0             over 0: closed model instead, this many
+//                             requests always in flight; rate, arrival
+//                             and max-in-flight are ignored
+//   arrival=poisson           or uniform
+//   warmup=10                 seconds, run but not reported
+//   duration=60               seconds, reported
+//   max-in-flight=2000        over this, arrivals are dropped, not queued
+//   timeout-ms=10000          per request
+//   mix=create:20,transfer:5,summary:20,summary-period:15,range:15,page:25
+//                             also list (every transaction of the user)
+//   out=load-test-results
+final class LoadTestConfig {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("base-url", "http://localhost:8080");
+        DEFAULTS.put("users", "50");
+        DEFAULTS.put("accounts-per-user", "3");
+        DEFAULTS.put("years", "3");
+        DEFAULTS.put("daily-spend", "2.5");
+        DEFAULTS.put("transfers-per-user", "5");
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("seed-parallelism", "8");
+        DEFAULTS.put("rate", "100");
+        DEFAULTS.put("concurrency", "0");
+        DEFAULTS.put("arrival", "poisson");
+        DEFAULTS.put("warmup", "10");
+        DEFAULTS.put("duration", "60");
+        DEFAULTS.put("max-in-flight", "2000");
+        DEFAULTS.put("timeout-ms", "10000");
+        DEFAULTS.put("mix", "create:20,transfer:5,summary:20,summary-period:15,range:15,page:25");
+        DEFAULTS.put("out", "load-test-results");
+    }
+
+    private final Map<String, String> values;
+
+    private LoadTestConfig(Map<String, String> values) {
+        this.values = values;
+    }
+
+    static LoadTestConfig parse(String[] args) {
+
+        Map<String, String> values = new LinkedHashMap<>(DEFAULTS);
+
+        for (String arg : args) {
+
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --key=value, got " + arg);
+            }
+
+            String key = arg.substring(2, eq);
+            if (!DEFAULTS.containsKey(key)) {
+                throw new IllegalArgumentException("Unknown option --" + key);
+            }
+
+            values.put(key, arg.substring(eq + 1));
+        }
+
+        LoadTestConfig config = new LoadTestConfig(values);
+
+        if (config.accountsPerUser() < 1 || config.accountsPerUser() > 4) {
+            throw new IllegalArgumentException("accounts-per-user must be 1..4");
+        }
+        if (config.rate() <= 0) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+        if (config.concurrency() < 0) {
+            throw new IllegalArgumentException("concurrency must not be negative");
+        }
+        config.mix();       // fail early on a bad mix
+        config.targets();   // and on a bad base-url list
+
+        return config;
+    }
+
+    Map<String, String> asMap() {
+        return values;
+    }
+
+    // label -> base url; a single unlabelled url is "default"
+    Map<String, String> targets() {
+
+        Map<String, String> targets = new LinkedHashMap<>();
+
+        for (String part : values.get("base-url").split(",")) {
+
+            String entry = part.trim();
+            int eq = entry.indexOf('=');
+
+            String label = eq < 0 ? "default" : entry.substring(0, eq).trim();
+            String url = (eq < 0 ? entry : entry.substring(eq + 1).trim()).replaceAll("/+$", "");
+
+            if (label.isEmpty() || url.isEmpty() || targets.put(label, url) != null) {
+                throw new IllegalArgumentException("Bad base-url entry " + part);
+            }
+        }
+
+        return targets;
+    }
+
+    int users() {
+        return integer("users");
+    }
+
+    int accountsPerUser() {
+        return integer("accounts-per-user");
+    }
+
+    int years() {
+        return integer("years");
+    }
+
+    double dailySpend() {
+        return Double.parseDouble(values.get("daily-spend"));
+    }
+
+    int transfersPerUser() {
+        return integer("transfers-per-user");
+    }
+
+    long seed() {
+        return Long.parseLong(values.get("seed"));
+    }
+
+    int seedParallelism() {
+        return integer("seed-parallelism");
+    }
+
+    double rate() {
+        return Double.parseDouble(values.get("rate"));
+    }
+
+    int concurrency() {
+        return integer("concurrency");
+    }
+
+    boolean poisson() {
+        return switch (values.get("arrival")) {
+            case "poisson" -> true;
+            case "uniform" -> false;
+            default -> throw new IllegalArgumentException("arrival must be poisson or uniform");
+        };
+    }
+
+    Duration warmup() {
+        return Duration.ofSeconds(integer("warmup"));
+    }
+
+    Duration duration() {
+        return Duration.ofSeconds(integer("duration"));
+    }
+
+    int maxInFlight() {
+        return integer("max-in-flight");
+    }
+
+    Duration timeout() {
+        return Duration.ofMillis(integer("timeout-ms"));
+    }
+
+    String out() {
+        return values.get("out");
+    }
+
+    // endpoint -> relative weight
+    Map<Endpoint, Integer> mix() {
+
+        Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+
+        for (String part : values.get("mix").split(",")) {
+
+            String[] kv = part.trim().split(":");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Bad mix entry " + part);
+            }
+
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) mix.put(Endpoint.of(kv[0].trim()), weight);
+        }
+
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("mix selects no endpoint");
+        }
+
+        return mix;
+    }
+
+    private int integer(String key) {
+        return Integer.parseInt(values.get(key));
+    }
+}
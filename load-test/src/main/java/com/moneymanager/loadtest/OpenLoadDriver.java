@@ -0,0 +1,182 @@
+package com.moneymanager.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Open model: arrivals come on a schedule (Poisson or evenly spaced) no
+// matter how fast the server answers, like independent users do. One
+// dispatcher thread sends each request at its intended time without
+// waiting for earlier ones.
+//
+// Latency is measured from the intended start, not the actual send, so
+// a stalled dispatcher or a saturated client still shows up in the
+// numbers (no coordinated omission). Past max-in-flight an arrival is
+// dropped and counted rather than queued: a queue would only hide the
+// overload until the run ends.
+//
+// Warm-up arrivals are sent but not recorded, whenever they complete.
+final class OpenLoadDriver {
+
+    private static final long PROGRESS_SECONDS = 5;
+
+    private final LoadTestConfig config;
+    private final ApiClient api;
+    private final Workload workload;
+    private final Report report;
+
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder sent = new LongAdder();
+
+    OpenLoadDriver(LoadTestConfig config, ApiClient api, Workload workload, Report report) {
+        this.config = config;
+        this.api = api;
+        this.workload = workload;
+        this.report = report;
+
+        for (Endpoint endpoint : workload.endpoints()) {
+            stats.put(endpoint, new EndpointStats(endpoint));
+        }
+    }
+
+    List<EndpointStats> run() throws InterruptedException {
+
+        SplittableRandom random = new SplittableRandom(config.seed() ^ 0x5DEECE66DL);
+        double meanGapNanos = 1e9 / config.rate();
+
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+
+        System.out.printf("%s %.0f req/s for %ds after %ds warm-up, at most %d in flight%n",
+                config.poisson() ? "poisson" : "uniform", config.rate(),
+                config.duration().toSeconds(), config.warmup().toSeconds(), config.maxInFlight());
+
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "load-progress");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(() -> tick(start, measureFrom, true),
+                PROGRESS_SECONDS, PROGRESS_SECONDS, TimeUnit.SECONDS);
+
+        try {
+            double next = start;
+
+            while (next < end) {
+
+                long intended = (long) next;
+                parkUntil(intended);
+
+                dispatch(intended, intended >= measureFrom);
+
+                next += config.poisson()
+                        ? -Math.log(1 - random.nextDouble()) * meanGapNanos
+                        : meanGapNanos;
+            }
+
+            drain();
+
+        } finally {
+            ticker.shutdownNow();
+            ticker.awaitTermination(PROGRESS_SECONDS, TimeUnit.SECONDS);
+        }
+
+        // whatever completed since the last tick
+        tick(start, measureFrom, false);
+
+        return new ArrayList<>(stats.values());
+    }
+
+    private void dispatch(long intended, boolean measured) {
+
+        Workload.Call call = workload.next();
+        EndpointStats s = stats.get(call.endpoint);
+
+        if (inFlight.incrementAndGet() > config.maxInFlight()) {
+            inFlight.decrementAndGet();
+            if (measured) s.dropped.increment();
+            return;
+        }
+
+        sent.increment();
+
+        try {
+            api.send(call.request).whenComplete((HttpResponse<Void> response, Throwable error) -> {
+                long latency = System.nanoTime() - intended;
+                inFlight.decrementAndGet();
+                if (measured) s.record(error == null ? response.statusCode() : 0, latency);
+            });
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet();
+            if (measured) s.record(0, System.nanoTime() - intended);
+        }
+    }
+
+    // in-flight requests finish or time out on their own; wait a bit
+    // longer than the request timeout for that
+    private void drain() throws InterruptedException {
+
+        long deadline = System.nanoTime() + config.timeout().toNanos() + TimeUnit.SECONDS.toNanos(5);
+
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+
+        if (inFlight.get() > 0) {
+            System.out.printf("gave up waiting for %d requests%n", inFlight.get());
+        }
+    }
+
+    // =========================
+    // PROGRESS
+    // =========================
+    private synchronized void tick(long start, long measureFrom, boolean print) {
+
+        long now = System.nanoTime();
+        boolean measuring = now >= measureFrom;
+
+        Histogram all = new Histogram(EndpointStats.MAX_MICROS, EndpointStats.DIGITS);
+        long errors = 0;
+
+        for (EndpointStats s : stats.values()) {
+            Histogram interval = s.interval();
+            all.add(interval);
+            if (measuring) report.interval(interval);
+            errors += s.errors();
+        }
+
+        if (!print) return;
+
+        System.out.printf("%5ds %-9s sent %8d  in flight %5d  interval p50 %8.1f ms  p99 %8.1f ms  errors %d%n",
+                TimeUnit.NANOSECONDS.toSeconds(now - start),
+                measuring ? "measure" : "warm-up",
+                sent.sum(),
+                inFlight.get(),
+                all.getValueAtPercentile(50) / 1000.0,
+                all.getValueAtPercentile(99) / 1000.0,
+                errors);
+    }
+
+    // park, not sleep: sleep(1) can overshoot by a millisecond or more,
+    // too coarse at a few thousand arrivals per second
+    private static void parkUntil(long deadline) {
+
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
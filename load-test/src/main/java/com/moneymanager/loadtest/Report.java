@@ -0,0 +1,214 @@
+package com.moneymanager.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Results of one run, in <out>/ (<out>/<label>/ per backend when
+// several are compared):
+//
+//   report.json      config, per-endpoint and total throughput, error
+//                    counts and latency percentiles
+//   latency.hlog     tagged interval histograms (one tag per endpoint),
+//                    readable by HistogramLogAnalyzer / HdrHistogram's
+//                    HistogramLogReader for plots or later merging
+//   comparison.json  in <out>/, the totals of every backend side by side
+//
+// and summary tables on stdout. Latencies are in milliseconds.
+final class Report {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final LoadTestConfig config;
+    private final String target;
+    private final Path dir;
+    private final HistogramLogWriter log;
+    private final Instant startedAt = Instant.now();
+
+    Report(LoadTestConfig config, String target, Path dir) throws IOException {
+        this.config = config;
+        this.target = target;
+        this.dir = dir;
+
+        Files.createDirectories(dir);
+
+        this.log = new HistogramLogWriter(
+                new PrintStream(Files.newOutputStream(dir.resolve("latency.hlog")), false, "UTF-8"));
+        log.outputComment("money-manager load test, latencies in microseconds");
+        log.outputLogFormatVersion();
+        log.outputStartTime(startedAt.toEpochMilli());
+        log.setBaseTime(startedAt.toEpochMilli());
+        log.outputLegend();
+    }
+
+    // called from the progress thread only
+    synchronized void interval(Histogram histogram) {
+        if (histogram.getTotalCount() > 0) log.outputIntervalHistogram(histogram);
+    }
+
+    // returns the total entry, for compare()
+    Map<String, Object> finish(List<EndpointStats> stats) throws IOException {
+
+        synchronized (this) {
+            log.close();
+        }
+
+        double seconds = config.duration().toMillis() / 1000.0;
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        Histogram all = new Histogram(EndpointStats.MAX_MICROS, EndpointStats.DIGITS);
+        long[] totals = new long[6];
+
+        System.out.println();
+        System.out.printf("%-16s %9s %9s %8s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors",
+                "p50", "p90", "p99", "p99.9", "max", "mean");
+
+        for (EndpointStats s : stats) {
+
+            long[] counts = {
+                    s.requests(), s.ok.sum(), s.clientErrors.sum(),
+                    s.serverErrors.sum(), s.ioErrors.sum(), s.dropped.sum()
+            };
+            for (int i = 0; i < counts.length; i++) totals[i] += counts[i];
+            all.add(s.total());
+
+            endpoints.put(s.endpoint().key(), entry(s.endpoint().route(), counts, s.total(), seconds));
+            row(s.endpoint().key(), counts, s.total(), seconds);
+        }
+
+        row("total", totals, all, seconds);
+        System.out.println();
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("startedAt", startedAt.toString());
+        json.put("measuredSeconds", seconds);
+        json.put("target", target);
+        json.put("config", config.asMap());
+        json.put("endpoints", endpoints);
+        Map<String, Object> total = entry("all", totals, all, seconds);
+        json.put("total", total);
+
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(dir.resolve("report.json").toFile(), json);
+
+        System.out.println("report: " + dir.resolve("report.json").toAbsolutePath());
+        System.out.println("histograms: " + dir.resolve("latency.hlog").toAbsolutePath());
+
+        return total;
+    }
+
+    // totals per backend (label -> finish() result), same load each
+    @SuppressWarnings("unchecked")
+    static void compare(LoadTestConfig config, Map<String, Map<String, Object>> totals) throws IOException {
+
+        Path out = Path.of(config.out());
+        Map<String, String> targets = config.targets();
+
+        System.out.println();
+        System.out.printf("%-16s %9s %8s %9s %9s %9s %9s %9s %9s%n",
+                "backend", "req/s", "errors",
+                "p50", "p90", "p99", "p99.9", "max", "mean");
+
+        Map<String, Object> backends = new LinkedHashMap<>();
+
+        totals.forEach((label, total) -> {
+
+            Map<String, Object> latency = (Map<String, Object>) total.get("latencyMs");
+
+            System.out.printf("%-16s %9.1f %7.2f%% %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    label,
+                    (double) total.get("throughput"),
+                    (double) total.get("errorRate") * 100,
+                    (double) latency.get("p50"),
+                    (double) latency.get("p90"),
+                    (double) latency.get("p99"),
+                    (double) latency.get("p99.9"),
+                    (double) latency.get("max"),
+                    (double) latency.get("mean"));
+
+            Map<String, Object> backend = new LinkedHashMap<>();
+            backend.put("baseUrl", targets.get(label));
+            backend.put("report", out.resolve(label).resolve("report.json").toString());
+            backend.put("total", total);
+            backends.put(label, backend);
+        });
+
+        System.out.println();
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("config", config.asMap());
+        json.put("backends", backends);
+
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(out.resolve("comparison.json").toFile(), json);
+
+        System.out.println("comparison: " + out.resolve("comparison.json").toAbsolutePath());
+    }
+
+    // =========================
+    // FORMATTING
+    // =========================
+
+    // counts: requests, ok, 4xx, 5xx, io errors, dropped
+    private static void row(String name, long[] counts, Histogram h, double seconds) {
+
+        long errors = counts[2] + counts[3] + counts[4];
+
+        System.out.printf("%-16s %9d %9.1f %7.2f%% %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                name, counts[0], counts[0] / seconds, rate(errors + counts[5], counts[0] + counts[5]) * 100,
+                ms(h.getValueAtPercentile(50)),
+                ms(h.getValueAtPercentile(90)),
+                ms(h.getValueAtPercentile(99)),
+                ms(h.getValueAtPercentile(99.9)),
+                ms(h.getMaxValue()),
+                h.getMean() / 1000.0);
+    }
+
+    private static Map<String, Object> entry(String route, long[] counts, Histogram h, double seconds) {
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        for (double p : PERCENTILES) {
+            latency.put("p" + (p == Math.rint(p) ? Long.toString((long) p) : Double.toString(p)),
+                    ms(h.getValueAtPercentile(p)));
+        }
+        latency.put("max", ms(h.getMaxValue()));
+        latency.put("mean", h.getMean() / 1000.0);
+
+        long errors = counts[2] + counts[3] + counts[4];
+
+        Map<String, Object> e = new LinkedHashMap<>();
+        e.put("route", route);
+        e.put("requests", counts[0]);
+        e.put("throughput", counts[0] / seconds);
+        e.put("ok", counts[1]);
+        e.put("clientErrors", counts[2]);
+        e.put("serverErrors", counts[3]);
+        e.put("ioErrors", counts[4]);
+        e.put("dropped", counts[5]);
+        // dropped arrivals are failures the server never saw, still failures
+        e.put("errorRate", rate(errors + counts[5], counts[0] + counts[5]));
+        e.put("latencyMs", latency);
+        return e;
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static double rate(long part, long whole) {
+        return whole == 0 ? 0 : (double) part / whole;
+    }
+}
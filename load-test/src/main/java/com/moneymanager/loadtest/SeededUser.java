@@ -0,0 +1,20 @@
+package com.moneymanager.loadtest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// A user the workload can act as
+final class SeededUser {
+
+    final String token;
+    final List<String> accountIds;   // DatasetGenerator.ACCOUNT_NAMES order
+    final LocalDate historyStart;
+    final double activity;           // how often the workload picks this user
+
+    SeededUser(String token, List<String> accountIds, LocalDate historyStart, double activity) {
+        this.token = token;
+        this.accountIds = accountIds;
+        this.historyStart = historyStart;
+        this.activity = activity;
+    }
+}
@@ -0,0 +1,136 @@
+package com.moneymanager.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Creates the users the load runs as: register, log in, open accounts,
+// bulk-import the generated history, then a few transfers. The import
+// is the only way to backdate rows, and it takes income / expense only,
+// so transfers are dated at seeding time.
+//
+// Emails carry a run id, a rerun against the same database adds new
+// users instead of piling more history onto the old ones.
+final class Seeder {
+
+    private static final String PASSWORD = "load-test-password";
+
+    private final LoadTestConfig config;
+    private final ApiClient api;
+
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong transfers = new AtomicLong();
+
+    Seeder(LoadTestConfig config, ApiClient api) {
+        this.config = config;
+        this.api = api;
+    }
+
+    List<SeededUser> seed() throws InterruptedException {
+
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusYears(config.years());
+
+        long started = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(config.seedParallelism());
+
+        try {
+            List<Future<SeededUser>> pending = new ArrayList<>();
+            for (int i = 0; i < config.users(); i++) {
+                int index = i;
+                pending.add(pool.submit(() -> seedUser(runId, index, from, today)));
+            }
+
+            List<SeededUser> users = new ArrayList<>(pending.size());
+            for (Future<SeededUser> f : pending) {
+                users.add(f.get());
+                if (users.size() % 10 == 0 || users.size() == pending.size()) {
+                    System.out.printf("seeded %d/%d users, %d transactions%n",
+                            users.size(), pending.size(), imported.get());
+                }
+            }
+
+            System.out.printf("seeding took %.1f s: %d imported, %d rejected, %d transfers%n",
+                    (System.nanoTime() - started) / 1e9,
+                    imported.get(), rejected.get(), transfers.get());
+
+            return users;
+
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Seeding failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private SeededUser seedUser(String runId, int index, LocalDate from, LocalDate to) {
+
+        String email = "load-" + runId + "-" + index + "@example.test";
+
+        api.register("Load User " + index, email, PASSWORD);
+        String token = api.login(email, PASSWORD);
+
+        List<String> accountIds = new ArrayList<>();
+        for (int a = 0; a < config.accountsPerUser(); a++) {
+            accountIds.add(api.createAccount(token, DatasetGenerator.ACCOUNT_NAMES.get(a)));
+        }
+
+        DatasetGenerator.Profile profile = DatasetGenerator.profile(config.seed(), index);
+        DatasetGenerator.History history = DatasetGenerator.history(
+                config.seed(), index, profile, accountIds, from, to, config.dailySpend());
+
+        long[] result = api.bulkImport(token, ndjson(history.rows));
+        imported.addAndGet(result[0]);
+        rejected.addAndGet(result[1]);
+
+        // out of the bank account, at most a twentieth of it each time
+        Random random = new Random(config.seed() * 31 + index);
+        for (int t = 0; t < config.transfersPerUser() && accountIds.size() > 1; t++) {
+
+            long amount = Math.min(
+                    history.balances[0] / 20,
+                    DatasetGenerator.minor(DatasetGenerator.logNormal(random, 100, 0.5)));
+            if (amount <= 0) break;
+
+            api.transfer(token, accountIds.get(0),
+                    accountIds.get(1 + random.nextInt(accountIds.size() - 1)), amount);
+            history.balances[0] -= amount;
+            transfers.incrementAndGet();
+        }
+
+        return new SeededUser(token, accountIds, from, profile.activity);
+    }
+
+    private byte[] ndjson(List<DatasetGenerator.Row> rows) {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(rows.size() * 160);
+
+        for (DatasetGenerator.Row r : rows) {
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("type", r.type);
+            row.put("amount", ApiClient.major(r.amount));
+            row.put("category", r.category);
+            row.put("description", r.description);
+            row.put("accountId", r.accountId);
+            row.put("division", r.division);
+            row.put("createdAt", r.createdAt.toString());
+
+            out.writeBytes(api.json(row));
+            out.write('\n');
+        }
+
+        return out.toByteArray();
+    }
+}
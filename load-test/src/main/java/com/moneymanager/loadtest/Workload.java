@@ -0,0 +1,167 @@
+package com.moneymanager.loadtest;
+
+import java.net.http.HttpRequest;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Picks what the next arrival does: an endpoint by the configured mix,
+// a user weighted by activity (heavy users call more often, as in
+// production), and plausible parameters. Not thread-safe: the open
+// model calls it from its dispatcher thread only, the closed model
+// under a lock.
+final class Workload {
+
+    private static final String[] PERIODS = {"week", "month", "year"};
+    private static final int[] RANGE_DAYS = {7, 30, 90, 365};
+    private static final String[] CATEGORIES = {"Food", "Transport", "Shopping", "Entertainment"};
+
+    private final ApiClient api;
+    private final List<SeededUser> users;
+    private final SplittableRandom random;
+
+    private final Endpoint[] endpoints;
+    private final int[] endpointWeights;   // cumulative
+    private final double[] userWeights;    // cumulative
+
+    Workload(LoadTestConfig config, ApiClient api, List<SeededUser> users) {
+        this.api = api;
+        this.users = users;
+        this.random = new SplittableRandom(config.seed());
+
+        Map<Endpoint, Integer> mix = new LinkedHashMap<>(config.mix());
+        this.endpoints = mix.keySet().toArray(new Endpoint[0]);
+        this.endpointWeights = new int[endpoints.length];
+        int sum = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            sum += mix.get(endpoints[i]);
+            endpointWeights[i] = sum;
+        }
+
+        this.userWeights = new double[users.size()];
+        double total = 0;
+        for (int i = 0; i < users.size(); i++) {
+            total += users.get(i).activity;
+            userWeights[i] = total;
+        }
+    }
+
+    List<Endpoint> endpoints() {
+        return new ArrayList<>(Arrays.asList(endpoints));
+    }
+
+    Call next() {
+
+        Endpoint endpoint = pickEndpoint();
+        SeededUser user = pickUser();
+
+        HttpRequest request = switch (endpoint) {
+            case CREATE -> api.createTransaction(user.token, transaction(user));
+            case TRANSFER -> transfer(user);
+            case SUMMARY -> api.get("/api/v1/transactions/summary", user.token);
+            case SUMMARY_PERIOD -> api.get("/api/v1/transactions/summary/"
+                    + PERIODS[random.nextInt(PERIODS.length)], user.token);
+            case RANGE -> range(user);
+            case PAGE -> api.get("/api/v1/transactions/page?page=" + page()
+                    + "&size=20", user.token);
+            case LIST -> api.get("/api/v1/transactions", user.token);
+        };
+
+        return new Call(endpoint, request);
+    }
+
+    // =========================
+    // REQUESTS
+    // =========================
+
+    // small, so live expenses rarely bounce on balance; charged to the
+    // bank account, which holds the salary
+    private Map<String, Object> transaction(SeededUser user) {
+
+        boolean income = random.nextInt(10) < 2;
+
+        Map<String, Object> tx = new LinkedHashMap<>();
+        tx.put("type", income ? "income" : "expense");
+        tx.put("amount", ApiClient.major(100 + random.nextInt(income ? 50_000 : 5_000)));
+        tx.put("category", income ? "Refund" : CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        tx.put("description", "load test");
+        tx.put("accountId", income
+                ? user.accountIds.get(random.nextInt(user.accountIds.size()))
+                : user.accountIds.get(0));
+        tx.put("division", random.nextInt(5) == 0 ? "OFFICE" : "PERSONAL");
+        return tx;
+    }
+
+    private HttpRequest transfer(SeededUser user) {
+
+        List<String> accounts = user.accountIds;
+
+        // single-account users transfer to themselves, which the API
+        // rejects; counted as the client error it is
+        String to = accounts.size() > 1
+                ? accounts.get(1 + random.nextInt(accounts.size() - 1))
+                : accounts.get(0);
+
+        return api.transferRequest(user.token, accounts.get(0), to, 100 + random.nextInt(2_000));
+    }
+
+    // a 7 / 30 / 90 / 365 day window anywhere in the user's history,
+    // recent windows more likely
+    private HttpRequest range(SeededUser user) {
+
+        int days = RANGE_DAYS[random.nextInt(RANGE_DAYS.length)];
+        LocalDate today = LocalDate.now();
+        long span = Math.max(1, ChronoUnit.DAYS.between(user.historyStart, today) - days);
+
+        long back = (long) (span * Math.pow(random.nextDouble(), 3));
+        LocalDate to = today.minusDays(back);
+        LocalDate from = to.minusDays(days - 1);
+
+        return api.get("/api/v1/transactions/range?from=" + from + "&to=" + to, user.token);
+    }
+
+    // mostly the first page, sometimes deeper
+    private int page() {
+        int page = 0;
+        while (page < 50 && random.nextInt(4) == 0) page++;
+        return page;
+    }
+
+    // =========================
+    // PICKING
+    // =========================
+    private Endpoint pickEndpoint() {
+
+        int roll = random.nextInt(endpointWeights[endpointWeights.length - 1]);
+
+        for (int i = 0; i < endpointWeights.length; i++) {
+            if (roll < endpointWeights[i]) return endpoints[i];
+        }
+
+        return endpoints[endpoints.length - 1];
+    }
+
+    private SeededUser pickUser() {
+
+        double roll = random.nextDouble() * userWeights[userWeights.length - 1];
+        int i = Arrays.binarySearch(userWeights, roll);
+
+        return users.get(Math.min(users.size() - 1, i >= 0 ? i : -i - 1));
+    }
+
+    static final class Call {
+
+        final Endpoint endpoint;
+        final HttpRequest request;
+
+        Call(Endpoint endpoint, HttpRequest request) {
+            this.endpoint = endpoint;
+            this.request = request;
+        }
+    }
+}